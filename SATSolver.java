@@ -1,87 +1,130 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import SAT.CDCLSolver;
 import SAT.Clause;
+import SAT.ClauseArena;
+import SAT.CNFNormalizer;
+import SAT.DimacsReader;
+import SAT.DimacsWriter;
+import SAT.DratWriter;
 import SAT.Literal;
+import SAT.ModelEnumerator;
+import SAT.PortfolioSolver;
+import SAT.Preprocessor;
 import SAT.Results;
 import SAT.SATTests;
+import SAT.SolveStatus;
 import SAT.Variable;
+import SAT.VariableIndex;
+import SAT.XorConstraint;
+import SAT.XorDetector;
 
 public class SATSolver {
-
+    // Gauss-Jordan work grows with rows times columns; bigger XOR systems are left to the clauses
+    private static final int MAX_DETECTED_XORS = 1024;
+
+    /**
+     * Solves the CNF with the CDCL engine and writes the model back into each
+     * Variable's on_off field. Returns the same clause list when satisfiable,
+     * null otherwise. The clauses are preprocessed first (see
+     * CNFNormalizer.preprocess); eliminated variables still get a value.
+     * XORs written out as clauses are detected and propagated natively.
+     * The depth argument is left over from the recursive search and is ignored.
+     */
     public static ArrayList<Clause> solveSAT(ArrayList<Clause> clauses, int depth){
-        if (depth < getVariables(clauses).size()-1){
-
-            if (isContradiction()){return null;}
-
-            Variable variable = getVariables(clauses).get(depth);
-            
-            variable.on_off = true;
-            ArrayList<Clause> newClauses = solveSAT(clauses, depth+1);
-            if (newClauses != null){
-                if (solved(newClauses)){
-                    return newClauses;
-                }
-            }
-            
-
-            variable.on_off = false;
-            newClauses = solveSAT(clauses, depth+1);
-            if (newClauses != null){
-                if (solved(newClauses)){
-                    return newClauses;
-                }
-            } 
-
-            return null;
-        }
-        else{
-            if (isContradiction()){return null;}
-
-            Variable variable = getVariables(clauses).get(depth);
-            
-            variable.on_off = true;
-            if (solved(clauses)){
-                return clauses;
-            }
+        return solveSAT(clauses, Collections.emptySet());
+    }
 
-            variable.on_off = false;
-            if (solved(clauses)){
-                return clauses;
-            } 
+    // As above, but the frozen variables are never eliminated by preprocessing
+    public static ArrayList<Clause> solveSAT(ArrayList<Clause> clauses, Set<Variable> frozen){
+        return solveSAT(clauses, frozen, new CDCLSolver());
+    }
 
-            return null;
+    /**
+     * As above, searching with the given fresh solver so the caller can set its
+     * budget, statistics or heuristic first. On null, solver.stopReason() tells
+     * a budget stop (UNKNOWN) apart from unsatisfiability.
+     */
+    public static ArrayList<Clause> solveSAT(ArrayList<Clause> clauses, Set<Variable> frozen, CDCLSolver solver){
+        if (clauses == null){return null;}
+
+        VariableIndex variables = new VariableIndex();
+        Preprocessor preprocessor = CNFNormalizer.preprocess(clauses, variables, frozen);
+
+        ClauseArena reduced = preprocessor.result();
+        solver.addClauses(reduced);
+        List<XorConstraint> xors = XorDetector.detect(reduced);
+        if (xors.size() <= MAX_DETECTED_XORS){solver.addXors(xors);}
+        if (solver.solve() != SolveStatus.SAT){return null;}
+
+        boolean[] model = new boolean[variables.size()];
+        for (int i = 0; i < model.length; i++){
+            model[i] = solver.modelValue(i);
         }
+        preprocessor.extendModel(model);
+        variables.applyModel(model);
+        return clauses;
     }
 
-    // assuming you want it to be true
-    private static boolean solved(ArrayList<Clause> sat) {
-        // ive decided that it starts as solved, and it just wants to prove otherwise, that way if the first clause is false its faster
-        for (Clause c : sat){
-            boolean clauseSolved = false;
-            for (Literal lit : c.clause){
-                if (lit.var.on_off == null){return false;}
-                if (lit.var.on_off ^ lit.neg) {clauseSolved = true;}
-            }
-            if (!clauseSolved){return false;}
+    /**
+     * As solveSAT, but logs a DRAT proof of the search so a null answer can be
+     * checked. Preprocessing is skipped because the proof must refer to the
+     * clauses as given: variables are numbered 1.. in order of first
+     * appearance, the same as ClauseArena.fromClauses, so that arena written
+     * out with DimacsWriter.writeFormula is the formula to check it against.
+     */
+    public static ArrayList<Clause> solveSAT(ArrayList<Clause> clauses, DratWriter proof){
+        if (clauses == null){return null;}
+
+        VariableIndex variables = new VariableIndex();
+        CDCLSolver solver = new CDCLSolver();
+        solver.setProof(proof);
+        solver.addClauses(ClauseArena.fromClauses(clauses, variables));
+        if (solver.solve() != SolveStatus.SAT){return null;}
+
+        boolean[] model = new boolean[variables.size()];
+        for (int i = 0; i < model.length; i++){
+            model[i] = solver.modelValue(i);
         }
-        return true;
+        variables.applyModel(model);
+        return clauses;
     }
 
-    private static ArrayList<Variable> getVariables(ArrayList<Clause> sat) {   
-        ArrayList<Variable> result = new ArrayList<>();
-        for (Clause cl : sat){
-            for (Literal lit : cl.clause){
-                Variable var = lit.var;
-                if (!result.contains(var)){
-                    result.add(var);
-                }
-            }
+    /**
+     * Lazily enumerates every model of the CNF projected onto the given
+     * variables: each element holds one value per projection variable, in the
+     * order given, and models that agree on the projection are reported once.
+     * The projected variables' on_off fields are also set as each model is
+     * pulled. Models are searched for on demand, so the stream can be limited
+     * or consumed one at a time without keeping earlier models around.
+     */
+    public static Stream<boolean[]> enumerateSAT(ArrayList<Clause> clauses, List<Variable> projection){
+        if (clauses == null){return Stream.empty();}
+
+        VariableIndex variables = new VariableIndex();
+        // Variables outside the projection may be eliminated: that keeps the projected models intact
+        Preprocessor preprocessor = CNFNormalizer.preprocess(clauses, variables, projection);
+
+        CDCLSolver solver = new CDCLSolver();
+        solver.addClauses(preprocessor.result());
+        int[] vars = new int[projection.size()];
+        for (int i = 0; i < vars.length; i++){
+            vars[i] = variables.indexOf(projection.get(i));
         }
-        return result;
-    }
 
-    private static boolean isContradiction() {
-        return false;
+        return new ModelEnumerator(solver, vars).stream().map(model -> {
+            for (int i = 0; i < model.length; i++){
+                projection.get(i).on_off = model[i];
+            }
+            return model;
+        });
     }
 
     public static ArrayList<Clause> setVariableValue(Variable var, boolean on_off, ArrayList<Clause> clauses){
@@ -89,7 +132,43 @@ public class SATSolver {
         return clauses;
     }
 
-    public static void main(String[] args){
+    // With a file argument: solve a DIMACS CNF and print the answer in competition format.
+    // An optional second argument runs a portfolio of that many threads, or, if it
+    // is not a number, names the file a binary DRAT proof is written to.
+    public static void main(String[] args) throws IOException, InterruptedException{
+        if (args.length > 0){
+            DimacsWriter writer = new DimacsWriter(System.out);
+            int threads = args.length > 1 && args[1].matches("\\d+") ? Integer.parseInt(args[1]) : 1;
+            if (threads > 1){
+                ClauseArena formula = new ClauseArena();
+                int numVars = DimacsReader.read(Path.of(args[0]), formula);
+                PortfolioSolver portfolio = new PortfolioSolver(formula, numVars, threads);
+                SolveStatus status = portfolio.solve();
+                writer.writeStatus(status);
+                if (status == SolveStatus.SAT){
+                    boolean[] model = new boolean[numVars];
+                    for (int i = 0; i < numVars; i++){
+                        model[i] = portfolio.modelValue(i);
+                    }
+                    writer.writeModel(model);
+                }
+                writer.flush();
+                return;
+            }
+
+            CDCLSolver solver = new CDCLSolver();
+            DimacsReader.load(Path.of(args[0]), solver);
+            if (args.length > 1 && threads == 1){
+                try (DratWriter proof = new DratWriter(new FileOutputStream(args[1]))){
+                    solver.setProof(proof);
+                    writer.writeResult(solver.solve(), solver);
+                }
+                return;
+            }
+            writer.writeResult(solver.solve(), solver);
+            return;
+        }
+
         ArrayList<Clause> cnf = new ArrayList<>();
 
         Variable var = new Variable(1);
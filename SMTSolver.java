@@ -2,26 +2,40 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
-import java.util.IdentityHashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
+import javax.management.JMException;
+
+import SAT.Budget;
+import SAT.CDCLSolver;
+import SAT.CNFNormalizer;
 import SAT.Clause;
+import SAT.Lit;
 import SAT.Literal;
+import SAT.PhaseEvent;
+import SAT.Preprocessor;
+import SAT.SolveStatus;
+import SAT.SolverStatistics;
+import SAT.SolverStatistics.Phase;
+import SAT.StopReason;
 import SAT.Variable;
+import SAT.VariableIndex;
 import SMT.Atom;
+import SMT.ClauseProgram;
+import SMT.DifferenceLogic;
+import SMT.IntervalPropagator;
+import SMT.LinearArithmetic;
 import SMT.SMTClause;
+import SMT.SMTContext;
 import SMT.SMTLiteral;
 import SMT.SMTOperator;
+import SMT.SMTResult;
 
 public class SMTSolver {
 
-    private static final Set<String> MULTIPLICATIVE_OPS = Set.of("*", "/", "%");
-    private static final Set<String> ADDITIVE_OPS = Set.of("+", "-");
-    private static final Set<String> COMPARISON_OPS = Set.of("<", "<=", ">", ">=");
-    private static final Set<String> EQUALITY_OPS = Set.of("=", "==", "!=", "<>");
-    private static final Map<SMTClause, ClauseEvaluationCache> CLAUSE_EVAL_CACHE = new IdentityHashMap<>();
+    private static final SolverStatistics STATISTICS = registeredStatistics();
 
     public static void main(String[] args){
 
@@ -87,184 +101,261 @@ public class SMTSolver {
 
     }
 
-    public static Atom solveSMT(Atom atom){
-        ArrayList<Clause> satClauses = atomToCNF(atom);
-
-        ArrayList<Clause> satResult = SATSolver.solveSAT(satClauses, 0);
-
-        if (satResult == null){return null;}
-
-        atom = makeInferences(atom);
+    // Process-wide totals of every solveSMT call, also published over JMX as SATSMT:type=SolverStatistics,name="SMTSolver"
+    public static SolverStatistics statistics(){
+        return STATISTICS;
+    }
 
-        // run a seccond time in case some variables were made unchangeable
-        atom = makeInferences(atom);
-        printSMTLiteralDomains(atom);
+    /**
+     * A copy of the atom with every literal locked to its value in the
+     * model, or null when it is unsatisfiable (or the solving thread was
+     * interrupted). The atom itself is never modified, so calls on any
+     * atoms may run concurrently.
+     */
+    public static Atom solveSMT(Atom atom){
+        return solveSMT(atom, Budget.unlimited()).atom;
+    }
+
+    // As above, recording phase times, SAT counters and cache hits in the given statistics
+    public static Atom solveSMT(Atom atom, SolverStatistics stats){
+        return solveSMT(atom, stats, Budget.unlimited()).atom;
+    }
+
+    /**
+     * Solves within the budget: once its deadline, limits or cancellation
+     * token say stop (checked in the SAT search and at every assignment
+     * performSMT tries), the result is UNKNOWN with the reason and the
+     * statistics of this call so far. Those are also added to statistics().
+     * The limits cover the whole call: SAT conflicts and theory conflicts
+     * count as conflicts, SAT decisions and assignments tried as nodes,
+     * summed over every refinement.
+     */
+    public static SMTResult solveSMT(Atom atom, Budget budget){
+        SolverStatistics call = new SolverStatistics();
+        SMTResult result = solveSMT(atom, call, budget);
+        STATISTICS.add(call);
+        return result;
+    }
 
-        Atom result = performSMT(atom, satResult, 0);
+    public static SMTResult solveSMT(Atom atom, SolverStatistics stats, Budget budget){
+        SMTContext smt = new SMTContext(atom);
+        SearchContext context = new SearchContext(stats, budget.start(), smt);
+        stats.recordSmtSolve();
+        PhaseEvent phase = stats.begin(Phase.ATOM_TO_CNF);
+        ArrayList<Clause> satClauses = atomToCNF(smt, stats);
+        stats.end(phase);
+
+        // The clause variables are what the theory check reads back and what conflict clauses
+        // mention, so only the Tseitin auxiliaries may be eliminated
+        phase = stats.begin(Phase.SAT);
+        Set<Variable> frozen = clauseVariables(satClauses, atom.clauses.size());
+        VariableIndex variables = new VariableIndex();
+        Preprocessor preprocessor = CNFNormalizer.preprocess(satClauses, variables, frozen);
+        CDCLSolver solver = new CDCLSolver();
+        solver.setStatistics(stats);
+        solver.addClauses(preprocessor.result());
+        solver.ensureVars(variables.size());
+        // Solver variable of each SMT clause, -1 if the Boolean structure leaves it out
+        int[] clauseVar = new int[atom.clauses.size()];
+        Arrays.fill(clauseVar, -1);
+        for (Variable var : frozen) {
+            clauseVar[var.val] = variables.find(var);
+        }
+        stats.end(phase);
+
+        while (true) {
+            // Each search may only use what the earlier ones and the theory checks left over
+            solver.setBudget(budget.remaining(context.conflicts, context.nodes));
+            long conflicts = solver.conflicts();
+            long decisions = solver.decisions();
+            phase = stats.begin(Phase.SAT);
+            SolveStatus status = solver.solve();
+            stats.end(phase);
+            context.conflicts += solver.conflicts() - conflicts;
+            context.nodes += solver.decisions() - decisions;
+            if (status == SolveStatus.UNKNOWN){return new SMTResult(SolveStatus.UNKNOWN, null, solver.stopReason(), stats);}
+            if (status == SolveStatus.UNSAT){return new SMTResult(SolveStatus.UNSAT, null, null, stats);}
+
+            int[] asserted = assertedClauses(smt, solver, clauseVar);
+            int[] conflict = theoryCheck(smt, asserted, context);
+            if (context.stopped != null){return new SMTResult(SolveStatus.UNKNOWN, null, context.stopped, stats);}
+            if (conflict == null){
+                // Literals only in clauses the Boolean structure leaves out were never enumerated
+                for (int i = 0; i < smt.literalCount(); i++) {
+                    if (!smt.isLocked(i) && (smt.value(i) < smt.low(i) || smt.value(i) > smt.high(i))) {smt.setValue(i, smt.low(i));}
+                }
+                return new SMTResult(SolveStatus.SAT, smt.model(), null, stats);
+            }
 
-        if (result == null){
-            // try all combinations
-            for (int i = 0; i < 5; i ++){
-                // implement later
+            // Not all of these clauses can have the values this model gave them
+            context.conflicts++;
+            int[] lits = new int[conflict.length];
+            for (int i = 0; i < conflict.length; i++) {
+                lits[i] = Lit.of(clauseVar[conflict[i]], smt.expected(conflict[i]));
             }
-        }
+            solver.addClause(lits);
+        }
+    }
+
+    // The clauses the Boolean model constrains, with their expected values set from it
+    private static int[] assertedClauses(SMTContext smt, CDCLSolver solver, int[] clauseVar) {
+        int[] asserted = new int[clauseVar.length];
+        int size = 0;
+        for (int i = 0; i < clauseVar.length; i++) {
+            if (clauseVar[i] < 0) {continue;}
+            smt.setExpected(i, solver.modelValue(clauseVar[i]));
+            asserted[size++] = i;
+        }
+        return Arrays.copyOf(asserted, size);
+    }
+
+    /**
+     * Null once the context holds values giving every asserted clause its
+     * expected value, otherwise clauses that cannot all have theirs.
+     * Difference constraints and linear clauses have solvers of their own
+     * whose conflicts need no minimizing; anything else (or a linear problem
+     * whose fractions outgrow a long) is enumerated.
+     */
+    private static int[] theoryCheck(SMTContext smt, int[] asserted, SearchContext context) {
+        if (context.differences.covers(asserted)) {
+            PhaseEvent phase = context.stats.begin(Phase.SEARCH);
+            int[] conflict = context.differences.check(asserted);
+            context.stats.end(phase);
+            return conflict;
+        }
+        if (context.linear.covers(asserted)) {
+            PhaseEvent phase = context.stats.begin(Phase.SEARCH);
+            SolveStatus status = context.linear.check(asserted, context::exhausted);
+            context.stats.end(phase);
+            if (status == SolveStatus.SAT || context.stopped != null) {return null;}
+            if (status == SolveStatus.UNSAT) {return context.linear.conflict();}
+        }
+        if (consistent(smt, asserted, context) || context.stopped != null) {return null;}
+        return theoryConflict(smt, asserted, context);
+    }
+
+    /**
+     * Whether some values of the unlocked literals give every listed clause
+     * its expected truth value. Starts from the literals' own domains, so
+     * each call is independent of the previous one.
+     */
+    private static boolean consistent(SMTContext smt, int[] clauses, SearchContext context) {
+        smt.reset();
+        PhaseEvent phase = context.stats.begin(Phase.INFERENCE);
+        boolean narrowed = context.propagator.propagate(clauses);
+        context.stats.end(phase);
+        if (!narrowed) {return false;}
+
+        phase = context.stats.begin(Phase.SEARCH);
+        int[] free = unlockedLiterals(smt, clauses);
+        int[][] decided = decidedClauses(smt, clauses, free);
+        boolean result = checkSMTValidity(smt, decided[0], context.stats) && performSMT(smt, free, decided, 0, context);
+        context.stats.end(phase);
         return result;
     }
 
-    private static Atom makeInferences(Atom atom){
-        for (int index = 0; index < atom.clauses.size(); index++) {
-
-            SMTClause clause = atom.clauses.get(index);
-            for (int opIndex = 0; opIndex < clause.operators.size(); opIndex++) {
-
-                SMTOperator operator = clause.operators.get(opIndex);
-                SMTLiteral leftLiteral = clause.literals.get(opIndex);
-                SMTLiteral rightLiteral = clause.literals.get(opIndex+1);
-                if (COMPARISON_OPS.contains(operator.operator)){
-                    if (rightLiteral.isValueLocked){
-                        leftLiteral = refineLeftLiteralDomain(leftLiteral, rightLiteral, operator);
-                    }
-                    else if (leftLiteral.isValueLocked){
-                        rightLiteral = refineRightLiteralDomain(leftLiteral, rightLiteral, operator);
-                    }
-                    else{
-                        SMTLiteral[] lits = refineBothLiteralDomains(leftLiteral, rightLiteral, operator);
-                        leftLiteral = lits[0];
-                        rightLiteral = lits[1];
-                    }
+    /**
+     * A subset of the asserted clauses that cannot all have their expected
+     * values, for a conflict clause that rules out more than this one model.
+     * Clauses sharing no literal cannot conflict with each other, so one
+     * group of connected clauses must be inconsistent on its own; within it,
+     * every clause the rest stay inconsistent without is dropped.
+     */
+    private static int[] theoryConflict(SMTContext smt, int[] asserted, SearchContext context) {
+        int[] core = asserted;
+        List<int[]> groups = connectedClauses(smt, asserted);
+        if (groups.size() > 1) {
+            for (int[] group : groups) {
+                if (!consistent(smt, group, context)) {
+                    core = group;
+                    break;
                 }
+                if (context.stopped != null) {return core;}
             }
         }
 
-        return atom;
-    }
-
-    static void propagateEqualities(Atom atom) {
-        boolean changed;
-        do {
-            changed = false;
-            for (SMTClause c : atom.clauses) {
-                if (isSimpleEquality(c)) {
-                    SMTLiteral left = c.literals.get(0);
-                    SMTLiteral right = c.literals.get(1);
-                    if (right.isValueLocked && !left.isValueLocked) {
-                        left.value = right.value;
-                        left.isValueLocked = true;
-                        changed = true;
-                    }
+        int size = core.length;
+        core = core.clone();
+        for (int i = 0; i < size && size > 1; ) {
+            int[] rest = new int[size - 1];
+            System.arraycopy(core, 0, rest, 0, i);
+            System.arraycopy(core, i + 1, rest, i, size - 1 - i);
+            if (consistent(smt, rest, context)) {
+                i++;
+            } else {
+                System.arraycopy(rest, 0, core, 0, size - 1);
+                size--;
+            }
+            if (context.stopped != null) {break;}
+        }
+        return Arrays.copyOf(core, size);
+    }
+
+    // Groups of clauses linked by shared unlocked literals
+    private static List<int[]> connectedClauses(SMTContext smt, int[] clauses) {
+        int[] parent = new int[clauses.length];
+        int[] owner = new int[smt.literalCount()];
+        Arrays.fill(owner, -1);
+        for (int i = 0; i < clauses.length; i++) {
+            parent[i] = i;
+            for (int literal : smt.clauseLiterals(clauses[i])) {
+                if (smt.isLocked(literal)) {continue;}
+                if (owner[literal] < 0) {
+                    owner[literal] = i;
+                } else {
+                    parent[root(parent, i)] = root(parent, owner[literal]);
                 }
             }
-        } while (changed);
-    }
+        }
 
-    private static boolean isSimpleEquality(SMTClause clause) {
-        if (clause == null || clause.literals == null || clause.operators == null) {
-            return false;
+        List<int[]> groups = new ArrayList<>();
+        int[] groupOf = new int[clauses.length];
+        int[] sizes = new int[clauses.length];
+        Arrays.fill(groupOf, -1);
+        for (int i = 0; i < clauses.length; i++) {
+            int r = root(parent, i);
+            if (groupOf[r] < 0) {
+                groupOf[r] = groups.size();
+                groups.add(null);
+            }
+            sizes[groupOf[r]]++;
         }
-        if (clause.literals.size() != 2 || clause.operators.size() != 1) {
-            return false;
+        for (int g = 0; g < groups.size(); g++) {
+            groups.set(g, new int[sizes[g]]);
+            sizes[g] = 0;
         }
-        String op = clause.operators.get(0).operator;
-        return "=".equals(op) || "==".equals(op);
-    }
-
-    public static SMTLiteral refineLeftLiteralDomain(SMTLiteral leftLit, SMTLiteral rightLit, SMTOperator operator){
-        switch (operator.operator) {
-            case "<":
-                leftLit.domain[1] = rightLit.value - 1;
-                return leftLit;
-            
-            case ">":
-                leftLit.domain[0] = rightLit.value + 1;
-                return leftLit;
-            
-            case "=":
-                leftLit.value = rightLit.value;
-                leftLit.isValueLocked = true;
-                return leftLit;
-
-            case "==":
-                leftLit.value = rightLit.value;
-                leftLit.isValueLocked = true;
-                return leftLit;
-            
-            case "<=":
-                leftLit.domain[1] = rightLit.value;
-                return leftLit;
-
-            case ">=":
-                leftLit.domain[0] = rightLit.value;
-                return leftLit;
-        
-            default:
-                return leftLit;
+        for (int i = 0; i < clauses.length; i++) {
+            int g = groupOf[root(parent, i)];
+            groups.get(g)[sizes[g]++] = clauses[i];
         }
+        return groups;
     }
 
-    public static SMTLiteral refineRightLiteralDomain(SMTLiteral leftLit, SMTLiteral rightLit, SMTOperator operator){
-        switch (operator.operator) {
-            case "<":
-                rightLit.domain[0] = leftLit.value + 1;
-                return rightLit;
-            
-            case ">":
-                rightLit.domain[1] = leftLit.value - 1;
-                return rightLit;
-            
-            case "=":
-                rightLit.value = leftLit.value;
-                rightLit.isValueLocked = true;
-                return rightLit;
-
-            case "==":
-                rightLit.value = leftLit.value;
-                rightLit.isValueLocked = true;
-                return rightLit;
-            
-            case "<=":
-                rightLit.domain[0] = leftLit.value;
-                return rightLit;
-
-            case ">=":
-                rightLit.domain[1] = leftLit.value;
-                return rightLit;
-        
-            default:
-                return rightLit;
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
         }
+        return i;
     }
 
-    public static SMTLiteral[] refineBothLiteralDomains(SMTLiteral leftLit, SMTLiteral rightLit, SMTOperator operator){
-        SMTLiteral[] lits = new SMTLiteral[2];
-        switch (operator.operator) {
-            case "<":
-                // left < right
-                leftLit.domain[1] = Math.min(leftLit.domain[1], rightLit.domain[1] - 1);
-                rightLit.domain[0] = Math.max(rightLit.domain[0], leftLit.domain[0] + 1);
-                break;
-            
-            case ">":
-                // left > right
-                leftLit.domain[0] = Math.max(leftLit.domain[0], rightLit.domain[0] + 1);
-                rightLit.domain[1] = Math.min(rightLit.domain[1], leftLit.domain[1] - 1);
-                break;
-            
-            case "<=":
-                leftLit.domain[1] = Math.min(leftLit.domain[1], rightLit.domain[1]);
-                rightLit.domain[0] = Math.max(rightLit.domain[0], leftLit.domain[0]);
-                break;
-            
-            case ">=":
-                leftLit.domain[0] = Math.max(leftLit.domain[0], rightLit.domain[0]);
-                rightLit.domain[1] = Math.min(rightLit.domain[1], leftLit.domain[1]);
-                break;
+    // The unlocked literals of the clauses, each once, in order of first appearance
+    private static int[] unlockedLiterals(SMTContext smt, int[] clauses) {
+        boolean[] seen = new boolean[smt.literalCount()];
+        int[] result = new int[smt.literalCount()];
+        int size = 0;
+        for (int clause : clauses) {
+            for (int literal : smt.clauseLiterals(clause)) {
+                if (smt.isLocked(literal) || seen[literal]) {continue;}
+                seen[literal] = true;
+                result[size++] = literal;
+            }
         }
-        lits[0] = leftLit;
-        lits[1] = rightLit;
-        return lits;
+        return Arrays.copyOf(result, size);
     }
 
-    private static ArrayList<Clause> atomToCNF(Atom atom) {
+    private static ArrayList<Clause> atomToCNF(SMTContext smt, SolverStatistics stats) {
+        Atom atom = smt.atom;
         ArrayList<Clause> satClauses = new ArrayList<>();
         if (atom == null || atom.clauses == null || atom.clauses.isEmpty()) {
             return satClauses;
@@ -278,7 +369,7 @@ public class SMTSolver {
 
         ClauseTruthStatus[] clauseStatuses = new ClauseTruthStatus[clauseCount];
         for (int i = 0; i < clauseCount; i++) {
-            clauseStatuses[i] = determineClauseStatus(atom.clauses.get(i));
+            clauseStatuses[i] = determineClauseStatus(smt, i, stats);
             if (clauseStatuses[i] == ClauseTruthStatus.TRUE) {
                 satClauses.add(Clause.of(new Literal(satVariables.get(i), false)));
             } else if (clauseStatuses[i] == ClauseTruthStatus.FALSE) {
@@ -307,6 +398,18 @@ public class SMTSolver {
         return satClauses;
     }
 
+    private static Set<Variable> clauseVariables(ArrayList<Clause> satClauses, int clauseCount) {
+        Set<Variable> result = new HashSet<>();
+        for (Clause clause : satClauses) {
+            for (Literal lit : clause.clause) {
+                if (lit.var.val < clauseCount) {
+                    result.add(lit.var);
+                }
+            }
+        }
+        return result;
+    }
+
     private static List<String> normalizeClauseOperators(Atom atom, int clauseCount) {
         List<String> operators = new ArrayList<>();
         int expected = Math.max(0, clauseCount - 1);
@@ -363,19 +466,20 @@ public class SMTSolver {
         return new ClauseNode(index);
     }
 
-    private static ClauseTruthStatus determineClauseStatus(SMTClause clause) {
+    private static ClauseTruthStatus determineClauseStatus(SMTContext smt, int index, SolverStatistics stats) {
+        SMTClause clause = smt.atom.clauses.get(index);
         if (clause == null || clause.literals == null || clause.literals.isEmpty()) {
             return ClauseTruthStatus.FALSE;
         }
-        if (!areAllLiteralsLocked(clause)) {
+        if (!areAllLiteralsLocked(smt, index)) {
             return ClauseTruthStatus.UNKNOWN;
         }
-        return evaluateSMTClause(clause) ? ClauseTruthStatus.TRUE : ClauseTruthStatus.FALSE;
+        return evaluateSMTClause(smt, index, stats) ? ClauseTruthStatus.TRUE : ClauseTruthStatus.FALSE;
     }
 
-    private static boolean areAllLiteralsLocked(SMTClause clause) {
-        for (SMTLiteral literal : clause.literals) {
-            if (!literal.isValueLocked) {
+    private static boolean areAllLiteralsLocked(SMTContext smt, int index) {
+        for (int literal : smt.clauseLiterals(index)) {
+            if (!smt.isLocked(literal)) {
                 return false;
             }
         }
@@ -474,219 +578,89 @@ public class SMTSolver {
         return 0;
     }
 
-    private static Atom performSMT(Atom atom, ArrayList<Clause> satResult, int depth) {
-        ArrayList<SMTLiteral> variables = getVariables(atom);
-        if (variables.isEmpty()) {
-            return checkSMTValidity(atom, satResult);
-        }
-
-        SMTLiteral literal = variables.get(depth);
-        if (depth < variables.size() - 1){
-            if (literal.isValueLocked){
-                return performSMT(atom, satResult, depth+1);
+    /**
+     * Tries every value of each free literal in turn; true with the context
+     * holding a model. decided[d + 1] are the clauses whose literals are all
+     * set once free[0..d] are, checked right there so a wrong value is
+     * dropped before the literals after it are enumerated.
+     */
+    private static boolean performSMT(SMTContext smt, int[] free, int[][] decided, int depth, SearchContext context) {
+        if (depth == free.length) {return true;}
+
+        int literal = free[depth];
+        if (smt.low(literal) > smt.high(literal)) {return false;}
+        for (int i = smt.low(literal); ; i++){
+            // Every value tried is a node, so a budget also stops a long loop over the last literal
+            if (context.exhausted()) {return false;}
+            smt.setValue(literal, i);
+            if (checkSMTValidity(smt, decided[depth + 1], context.stats) && performSMT(smt, free, decided, depth+1, context)) {return true;}
+            if (i == smt.high(literal) || context.stopped != null) {return false;}
+        }
+    }
+
+    // Groups the clauses by the position in free of their last free literal, plus one (0: none)
+    private static int[][] decidedClauses(SMTContext smt, int[] clauses, int[] free) {
+        int[] position = new int[smt.literalCount()];
+        for (int i = 0; i < free.length; i++) {
+            position[free[i]] = i + 1;
+        }
+        int[] last = new int[clauses.length];
+        int[] sizes = new int[free.length + 1];
+        for (int c = 0; c < clauses.length; c++) {
+            for (int literal : smt.clauseLiterals(clauses[c])) {
+                if (!smt.isLocked(literal)) {last[c] = Math.max(last[c], position[literal]);}
             }
-
-            for (int i = literal.domain[0]; i <= literal.domain[1]; i++){
-                literal.value = i;
-                Atom result = performSMT(atom, satResult, depth+1);
-                if (result != null) {return result;}
-            }
-
+            sizes[last[c]]++;
         }
-        else{
-            if (literal.isValueLocked){
-                return checkSMTValidity(atom,satResult);
-            }
-
-            for (int i = literal.domain[0]; i < literal.domain[1]; i++){
-                literal.value = i;
-                Atom result = checkSMTValidity(atom,satResult);
-                if (result != null) {return result;}
-            }
+        int[][] decided = new int[free.length + 1][];
+        for (int d = 0; d <= free.length; d++) {
+            decided[d] = new int[sizes[d]];
+            sizes[d] = 0;
         }
-
-        return null;
+        for (int c = 0; c < clauses.length; c++) {
+            decided[last[c]][sizes[last[c]]++] = clauses[c];
+        }
+        return decided;
     }
 
-    private static Atom checkSMTValidity(Atom atom, ArrayList<Clause> satResult) {
+    private static boolean checkSMTValidity(SMTContext smt, int[] clauses, SolverStatistics stats) {
         // Each variable in SAT represents one clause in SMT
-        // Check if all SMT clauses evaluate correctly based on SAT assignment
+        // Check if the clauses evaluate to the values the SAT model gave them
 
-        for (int i = 0; i < atom.clauses.size(); i++) {
-            SMTClause smtClause = atom.clauses.get(i);
-            boolean clauseResult = evaluateSMTClause(smtClause);
-            
-            // Find the expected value from SAT result for this clause (variable i)
-            boolean expectedValue = getExpectedValueForClause(satResult, i);
-            
-            if (clauseResult != expectedValue) {
-                return null; // This assignment doesn't satisfy the constraints
+        for (int i : clauses) {
+            if (evaluateSMTClause(smt, i, stats) != smt.expected(i)) {
+                return false; // This assignment doesn't satisfy the constraints
             }
         }
-
-        
-        
-        // All clauses satisfied, return the clauses with their current values
-        return atom;
+        return true;
     }
 
-    private static boolean evaluateSMTClause(SMTClause clause) {
+    // The clause under the context's current values, through the context's cache
+    private static boolean evaluateSMTClause(SMTContext smt, int index, SolverStatistics stats) {
+        SMTClause clause = smt.atom.clauses.get(index);
         if (clause == null || clause.literals == null || clause.literals.isEmpty()) {
             return false;
         }
 
-        if (clause.operators == null || clause.operators.isEmpty()) {
-            // Fallback to previous behavior: a single literal clause is considered satisfied
-            return clause.literals.size() == 1;
-        }
-
-        List<Integer> values = new ArrayList<>();
-        for (SMTLiteral lit : clause.literals) {
-            values.add(lit.value);
-        }
-
-        int[] currentValues = values.stream().mapToInt(Integer::intValue).toArray();
-        ClauseEvaluationCache cache = CLAUSE_EVAL_CACHE.get(clause);
-        if (cache != null && cache.matches(currentValues)) {
-            return cache.lastResult;
+        int[] currentValues = smt.clauseValues(index);
+        Boolean cached = smt.cached(index, currentValues);
+        if (cached != null) {
+            stats.cacheHit();
+            return cached;
         }
+        stats.cacheMiss();
 
-        List<String> ops = new ArrayList<>();
-        for (SMTOperator op : clause.operators) {
-            ops.add(op.operator);
-        }
-
-        if (values.size() - 1 != ops.size()) {
-            return false;
-        }
-
-        if (!processArithmeticOps(values, ops, MULTIPLICATIVE_OPS)) {
-            return false;
-        }
-        if (!processArithmeticOps(values, ops, ADDITIVE_OPS)) {
-            return false;
-        }
-
-        Boolean comparisonResult = processComparisonOps(values, ops, COMPARISON_OPS);
-        Boolean equalityResult = processComparisonOps(values, ops, EQUALITY_OPS);
-
-        boolean finalResult;
-        if (equalityResult != null) {
-            finalResult = equalityResult;
-        } else if (comparisonResult != null) {
-            finalResult = comparisonResult;
-        } else {
-            finalResult = !values.isEmpty() && values.get(0) != 0;
-        }
-
-        cache = CLAUSE_EVAL_CACHE.computeIfAbsent(clause, key -> new ClauseEvaluationCache());
-        cache.update(currentValues, finalResult);
-        return finalResult;
-    }
-
-    private static boolean processArithmeticOps(List<Integer> values, List<String> ops, Set<String> targetOps) {
-        for (int i = 0; i < ops.size(); ) {
-            String op = ops.get(i);
-            if (!targetOps.contains(op)) {
-                i++;
-                continue;
-            }
-
-            int left = values.get(i);
-            int right = values.get(i + 1);
-            int result;
-            switch (op) {
-                case "+":
-                    result = left + right;
-                    break;
-                case "-":
-                    result = left - right;
-                    break;
-                case "*":
-                    result = left * right;
-                    break;
-                case "/":
-                    if (right == 0) {return false;}
-                    result = left / right;
-                    break;
-                case "%":
-                    if (right == 0) {return false;}
-                    result = left % right;
-                    break;
-                default:
-                    result = left;
-            }
-
-            values.set(i, result);
-            values.remove(i + 1);
-            ops.remove(i);
-        }
-        return true;
-    }
-
-    private static Boolean processComparisonOps(List<Integer> values, List<String> ops, Set<String> targetOps) {
-        Boolean lastResult = null;
-        for (int i = 0; i < ops.size(); ) {
-            String op = ops.get(i);
-            if (!targetOps.contains(op)) {
-                i++;
-                continue;
-            }
-
-            int left = values.get(i);
-            int right = values.get(i + 1);
-            boolean comparison;
-            switch (op) {
-                case "<":
-                    comparison = left < right;
-                    break;
-                case "<=":
-                    comparison = left <= right;
-                    break;
-                case ">":
-                    comparison = left > right;
-                    break;
-                case ">=":
-                    comparison = left >= right;
-                    break;
-                case "=":
-                case "==":
-                    comparison = left == right;
-                    break;
-                case "!=":
-                case "<>":
-                    comparison = left != right;
-                    break;
-                default:
-                    comparison = false;
-            }
-
-            lastResult = comparison;
-            values.set(i, comparison ? 1 : 0);
-            values.remove(i + 1);
-            ops.remove(i);
-        }
-        return lastResult;
+        boolean result = smt.evaluate(index, currentValues);
+        smt.cache(index, currentValues, result);
+        return result;
     }
 
-
-    private static boolean getExpectedValueForClause(ArrayList<Clause> satResult, int clauseIndex) {
-        // Find the variable with val == clauseIndex in the SAT result
-        for (Clause clause : satResult) {
-            for (Literal lit : clause.clause) {
-                if (lit.var.val == clauseIndex) {
-                    // If negated, we expect false; otherwise true
-                    // on_off indicates the assigned value
-                    if (lit.var.on_off != null) {
-                        return lit.neg ? !lit.var.on_off : lit.var.on_off;
-                    }
-                    // Default: not negated means we expect true
-                    return !lit.neg;
-                }
-            }
+    private static int[] literalValues(SMTClause clause) {
+        int[] values = new int[clause.literals.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = clause.literals.get(i).value;
         }
-        // Default to true if not found
-        return true;
+        return values;
     }
 
     private static ArrayList<SMTLiteral> getVariables(Atom clauses) {
@@ -725,7 +699,7 @@ public class SMTSolver {
                 appendClause(sb, clause, false);
                 sb.append(" => ");
                 appendClause(sb, clause, true);
-                sb.append(" = ").append(evaluateSMTClause(clause));
+                sb.append(" = ").append(ClauseProgram.compile(clause).evaluate(literalValues(clause)));
             } else if (clause.literals.size() == 1) {
                 sb.append(clause.literals.get(0).id)
                   .append(" = ").append(clause.literals.get(0).value);
@@ -844,39 +818,40 @@ public class SMTSolver {
         }
     }
 
-    private static final class ClauseEvaluationCache {
-        private int[] lastValues;
-        private boolean lastResult;
-        private boolean initialized;
+    // Per-call state of performSMT: where to record statistics and when to give up
+    private static final class SearchContext {
+        final SolverStatistics stats;
+        final Budget.Meter meter;
+        final IntervalPropagator propagator;
+        final DifferenceLogic differences;
+        final LinearArithmetic linear;
+        // Spent so far by the whole solveSMT call, SAT searches included
+        long conflicts;
+        long nodes;
+        StopReason stopped;
 
-        boolean matches(int[] values) {
-            if (!initialized || lastValues == null || lastValues.length != values.length) {
-                return false;
-            }
-            for (int i = 0; i < values.length; i++) {
-                if (lastValues[i] != values[i]) {
-                    return false;
-                }
-            }
-            return true;
+        SearchContext(SolverStatistics stats, Budget.Meter meter, SMTContext smt) {
+            this.stats = stats;
+            this.meter = meter;
+            propagator = new IntervalPropagator(smt);
+            differences = new DifferenceLogic(smt);
+            linear = new LinearArithmetic(smt);
         }
 
-        void update(int[] values, boolean result) {
-            lastValues = values.clone();
-            lastResult = result;
-            initialized = true;
+        // Counts one search node; true once the budget is used up
+        boolean exhausted() {
+            if (stopped == null) {stopped = meter.check(conflicts, nodes++);}
+            return stopped != null;
         }
     }
 
-    private static void printSMTLiteralDomains(Atom atom){
-        ArrayList<SMTLiteral> usedLiterals = new ArrayList<>();
-        for (SMTClause clause : atom.clauses) {
-            for (SMTLiteral lit : clause.literals) {
-                if (!usedLiterals.contains(lit)){
-                    System.out.println(lit.id + ": {" + lit.domain[0] + ", " + lit.domain[1] + "}");
-                    usedLiterals.add(lit);
-                }
-            }
+    private static SolverStatistics registeredStatistics(){
+        SolverStatistics stats = new SolverStatistics();
+        try {
+            stats.register("SMTSolver");
+        } catch (JMException | SecurityException e) {
+            // No MBean server access: the statistics still work, just not over JMX
         }
+        return stats;
     }
 }
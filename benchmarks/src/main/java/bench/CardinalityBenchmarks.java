@@ -0,0 +1,101 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import SAT.CDCLSolver;
+import SAT.CardinalityConstraint;
+import SAT.CardinalityEncoder;
+import SAT.ClauseArena;
+import SAT.Lit;
+import SAT.SolveStatus;
+
+/**
+ * A scheduling core: every job goes to some slot, incompatible jobs never
+ * share one and no slot takes more than its capacity, with exactly as many
+ * jobs as there is room for. The capacity constraints are given to the
+ * counter propagator (NATIVE) or written out with one of the
+ * CardinalityEncoder encodings; the incompatibilities come from a fixed seed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardinalityBenchmarks {
+    private static final double INCOMPATIBLE = 0.1;
+
+    @State(Scope.Benchmark)
+    public static class Schedule {
+        @Param({"NATIVE", "SEQUENTIAL_COUNTER", "TOTALIZER", "CARDINALITY_NETWORK"})
+        public String encoding;
+
+        @Param({"8", "12"})
+        public int slots;
+
+        public int capacity;
+        public int jobs;
+        public ArrayList<int[]> incompatible = new ArrayList<>();
+
+        @Setup
+        public void setup() {
+            capacity = slots - 2;
+            jobs = slots * capacity;
+            Random random = new Random(20240801L + slots);
+            for (int a = 0; a < jobs; a++) {
+                for (int b = a + 1; b < jobs; b++) {
+                    if (random.nextDouble() < INCOMPATIBLE) {incompatible.add(new int[] {a, b});}
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public SolveStatus fullSchedule(Schedule state) {
+        int slots = state.slots;
+        CDCLSolver solver = new CDCLSolver();
+        solver.ensureVars(state.jobs * slots);
+        for (int job = 0; job < state.jobs; job++) {
+            int[] some = new int[slots];
+            for (int slot = 0; slot < slots; slot++) {
+                some[slot] = Lit.of(job * slots + slot, false);
+            }
+            solver.addClause(some);
+        }
+        for (int[] pair : state.incompatible) {
+            for (int slot = 0; slot < slots; slot++) {
+                solver.addClause(Lit.of(pair[0] * slots + slot, true), Lit.of(pair[1] * slots + slot, true));
+            }
+        }
+
+        ClauseArena encoded = new ClauseArena();
+        int numVars = state.jobs * slots;
+        for (int slot = 0; slot < slots; slot++) {
+            int[] assigned = new int[state.jobs];
+            for (int job = 0; job < state.jobs; job++) {
+                assigned[job] = Lit.of(job * slots + slot, false);
+            }
+            CardinalityConstraint capacity = CardinalityConstraint.atMost(assigned, state.capacity);
+            if (state.encoding.equals("NATIVE")) {
+                solver.addCardinality(capacity);
+            } else {
+                numVars = CardinalityEncoder.encode(capacity, CardinalityEncoder.Encoding.valueOf(state.encoding), encoded, numVars);
+            }
+        }
+        solver.addClauses(encoded);
+        return solver.solve();
+    }
+}
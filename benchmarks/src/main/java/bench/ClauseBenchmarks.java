@@ -0,0 +1,63 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import SMT.ClauseProgram;
+import SMT.SMTClause;
+import SMT.SMTLiteral;
+import SMT.SMTOperator;
+
+/**
+ * One clause evaluation, the innermost step of performSMT: a compiled
+ * x0 * x1 + x2 * x3 + ... < k clause of the given number of literals,
+ * evaluated for a different assignment each time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ClauseBenchmarks {
+    @Param({"3", "9", "33"})
+    public int literals;
+
+    private ClauseProgram program;
+    private int[] values;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        SMTClause clause = new SMTClause();
+        clause.literals = new ArrayList<>();
+        clause.operators = new ArrayList<>();
+        for (int i = 0; i < literals; i++) {
+            clause.literals.add(new SMTLiteral(i == literals - 1, 50, "x" + i));
+            if (i == literals - 1) {break;}
+            String operator = i == literals - 2 ? "<" : i % 2 == 0 ? "*" : "+";
+            clause.operators.add(new SMTOperator(operator));
+        }
+        program = ClauseProgram.compile(clause);
+        values = new int[literals];
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        values[step++ % values.length]++;
+        return program.evaluate(values);
+    }
+}
@@ -0,0 +1,54 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+
+import SAT.Clause;
+import SMT.Atom;
+
+/**
+ * SATSolver and SMTSolver live in the default package, which named packages
+ * cannot import, so the benchmarks reach their static entry points through
+ * method handles looked up once.
+ */
+final class EntryPoints {
+    private static final MethodHandle SOLVE_SAT = find("SATSolver", "solveSAT",
+            MethodType.methodType(ArrayList.class, ArrayList.class, int.class));
+    private static final MethodHandle SOLVE_SMT = find("SMTSolver", "solveSMT",
+            MethodType.methodType(Atom.class, Atom.class));
+
+    private EntryPoints() {}
+
+    @SuppressWarnings("unchecked")
+    static ArrayList<Clause> solveSAT(ArrayList<Clause> clauses) {
+        try {
+            return (ArrayList<Clause>) (ArrayList<?>) SOLVE_SAT.invokeExact(clauses, 0);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Atom solveSMT(Atom atom) {
+        try {
+            return (Atom) SOLVE_SMT.invokeExact(atom);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static MethodHandle find(String className, String method, MethodType type) {
+        try {
+            return MethodHandles.publicLookup().findStatic(Class.forName(className), method, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("cannot find " + className + "." + method, e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {return (RuntimeException) e;}
+        if (e instanceof Error) {throw (Error) e;}
+        return new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,145 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import SAT.Clause;
+import SAT.Literal;
+import SAT.SATTests;
+import SAT.Variable;
+
+/**
+ * SATSolver.solveSAT end to end (preprocessing, search, model write-back) on
+ * three generated families. Instances are built once per trial from a fixed
+ * seed, so every commit solves the same formulas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SatBenchmarks {
+    // Clause/variable ratio where random 3-SAT is hardest
+    private static final double PHASE_TRANSITION = 4.26;
+
+    @State(Scope.Benchmark)
+    public static class Random3Sat {
+        @Param({"50", "100", "150"})
+        public int variables;
+
+        // Several instances per size so one lucky formula does not dominate
+        public ArrayList<ArrayList<Clause>> instances = new ArrayList<>();
+
+        @Setup
+        public void setup() {
+            Random random = new Random(20240601L + variables);
+            for (int k = 0; k < 8; k++) {
+                Variable[] vars = variables(variables);
+                ArrayList<Clause> cnf = new ArrayList<>();
+                for (int c = 0; c < (int) (variables * PHASE_TRANSITION); c++) {
+                    cnf.add(Clause.of(
+                        new Literal(vars[random.nextInt(variables)], random.nextBoolean()),
+                        new Literal(vars[random.nextInt(variables)], random.nextBoolean()),
+                        new Literal(vars[random.nextInt(variables)], random.nextBoolean())
+                    ));
+                }
+                instances.add(cnf);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pigeonhole {
+        @Param({"5", "6", "7"})
+        public int holes;
+
+        public ArrayList<Clause> cnf;
+
+        // holes + 1 pigeons, each in some hole, no two in the same one: unsatisfiable
+        @Setup
+        public void setup() {
+            int pigeons = holes + 1;
+            Variable[][] in = new Variable[pigeons][holes];
+            for (int p = 0; p < pigeons; p++) {
+                for (int h = 0; h < holes; h++) {
+                    in[p][h] = new Variable(p * holes + h);
+                }
+            }
+            cnf = new ArrayList<>();
+            for (int p = 0; p < pigeons; p++) {
+                Literal[] some = new Literal[holes];
+                for (int h = 0; h < holes; h++) {
+                    some[h] = new Literal(in[p][h], false);
+                }
+                cnf.add(Clause.of(some));
+            }
+            for (int h = 0; h < holes; h++) {
+                for (int p = 0; p < pigeons; p++) {
+                    for (int q = p + 1; q < pigeons; q++) {
+                        cnf.add(Clause.of(new Literal(in[p][h], true), new Literal(in[q][h], true)));
+                    }
+                }
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Xor3Chain {
+        @Param({"100", "1000", "10000"})
+        public int length;
+
+        public ArrayList<Clause> cnf;
+
+        // SATTests.xor3 links each link of the chain to the next; both ends are fixed
+        @Setup
+        public void setup() {
+            Variable[] links = variables(length + 1);
+            cnf = new ArrayList<>();
+            for (int i = 0; i < length; i++) {
+                cnf.addAll(SATTests.xor3(links[i], new Variable(length + 1 + i), links[i + 1]));
+            }
+            cnf.add(Clause.of(new Literal(links[0], true)));
+            cnf.add(Clause.of(new Literal(links[length], false)));
+        }
+    }
+
+    @Benchmark
+    public int random3Sat(Random3Sat state) {
+        int satisfiable = 0;
+        for (ArrayList<Clause> cnf : state.instances) {
+            if (EntryPoints.solveSAT(cnf) != null) {satisfiable++;}
+        }
+        return satisfiable;
+    }
+
+    @Benchmark
+    public Object pigeonhole(Pigeonhole state) {
+        return EntryPoints.solveSAT(state.cnf);
+    }
+
+    @Benchmark
+    public Object xor3Chain(Xor3Chain state) {
+        return EntryPoints.solveSAT(state.cnf);
+    }
+
+    private static Variable[] variables(int count) {
+        Variable[] vars = new Variable[count];
+        for (int i = 0; i < count; i++) {
+            vars[i] = new Variable(i);
+        }
+        return vars;
+    }
+}
@@ -0,0 +1,64 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import SMT.Atom;
+import SMT.SMTClause;
+import SMT.SMTLiteral;
+import SMT.SMTOperator;
+
+/**
+ * SMTSolver.solveSMT on a chain x0 < x1 < ... < xn of comparison clauses
+ * joined by '&'. solveSMT leaves its input untouched, so one atom serves
+ * every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SmtBenchmarks {
+    @Param({"4", "16", "64"})
+    public int length;
+
+    private Atom atom;
+
+    @Setup(Level.Trial)
+    public void buildChain() {
+        SMTLiteral[] x = new SMTLiteral[length + 1];
+        for (int i = 0; i <= length; i++) {
+            x[i] = new SMTLiteral(false, 0, "x" + i);
+        }
+        ArrayList<SMTClause> clauses = new ArrayList<>();
+        ArrayList<SMTOperator> operators = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            SMTClause clause = new SMTClause();
+            clause.literals = new ArrayList<>(List.of(x[i], x[i + 1]));
+            clause.operators = new ArrayList<>(List.of(new SMTOperator("<")));
+            clauses.add(clause);
+            if (i > 0) {operators.add(new SMTOperator("&"));}
+        }
+        atom = new Atom(clauses, operators);
+    }
+
+    @Benchmark
+    public Atom comparisonChain() {
+        return EntryPoints.solveSMT(atom);
+    }
+}
@@ -0,0 +1,96 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import SAT.BooleanFunctionFinder;
+import SAT.Clause;
+import SAT.TruthTable;
+import SAT.Variable;
+
+/**
+ * Truth tables of {@code width} inputs, i.e. 2^width rows: parsing the
+ * column text of a random function, generating a table bit-parallel with
+ * TruthTable.of, and BooleanFunctionFinder.toClauses on the parsed table
+ * (which minimizes both polarities first; a random function is the worst
+ * case for that).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TruthTableBenchmarks {
+    @Param({"8", "12", "16"})
+    public int width;
+
+    private String columnText;
+    private String outputText;
+    private BooleanFunctionFinder table;
+    private ArrayList<Variable> inputs;
+    private Variable output;
+
+    @Setup
+    public void setup() {
+        int rows = 1 << width;
+        StringBuilder columns = new StringBuilder();
+        for (int column = 0; column < width; column++) {
+            if (column > 0) {columns.append('/');}
+            // Rows in lexicographic order: the first column is the most significant bit
+            int bit = width - 1 - column;
+            for (int row = 0; row < rows; row++) {
+                columns.append(((row >> bit) & 1) == 1 ? '1' : '0');
+            }
+        }
+        Random random = new Random(20240601L + width);
+        StringBuilder outputs = new StringBuilder();
+        for (int row = 0; row < rows; row++) {
+            outputs.append(random.nextBoolean() ? '1' : '0');
+        }
+        columnText = columns.toString();
+        outputText = outputs.toString();
+        table = BooleanFunctionFinder.fromColumns(columnText, outputText);
+
+        inputs = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            inputs.add(new Variable(i));
+        }
+        output = new Variable(width);
+    }
+
+    @Benchmark
+    public BooleanFunctionFinder parse() {
+        return BooleanFunctionFinder.fromColumns(columnText, outputText);
+    }
+
+    // Parity of the first half of the inputs and the majority of the first three
+    @Benchmark
+    public TruthTable generate() {
+        return TruthTable.of(width, in -> {
+            long parity = 0;
+            for (int i = 0; i < in.length / 2; i++) {
+                parity ^= in[i];
+            }
+            return parity ^ ((in[0] & in[1]) | (in[0] & in[2]) | (in[1] & in[2]));
+        });
+    }
+
+    @Benchmark
+    public ArrayList<Clause> toClauses() {
+        return table.toClauses(inputs, output);
+    }
+}
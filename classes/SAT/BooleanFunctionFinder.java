@@ -1,39 +1,52 @@
 package SAT;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.List;
 
 public class BooleanFunctionFinder {
-    public ArrayList<ArrayList<Boolean>> inputTable = new ArrayList<>();
-    public ArrayList<Boolean> outputTable = new ArrayList<>();
+    public TruthTable table;
 
-    public String findBooleanFunction(){
-        StringBuilder function = new StringBuilder();
+    public BooleanFunctionFinder() {
+    }
 
-        for (int tableIndex = 0; tableIndex < outputTable.size(); tableIndex++) {
-            ArrayList<Boolean> variables = inputTable.get(tableIndex);
-            StringBuilder subFunction = new StringBuilder();
-            Boolean output = outputTable.get(tableIndex);
+    public BooleanFunctionFinder(TruthTable table) {
+        this.table = table;
+    }
 
-            if (output == true){
-                for (int variableIndex = 0; variableIndex < variables.size()-1; variableIndex++){
-                    String var1 = variables.get(variableIndex+1) == true ? "Var"+(variableIndex+1) : "NOT Var"+(variableIndex+1);
-                    String var = variables.get(variableIndex) == true ? "Var"+(variableIndex) : "NOT Var"+(variableIndex);
+    /**
+     * The function as a minimal sum of products, e.g.
+     * "(Var0 AND NOT Var2) OR (Var1)", from LogicMinimizer's cover of the
+     * rows where the output is true. Constant functions read TRUE or FALSE.
+     */
+    public String findBooleanFunction(){
+        List<LogicMinimizer.Cube> cover = LogicMinimizer.minimize(table, true);
+        if (cover.isEmpty()) {return "FALSE";}
 
-                    subFunction.append(var + " AND " + var1);
-                }
-                function.append("(" + subFunction.toString() + ") OR ");
+        StringBuilder function = new StringBuilder();
+        for (LogicMinimizer.Cube cube : cover) {
+            if (cube.literalCount() == 0) {return "TRUE";}
+            StringBuilder subFunction = new StringBuilder();
+            for (int variableIndex = 0; variableIndex < table.width; variableIndex++){
+                if (!cube.hasLiteral(variableIndex)) {continue;}
+                if (subFunction.length() > 0) {subFunction.append(" AND ");}
+                subFunction.append(cube.isPositive(variableIndex) ? "Var"+variableIndex : "NOT Var"+variableIndex);
             }
-            
+            if (function.length() > 0) {function.append(" OR ");}
+            function.append("(" + subFunction.toString() + ")");
         }
 
-        return function.replace(function.length()-3, function.length(), "").toString();
+        return function.toString();
     }
 
     /**
      * Parse a truth table given as columns: "col1/col2/..." where each column
      * is a string of '0' and '1' characters representing that variable's value
      * for each row (ordered). The outputs string should contain one '0' or '1'
-     * character per row. This method populates `inputTable` and `outputTable`.
+     * character per row. This method replaces `table`.
      *
      * Example for XOR with rows (A,B):
      *  rows: (0,0),(0,1),(1,0),(1,1)
@@ -43,44 +56,21 @@ public class BooleanFunctionFinder {
         if (inputColumns == null || outputs == null) {
             throw new IllegalArgumentException("inputColumns and outputs must not be null");
         }
-
-        String[] cols = inputColumns.trim().split("/");
-        if (cols.length == 0) {
-            throw new IllegalArgumentException("No columns found in inputColumns");
+        try {
+            table = TruthTable.parse(new StringReader(inputColumns), new StringReader(outputs));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        int rows = cols[0].trim().length();
-        for (String c : cols) {
-            if (c == null || c.trim().length() != rows) {
-                throw new IllegalArgumentException("All columns must have the same length");
-            }
-        }
-
-        String out = outputs.trim();
-        if (out.length() != rows) {
-            throw new IllegalArgumentException("Outputs length must match number of rows (" + rows + ")");
-        }
-
-        inputTable.clear();
-        outputTable.clear();
-
-        for (int r = 0; r < rows; r++) {
-            ArrayList<Boolean> row = new ArrayList<>();
-            for (String c : cols) {
-                char ch = c.trim().charAt(r);
-                if (ch != '0' && ch != '1') {
-                    throw new IllegalArgumentException("Columns must contain only '0' or '1'");
-                }
-                row.add(ch == '1');
-            }
-            inputTable.add(row);
+    // The same format streamed from readers, e.g. over files too large to hold as Strings
+    public void parseTruthTable(Reader inputColumns, Reader outputs) throws IOException {
+        table = TruthTable.parse(inputColumns, outputs);
+    }
 
-            char outch = out.charAt(r);
-            if (outch != '0' && outch != '1') {
-                throw new IllegalArgumentException("Outputs must contain only '0' or '1'");
-            }
-            outputTable.add(outch == '1');
-        }
+    // The same format read from two memory-mapped files
+    public void parseTruthTable(Path inputColumns, Path outputs) throws IOException {
+        table = TruthTable.parse(inputColumns, outputs);
     }
 
     /**
@@ -99,88 +89,56 @@ public class BooleanFunctionFinder {
      * each to get the expression for that output bit).
      */
     public static ArrayList<BooleanFunctionFinder> twoBitAdder() {
-        StringBuilder A1 = new StringBuilder();
-        StringBuilder A0 = new StringBuilder();
-        StringBuilder B1 = new StringBuilder();
-        StringBuilder B0 = new StringBuilder();
-
-        StringBuilder S0 = new StringBuilder();
-        StringBuilder S1 = new StringBuilder();
-        StringBuilder Cout = new StringBuilder();
-
-        // Iterate all combinations of A1,A0,B1,B0 (lexicographic)
-        for (int a1 = 0; a1 <= 1; a1++) {
-            for (int a0 = 0; a0 <= 1; a0++) {
-                for (int b1 = 0; b1 <= 1; b1++) {
-                    for (int b0 = 0; b0 <= 1; b0++) {
-                        int aval = (a1 << 1) | a0;
-                        int bval = (b1 << 1) | b0;
-                        int sum = aval + bval; // range 0..6
-
-                        A1.append(a1 == 1 ? '1' : '0');
-                        A0.append(a0 == 1 ? '1' : '0');
-                        B1.append(b1 == 1 ? '1' : '0');
-                        B0.append(b0 == 1 ? '1' : '0');
-
-                        S0.append(((sum >> 0) & 1) == 1 ? '1' : '0');
-                        S1.append(((sum >> 1) & 1) == 1 ? '1' : '0');
-                        Cout.append(((sum >> 2) & 1) == 1 ? '1' : '0');
-                    }
-                }
-            }
-        }
-
-        String inputColumns = A1.toString() + "/" + A0.toString() + "/" + B1.toString() + "/" + B0.toString();
-
+        // Rows are all combinations of A1,A0,B1,B0 (lexicographic); each output is a bitwise formula over 64 rows at a time
         ArrayList<BooleanFunctionFinder> outputs = new ArrayList<>();
-        outputs.add(BooleanFunctionFinder.fromColumns(inputColumns, S0.toString()));
-        outputs.add(BooleanFunctionFinder.fromColumns(inputColumns, S1.toString()));
-        outputs.add(BooleanFunctionFinder.fromColumns(inputColumns, Cout.toString()));
+        outputs.add(new BooleanFunctionFinder(TruthTable.of(4, in -> in[1] ^ in[3])));
+        outputs.add(new BooleanFunctionFinder(TruthTable.of(4, in -> in[0] ^ in[2] ^ (in[1] & in[3]))));
+        outputs.add(new BooleanFunctionFinder(TruthTable.of(4, in -> (in[0] & in[2]) | ((in[0] ^ in[2]) & in[1] & in[3]))));
 
         return outputs;
     }
 
     /**
-     * Convert the currently loaded truth table (in this instance's
-     * `inputTable`/`outputTable`) into CNF clauses that encode the function
-     * for the provided input variables and a single output variable.
+     * Convert the currently loaded truth table (in this instance's `table`)
+     * into CNF clauses that encode the function for the provided input
+     * variables and a single output variable.
      *
-     * For each row the method adds the implication
-     *   (row_match) -> (output == outputBit)
-     * as a single clause by turning the implication into a disjunction.
+     * The rows where the output is true and the rows where it is false are
+     * each covered by a minimal set of prime cubes (see LogicMinimizer).
+     * Every cube C becomes the implication C -> output (or C -> ¬output),
+     * i.e. one clause of the cube's negated literals plus the output literal,
+     * instead of one full-width clause per row. The clauses allow the same
+     * assignments as those per-row clauses would: inputs the table does not
+     * list leave the output free. A table listing an input with both outputs
+     * is rejected with an IllegalArgumentException.
      */
     public ArrayList<Clause> toClauses(ArrayList<Variable> vars, Variable outVar) {
-        if (inputTable.isEmpty()) {
-            throw new IllegalStateException("inputTable is empty; parse or set a truth table first");
+        if (table == null || table.rows == 0) {
+            throw new IllegalStateException("table is empty; parse or set a truth table first");
         }
 
-        int varCount = inputTable.get(0).size();
+        int varCount = table.width;
         if (vars == null || vars.size() != varCount) {
             throw new IllegalArgumentException("Number of provided variables must match truth table columns: expected " + varCount);
         }
 
         ArrayList<Clause> cnf = new ArrayList<>();
+        for (boolean outBit : new boolean[] {true, false}) {
+            for (LogicMinimizer.Cube cube : LogicMinimizer.minimize(table, outBit)) {
+                ArrayList<Literal> lits = new ArrayList<>(cube.literalCount() + 1);
+
+                // ¬cube is a disjunction of the negated literals of the cube
+                for (int i = 0; i < varCount; i++) {
+                    if (cube.hasLiteral(i)) {
+                        lits.add(new Literal(vars.get(i), cube.isPositive(i))); // positive in the cube -> ¬var in the clause
+                    }
+                }
 
-        for (int r = 0; r < inputTable.size(); r++) {
-            ArrayList<Boolean> row = inputTable.get(r);
-            boolean outBit = outputTable.get(r);
-
-            ArrayList<Literal> lits = new ArrayList<>();
+                // Add the output literal: for outBit==true include positive output, else include ¬output
+                lits.add(new Literal(outVar, !outBit));
 
-            // ¬row_match is a disjunction of the negated literals of the row_match
-            // For a variable assigned true in the row, ¬row_match contains ¬var (neg=true)
-            // For a variable assigned false in the row, ¬row_match contains var (neg=false)
-            for (int i = 0; i < varCount; i++) {
-                boolean bit = row.get(i);
-                Literal l = new Literal(vars.get(i), bit); // bit==true -> neg=true -> literal is ¬var
-                lits.add(l);
+                cnf.add(Clause.of(lits.toArray(new Literal[0])));
             }
-
-            // Add the output literal: for outBit==true include positive output, else include ¬output
-            Literal outLit = new Literal(outVar, !outBit);
-            lits.add(outLit);
-
-            cnf.add(Clause.of(lits.toArray(new Literal[0])));
         }
 
         return cnf;
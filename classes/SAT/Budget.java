@@ -0,0 +1,115 @@
+package SAT;
+
+import java.time.Duration;
+
+/**
+ * Resource limits for a solve call. A solver checks its budget as it goes and
+ * returns UNKNOWN, with its counters so far, once any limit is hit:
+ *
+ *  - a wall-clock deadline (a timeout starts counting when the budget is made),
+ *  - a conflict limit and a node limit, counted per solve call (nodes are SAT
+ *    decisions, or assignments tried by the SMT search; a solveSMT call
+ *    counts its SAT searches, theory conflicts and assignments together),
+ *  - a ceiling on used heap,
+ *  - interruption of the solving thread and a {@link CancellationToken}.
+ *
+ * Budgets are immutable; the with* methods return a copy. Counts are cheap
+ * to check and are checked every time; the clock, heap and interrupt flag are
+ * sampled every {@link #SAMPLE_INTERVAL} checks.
+ */
+public final class Budget {
+    static final int SAMPLE_INTERVAL = 256;
+    private static final long NONE = Long.MAX_VALUE;
+
+    private static final Budget UNLIMITED = new Budget(NONE, NONE, NONE, NONE, null);
+
+    private final long deadlineNanos;
+    private final long conflictLimit;
+    private final long nodeLimit;
+    private final long memoryLimit;
+    private final CancellationToken token;
+
+    private Budget(long deadlineNanos, long conflictLimit, long nodeLimit, long memoryLimit, CancellationToken token) {
+        this.deadlineNanos = deadlineNanos;
+        this.conflictLimit = conflictLimit;
+        this.nodeLimit = nodeLimit;
+        this.memoryLimit = memoryLimit;
+        this.token = token;
+    }
+
+    public static Budget unlimited() {
+        return UNLIMITED;
+    }
+
+    public Budget withTimeout(Duration timeout) {
+        return new Budget(System.nanoTime() + timeout.toNanos(), conflictLimit, nodeLimit, memoryLimit, token);
+    }
+
+    public Budget withConflictLimit(long conflicts) {
+        if (conflicts < 0) {throw new IllegalArgumentException("conflict limit must not be negative");}
+        return new Budget(deadlineNanos, conflicts, nodeLimit, memoryLimit, token);
+    }
+
+    public Budget withNodeLimit(long nodes) {
+        if (nodes < 0) {throw new IllegalArgumentException("node limit must not be negative");}
+        return new Budget(deadlineNanos, conflictLimit, nodes, memoryLimit, token);
+    }
+
+    // Used heap in bytes, as Runtime reports it; garbage not yet collected counts too
+    public Budget withMemoryLimit(long bytes) {
+        if (bytes <= 0) {throw new IllegalArgumentException("memory limit must be positive");}
+        return new Budget(deadlineNanos, conflictLimit, nodeLimit, bytes, token);
+    }
+
+    public Budget withCancellation(CancellationToken token) {
+        return new Budget(deadlineNanos, conflictLimit, nodeLimit, memoryLimit, token);
+    }
+
+    /**
+     * What is left once the given conflicts and nodes are spent: the same
+     * deadline, heap ceiling and token, with both limits lowered by that much.
+     * Lets a caller that solves in several calls hold them all to one budget.
+     */
+    public Budget remaining(long conflicts, long nodes) {
+        return new Budget(deadlineNanos, lower(conflictLimit, conflicts), lower(nodeLimit, nodes), memoryLimit, token);
+    }
+
+    private static long lower(long limit, long spent) {
+        return limit == NONE ? NONE : Math.max(0, limit - spent);
+    }
+
+    public boolean isUnlimited() {
+        return deadlineNanos == NONE && conflictLimit == NONE && nodeLimit == NONE && memoryLimit == NONE && token == null;
+    }
+
+    /**
+     * Checker for one solve call. Not thread-safe: every thread solving under
+     * this budget needs its own.
+     */
+    public Meter start() {
+        return new Meter();
+    }
+
+    public final class Meter {
+        private int untilSample;
+
+        private Meter() {}
+
+        // null while the call may go on, otherwise the limit it ran into
+        public StopReason check(long conflicts, long nodes) {
+            if (conflicts >= conflictLimit) {return StopReason.CONFLICT_LIMIT;}
+            if (nodes >= nodeLimit) {return StopReason.NODE_LIMIT;}
+            if (token != null && token.isCancelled()) {return StopReason.CANCELLED;}
+            if (--untilSample > 0) {return null;}
+            untilSample = SAMPLE_INTERVAL;
+
+            if (Thread.currentThread().isInterrupted()) {return StopReason.INTERRUPTED;}
+            if (deadlineNanos != NONE && System.nanoTime() - deadlineNanos >= 0) {return StopReason.DEADLINE;}
+            if (memoryLimit != NONE) {
+                Runtime runtime = Runtime.getRuntime();
+                if (runtime.totalMemory() - runtime.freeMemory() > memoryLimit) {return StopReason.MEMORY_LIMIT;}
+            }
+            return null;
+        }
+    }
+}
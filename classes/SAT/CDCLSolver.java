@@ -0,0 +1,659 @@
+package SAT;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Conflict-driven clause learning search over int-encoded literals (see {@link Lit}).
+ *
+ * The search keeps an explicit assignment trail instead of recursing once per
+ * variable: decisions open a new level on the trail, conflicts are analysed
+ * down to the first unique implication point, the resulting clause is learned
+ * and the search jumps straight back to the second-highest level in it.
+ * Unit propagation and the assignment itself live in {@link Propagator}.
+ * Which variable to decide next and when to restart are pluggable through
+ * {@link DecisionHeuristic} and {@link RestartPolicy}.
+ *
+ * The solver is incremental: clauses may be added between solve calls and
+ * everything learned so far is kept. {@link #solve(int...)} takes assumption
+ * literals that hold for that call only; they are decided first, one per
+ * level, and when they cannot all hold {@link #failedAssumptions()} names a
+ * subset of them that is already contradictory.
+ *
+ * Learned clauses are thinned out periodically: clauses of LBD (number of
+ * distinct decision levels) 2 or less are kept for good, the worse half of the
+ * rest is deleted, and the arena is compacted. With {@link #setProof} every
+ * learned and deleted clause is logged as DRAT, so an UNSAT answer without
+ * assumptions can be certified against the clauses that were added.
+ *
+ * {@link #stop()} may be called from another thread; the running solve call,
+ * or the next one if none is running, then returns UNKNOWN at its next step.
+ * Later calls search as usual. A
+ * {@link Budget} set with {@link #setBudget} limits each solve call the same
+ * way; {@link #stopReason()} tells which limit ended the last one.
+ */
+public class CDCLSolver {
+    private static final byte UNASSIGNED = Propagator.UNASSIGNED;
+    private static final byte TRUE = Propagator.TRUE;
+    private static final int NO_REASON = Propagator.NO_REASON;
+    private static final int FIRST_REDUCE = 2000;
+    private static final int REDUCE_INCREMENT = 300;
+    private static final int GLUE = 2;
+    private static final int RESTART_LOG = 256;
+
+    private final Propagator propagator = new Propagator();
+    private DecisionHeuristic heuristic = new VSIDSHeuristic();
+    private RestartPolicy restartPolicy = new LubyRestart();
+    private boolean[] seen = new boolean[0];
+    private int[] scratch = new int[16];
+    private int[] levelStamp = new int[16];
+    private int stamp;
+
+    private long conflicts;
+    private long decisions;
+    private long learnedClauses;
+    // The latest restarts of the current or last solve call; guarded by itself
+    private final ArrayDeque<RestartEvent> restarts = new ArrayDeque<>();
+    private long restartCount;
+    private long nextReduce = FIRST_REDUCE;
+    private int reductions;
+    private long deletedClauses;
+    private DratWriter proof;
+    private SolverStatistics statistics;
+
+    private boolean ok = true;
+    private boolean[] model = new boolean[0];
+    private int[] modelDecisions = new int[0];
+    private int[] failed = new int[0];
+    private volatile boolean stopRequested;
+    private Budget budget = Budget.unlimited();
+    private StopReason stopReason;
+
+    private ClauseExchange exchange;
+    private int exchangeId;
+    private long exchangeCursor;
+
+    public int numVars() {
+        return propagator.numVars;
+    }
+
+    public int newVar() {
+        ensureVars(propagator.numVars + 1);
+        return propagator.numVars - 1;
+    }
+
+    public void ensureVars(int count) {
+        if (count <= propagator.numVars) {return;}
+        propagator.ensureVars(count);
+        heuristic.ensureVars(count);
+        if (count > seen.length) {
+            seen = Arrays.copyOf(seen, Math.max(count, seen.length * 2));
+        }
+    }
+
+    // Replaces the branching heuristic; existing variables are registered with the new one
+    public void setHeuristic(DecisionHeuristic heuristic) {
+        this.heuristic = heuristic;
+        heuristic.ensureVars(propagator.numVars);
+    }
+
+    // null disables restarts
+    public void setRestartPolicy(RestartPolicy restartPolicy) {
+        this.restartPolicy = restartPolicy;
+    }
+
+    /**
+     * Shares short, low-LBD learned clauses through the exchange and picks up
+     * other solvers' clauses at every restart. All solvers on one exchange
+     * must be working on the same formula.
+     */
+    public void setClauseExchange(ClauseExchange exchange, int id) {
+        this.exchange = exchange;
+        this.exchangeId = id;
+    }
+
+    // Logs learned and deleted clauses from here on; null turns logging off. XOR and cardinality reasoning is not covered
+    public void setProof(DratWriter proof) {
+        this.proof = proof;
+    }
+
+    // Every later solve call adds its counters to these statistics; null stops that
+    public void setStatistics(SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    // Applies to every later solve call; the conflict and node (decision) limits count per call
+    public void setBudget(Budget budget) {
+        this.budget = budget == null ? Budget.unlimited() : budget;
+    }
+
+    // Why the last solve call returned UNKNOWN; null after SAT or UNSAT
+    public StopReason stopReason() {
+        return stopReason;
+    }
+
+    // Ends the running solve call, or the next one if none is running
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public long conflicts() {
+        return conflicts;
+    }
+
+    public long decisions() {
+        return decisions;
+    }
+
+    public long propagations() {
+        return propagator.propagations;
+    }
+
+    public long learnedClauses() {
+        return learnedClauses;
+    }
+
+    /**
+     * The last {@value #RESTART_LOG} restarts of the latest solve call, oldest
+     * first. A copy, so it may be taken from another thread while the search
+     * runs. Every restart is also a JFR {@link RestartTraceEvent}.
+     */
+    public List<RestartEvent> restarts() {
+        synchronized (restarts) {
+            return List.copyOf(restarts);
+        }
+    }
+
+    public long restartCount() {
+        return restartCount;
+    }
+
+    public long deletedClauses() {
+        return deletedClauses;
+    }
+
+    /**
+     * Adds a clause of int literals. Duplicate literals are dropped, tautologies
+     * are ignored and an empty clause makes the formula unsatisfiable.
+     * Returns false once the formula is known to be unsatisfiable.
+     */
+    public boolean addClause(int... lits) {
+        return addClause(lits, 0, lits.length);
+    }
+
+    public boolean addClause(int[] lits, int from, int length) {
+        if (!ok) {return false;}
+        cancelUntil(0);
+
+        if (length > scratch.length) {
+            scratch = new int[Math.max(length, scratch.length * 2)];
+        }
+        int[] sorted = scratch;
+        System.arraycopy(lits, from, sorted, 0, length);
+        Arrays.sort(sorted, 0, length);
+        int size = 0;
+        int previous = -1;
+        for (int i = 0; i < length; i++) {
+            int lit = sorted[i];
+            ensureVars(Lit.var(lit) + 1);
+            if (lit == previous) {continue;}
+            if (lit == Lit.negate(previous)) {return true;}
+            byte value = propagator.value(lit);
+            if (value == TRUE) {return true;}
+            if (value == UNASSIGNED) {sorted[size++] = lit;}
+            previous = lit;
+        }
+
+        if (size == 0) {
+            ok = false;
+            return false;
+        }
+        if (size == 1) {
+            propagator.enqueue(sorted[0], NO_REASON);
+            return true;
+        }
+
+        propagator.attachClause(sorted, size, false);
+        return true;
+    }
+
+    /**
+     * Adds the constraint that an odd (parity true) or even number of the
+     * variables is true. XORs are propagated by Gauss-Jordan elimination over
+     * all of them together instead of through their 2^(k-1) clauses; a
+     * variable listed twice cancels out. Returns false once the formula is
+     * known to be unsatisfiable.
+     */
+    public boolean addXor(int[] vars, boolean parity) {
+        if (!ok) {return false;}
+        cancelUntil(0);
+        for (int var : vars) {
+            if (var < 0) {throw new IllegalArgumentException("negative variable " + var);}
+            ensureVars(var + 1);
+        }
+        propagator.xors.addRow(vars, parity);
+        return true;
+    }
+
+    public boolean addXors(Collection<XorConstraint> xors) {
+        for (XorConstraint xor : xors) {
+            addXor(xor.vars, xor.parity);
+        }
+        return ok;
+    }
+
+    /**
+     * Adds a cardinality or pseudo-Boolean constraint. It is propagated by
+     * counting its true literals instead of through a clause encoding; use
+     * {@link CardinalityEncoder} where plain CNF is required. Returns false
+     * once the formula is known to be unsatisfiable.
+     */
+    public boolean addCardinality(CardinalityConstraint constraint) {
+        if (!ok) {return false;}
+        cancelUntil(0);
+        for (int lit : constraint.lits) {
+            ensureVars(Lit.var(lit) + 1);
+        }
+        propagator.cardinalities.add(constraint);
+        return true;
+    }
+
+    public boolean addAtMost(int[] lits, int k) {
+        return addCardinality(CardinalityConstraint.atMost(lits, k));
+    }
+
+    public boolean addAtLeast(int[] lits, int k) {
+        return addCardinality(CardinalityConstraint.atLeast(lits, k));
+    }
+
+    // A clause learned by another solver on the same formula; only called at level 0
+    void importClause(int[] lits) {
+        addClause(lits, 0, lits.length);
+    }
+
+    /**
+     * Lookahead support: decides the cube literals one per level and
+     * propagates. Returns false when the cube is contradictory. The cube stays
+     * on the trail until {@link #clearCube()}; {@link #probe} works on top of it.
+     */
+    boolean assumeCube(int[] cube) {
+        cancelUntil(0);
+        if (!ok) {return false;}
+        if (propagator.propagate() != NO_REASON) {return false;}
+        for (int lit : cube) {
+            ensureVars(Lit.var(lit) + 1);
+            byte value = propagator.value(lit);
+            if (value == Propagator.FALSE) {return false;}
+            propagator.newDecisionLevel();
+            if (value == UNASSIGNED) {propagator.enqueue(lit, NO_REASON);}
+            if (propagator.propagate() != NO_REASON) {return false;}
+        }
+        return true;
+    }
+
+    // Number of literals lit implies on top of the current cube, or -1 if it leads to a conflict
+    int probe(int lit) {
+        int base = propagator.decisionLevel;
+        int before = propagator.trailSize;
+        propagator.decide(lit);
+        int conflict = propagator.propagate();
+        int implied = propagator.trailSize - before;
+        cancelUntil(base);
+        return conflict == NO_REASON ? implied : -1;
+    }
+
+    boolean isAssigned(int var) {
+        return propagator.assigns[var] != UNASSIGNED;
+    }
+
+    void clearCube() {
+        cancelUntil(0);
+    }
+
+    /**
+     * Loads every clause of an arena, e.g. one built by
+     * {@link ClauseArena#fromClauses} from object-based CNF.
+     */
+    public boolean addClauses(ClauseArena clauses) {
+        for (int ref = clauses.first(); ref < clauses.end(); ref = clauses.next(ref)) {
+            if (clauses.isDeleted(ref)) {continue;}
+            addClause(clauses.memory, ref + ClauseArena.HEADER, clauses.size(ref));
+        }
+        return ok;
+    }
+
+    /**
+     * Searches for a model in which every assumption literal is true. UNSAT
+     * under assumptions leaves the solver usable; only a conflict that needs
+     * no assumptions makes the formula itself unsatisfiable. Each call is
+     * recorded as a JFR {@link SearchEvent}.
+     */
+    public SolveStatus solve(int... assumptions) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long startDecisions = decisions;
+        long startPropagations = propagator.propagations;
+        long startConflicts = conflicts;
+        long startRestarts = restartCount;
+        long startLearned = learnedClauses;
+
+        SolveStatus status = search(assumptions);
+
+        if (statistics != null) {
+            statistics.recordSearch(decisions - startDecisions, propagator.propagations - startPropagations,
+                    conflicts - startConflicts, restartCount - startRestarts, learnedClauses - startLearned);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.result = status.name();
+            event.variables = propagator.numVars;
+            event.decisions = decisions - startDecisions;
+            event.propagations = propagator.propagations - startPropagations;
+            event.conflicts = conflicts - startConflicts;
+            event.restarts = restartCount - startRestarts;
+            event.learnedClauses = learnedClauses - startLearned;
+            event.commit();
+        }
+        return status;
+    }
+
+    private SolveStatus search(int[] assumptions) {
+        failed = new int[0];
+        stopReason = null;
+        synchronized (restarts) {
+            restarts.clear();
+        }
+        if (!ok) {return SolveStatus.UNSAT;}
+        for (int lit : assumptions) {
+            ensureVars(Lit.var(lit) + 1);
+        }
+        long start = System.nanoTime();
+        long startConflicts = conflicts;
+        long startDecisions = decisions;
+        Budget.Meter meter = budget.start();
+
+        while (true) {
+            StopReason limit = stopRequested ? StopReason.STOPPED : meter.check(conflicts - startConflicts, decisions - startDecisions);
+            if (limit != null) {
+                // This call answers the stop request
+                if (limit == StopReason.STOPPED) {stopRequested = false;}
+                stopReason = limit;
+                cancelUntil(0);
+                return SolveStatus.UNKNOWN;
+            }
+            int conflict = propagator.propagate();
+            if (propagator.isContradiction()) {
+                conflicts++;
+                if (propagator.decisionLevel == 0) {
+                    ok = false;
+                    if (proof != null) {proof.addEmpty();}
+                    return SolveStatus.UNSAT;
+                }
+                int[] learnt = analyze(conflict);
+                int lbd = computeLBD(learnt);
+                learnedClauses++;
+                if (proof != null) {proof.add(learnt, 0, learnt.length);}
+                heuristic.onConflict();
+                cancelUntil(backjumpLevel(learnt));
+                if (exchange != null && exchange.accepts(learnt.length, lbd)) {
+                    exchange.publish(exchangeId, learnt);
+                }
+                if (learnt.length == 1) {
+                    propagator.enqueue(learnt[0], NO_REASON);
+                } else {
+                    int ref = propagator.attachClause(learnt, learnt.length, true);
+                    propagator.arena.setLbd(ref, lbd);
+                    propagator.enqueue(learnt[0], ref);
+                }
+
+                if (restartPolicy != null) {
+                    restartPolicy.onConflict(lbd);
+                    String reason = restartPolicy.restartReason();
+                    if (reason != null) {
+                        recordRestart(new RestartEvent(conflicts, decisions, System.nanoTime() - start, reason));
+                        restartPolicy.onRestart();
+                        cancelUntil(0);
+                        if (exchange != null) {
+                            exchangeCursor = exchange.drain(exchangeCursor, exchangeId, this);
+                            if (!ok) {return SolveStatus.UNSAT;}
+                        }
+                    }
+                }
+                continue;
+            }
+
+            if (conflicts >= nextReduce) {
+                reduceLearnts();
+                nextReduce = conflicts + FIRST_REDUCE + (long) REDUCE_INCREMENT * reductions;
+            }
+
+            int next = -1;
+            while (propagator.decisionLevel < assumptions.length) {
+                int assumption = assumptions[propagator.decisionLevel];
+                byte value = propagator.value(assumption);
+                if (value == TRUE) {
+                    propagator.newDecisionLevel();
+                } else if (value == UNASSIGNED) {
+                    next = assumption;
+                    break;
+                } else {
+                    failed = analyzeFinal(assumption);
+                    cancelUntil(0);
+                    return SolveStatus.UNSAT;
+                }
+            }
+            if (next == -1) {
+                next = heuristic.pickBranchLiteral(propagator);
+            }
+            if (next == -1) {
+                saveModel();
+                cancelUntil(0);
+                return SolveStatus.SAT;
+            }
+            decisions++;
+            propagator.decide(next);
+        }
+    }
+
+    // Assumptions that cannot hold together; empty after SAT or when the formula alone is UNSAT
+    public int[] failedAssumptions() {
+        return failed.clone();
+    }
+
+    // The decisions (assumptions included) that led to the last model; propagation from them alone yields that model
+    int[] modelDecisions() {
+        return modelDecisions;
+    }
+
+    // Variables the solver never saw (e.g. only in dropped tautologies) read as false
+    public boolean modelValue(int var) {
+        return var < model.length && model[var];
+    }
+
+    /**
+     * First-UIP analysis: resolves the conflicting clause with the reasons of
+     * the current-level literals, newest first, until a single current-level
+     * literal is left. That literal's negation goes to position 0 of the
+     * learned clause and the literal with the highest remaining level to position 1.
+     */
+    private int[] analyze(int conflict) {
+        int[] level = propagator.level;
+        int[] trail = propagator.trail;
+        int[] learnt = new int[8];
+        int size = 1;
+        int pathCount = 0;
+        int implied = -1;
+        int index = propagator.trailSize - 1;
+
+        ClauseArena arena = propagator.arena;
+        do {
+            int length = arena.size(conflict);
+            for (int k = 0; k < length; k++) {
+                int lit = arena.lit(conflict, k);
+                if (lit == implied) {continue;}
+                int var = Lit.var(lit);
+                if (seen[var] || level[var] == 0) {continue;}
+                seen[var] = true;
+                heuristic.bump(var);
+                if (level[var] >= propagator.decisionLevel) {
+                    pathCount++;
+                } else {
+                    if (size == learnt.length) {learnt = Arrays.copyOf(learnt, size * 2);}
+                    learnt[size++] = lit;
+                }
+            }
+
+            while (!seen[Lit.var(trail[index])]) {index--;}
+            implied = trail[index--];
+            conflict = propagator.reason[Lit.var(implied)];
+            seen[Lit.var(implied)] = false;
+            pathCount--;
+        } while (pathCount > 0);
+
+        learnt[0] = Lit.negate(implied);
+        for (int i = 1; i < size; i++) {
+            seen[Lit.var(learnt[i])] = false;
+        }
+
+        int maxIndex = 1;
+        for (int i = 2; i < size; i++) {
+            if (level[Lit.var(learnt[i])] > level[Lit.var(learnt[maxIndex])]) {maxIndex = i;}
+        }
+        if (size > 1) {
+            int swap = learnt[1];
+            learnt[1] = learnt[maxIndex];
+            learnt[maxIndex] = swap;
+        }
+        return Arrays.copyOf(learnt, size);
+    }
+
+    /**
+     * Collects the assumptions responsible for falsifying {@code assumption}.
+     * Walks the trail backwards from the falsified literal through reasons;
+     * every decision reached on the way is an earlier assumption, because
+     * assumptions occupy the lowest decision levels.
+     */
+    private int[] analyzeFinal(int assumption) {
+        int[] result = new int[] {assumption};
+        int var = Lit.var(assumption);
+        if (propagator.level[var] == 0) {return result;}
+
+        int size = 1;
+        seen[var] = true;
+        ClauseArena arena = propagator.arena;
+        for (int i = propagator.trailSize - 1; i >= propagator.trailLim[0]; i--) {
+            int lit = propagator.trail[i];
+            int x = Lit.var(lit);
+            if (!seen[x]) {continue;}
+            seen[x] = false;
+
+            int from = propagator.reason[x];
+            if (from == NO_REASON) {
+                if (size == result.length) {result = Arrays.copyOf(result, size * 2);}
+                result[size++] = lit;
+                continue;
+            }
+            for (int k = 0; k < arena.size(from); k++) {
+                int other = Lit.var(arena.lit(from, k));
+                if (other != x && propagator.level[other] > 0) {seen[other] = true;}
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Deletes the worse half (highest LBD, then longest) of the learned
+     * clauses above glue level. Clauses that are the reason for a current
+     * assignment are locked and stay.
+     */
+    private void reduceLearnts() {
+        ClauseArena arena = propagator.arena;
+        int[] memory = arena.memory;
+        int count = 0;
+        long[] candidates = new long[64];
+        for (int ref = arena.first(); ref < arena.end(); ref = arena.next(ref)) {
+            if (!arena.isLearnt(ref) || arena.isDeleted(ref) || arena.lbd(ref) <= GLUE || isLocked(ref)) {continue;}
+            if (count == candidates.length) {candidates = Arrays.copyOf(candidates, count * 2);}
+            // Sort key: LBD, then size, then position; packed so one long sort orders them
+            long key = ((long) Math.min(arena.lbd(ref), 0x3ff) << 53) | ((long) Math.min(memory[ref], 0x1fffff) << 32) | ref;
+            candidates[count++] = key;
+        }
+        Arrays.sort(candidates, 0, count);
+        for (int i = count - 1; i >= count / 2; i--) {
+            int ref = (int) candidates[i];
+            if (proof != null) {proof.delete(memory, ref + ClauseArena.HEADER, memory[ref]);}
+            arena.delete(ref);
+            deletedClauses++;
+        }
+        reductions++;
+        if (count > 0) {propagator.collectGarbage();}
+    }
+
+    private boolean isLocked(int ref) {
+        int var = Lit.var(propagator.arena.lit(ref, 0));
+        return propagator.reason[var] == ref && propagator.assigns[var] != UNASSIGNED;
+    }
+
+    // Number of distinct decision levels among the learned clause's literals
+    private int computeLBD(int[] learnt) {
+        if (propagator.decisionLevel >= levelStamp.length) {
+            levelStamp = Arrays.copyOf(levelStamp, Math.max(propagator.decisionLevel + 1, levelStamp.length * 2));
+        }
+        stamp++;
+        int lbd = 0;
+        for (int lit : learnt) {
+            int lvl = propagator.level[Lit.var(lit)];
+            if (levelStamp[lvl] != stamp) {
+                levelStamp[lvl] = stamp;
+                lbd++;
+            }
+        }
+        return lbd;
+    }
+
+    private int backjumpLevel(int[] learnt) {
+        return learnt.length == 1 ? 0 : propagator.level[Lit.var(learnt[1])];
+    }
+
+    private void recordRestart(RestartEvent restart) {
+        restartCount++;
+        synchronized (restarts) {
+            if (restarts.size() == RESTART_LOG) {restarts.removeFirst();}
+            restarts.addLast(restart);
+        }
+        RestartTraceEvent event = new RestartTraceEvent();
+        if (event.shouldCommit()) {
+            event.conflicts = restart.conflicts;
+            event.decisions = restart.decisions;
+            event.reason = restart.reason;
+            event.commit();
+        }
+    }
+
+    private void cancelUntil(int target) {
+        if (propagator.decisionLevel <= target) {return;}
+        for (int i = propagator.trailSize - 1; i >= propagator.trailLim[target]; i--) {
+            int lit = propagator.trail[i];
+            heuristic.onUnassign(Lit.var(lit), !Lit.isNeg(lit));
+        }
+        propagator.cancelUntil(target);
+    }
+
+    private void saveModel() {
+        model = new boolean[propagator.numVars];
+        for (int var = 0; var < propagator.numVars; var++) {
+            model[var] = propagator.assigns[var] == TRUE;
+        }
+        int size = 0;
+        int[] decided = new int[propagator.decisionLevel];
+        for (int i = 0; i < propagator.trailSize; i++) {
+            int lit = propagator.trail[i];
+            int var = Lit.var(lit);
+            if (propagator.level[var] > 0 && propagator.reason[var] == NO_REASON) {decided[size++] = lit;}
+        }
+        modelDecisions = Arrays.copyOf(decided, size);
+    }
+}
@@ -1,7 +1,8 @@
 package SAT;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 public final class CNFNormalizer {
@@ -13,8 +14,9 @@ public final class CNFNormalizer {
             return normalized;
         }
 
+        Map<Variable, Boolean> seen = new IdentityHashMap<>();
         for (Clause clause : rawClauses) {
-            Clause cleaned = cleanClause(clause);
+            Clause cleaned = cleanClause(clause, seen);
             if (cleaned != null) {
                 normalized.add(cleaned);
             }
@@ -23,23 +25,43 @@ public final class CNFNormalizer {
         return normalized;
     }
 
+    /**
+     * Numbers the variables through the given index and runs the
+     * {@link Preprocessor} pipeline over the clauses: the same duplicate and
+     * tautology cleanup as {@link #normalize}, then unit propagation,
+     * subsumption, self-subsuming resolution and bounded variable elimination.
+     * Solve {@code result()} and pass the model to {@code extendModel} to
+     * recover values for eliminated variables. Frozen variables are kept in
+     * the simplified formula so their values come from the search itself.
+     */
+    public static Preprocessor preprocess(ArrayList<Clause> rawClauses, VariableIndex variables, Collection<Variable> frozen) {
+        ClauseArena arena = ClauseArena.fromClauses(rawClauses == null ? new ArrayList<>() : rawClauses, variables);
+        Preprocessor preprocessor = Preprocessor.fromArena(arena, variables.size());
+        for (Variable var : frozen) {
+            int index = variables.find(var);
+            if (index >= 0) {preprocessor.freeze(index);}
+        }
+        preprocessor.run();
+        return preprocessor;
+    }
+
     public static boolean isValidCNF(ArrayList<Clause> clauses) {
         if (clauses == null || clauses.isEmpty()) {
             return false;
         }
 
+        Map<Variable, Boolean> seen = new IdentityHashMap<>();
         for (Clause clause : clauses) {
             if (clause == null || clause.clause == null || clause.clause.isEmpty()) {
                 return false;
             }
 
-            Map<Variable, Boolean> seen = new LinkedHashMap<>();
+            seen.clear();
             for (Literal literal : clause.clause) {
                 if (literal == null || literal.var == null) {
                     return false;
                 }
 
-                literal.var.on_off = null;
                 Boolean existing = seen.get(literal.var);
                 if (existing != null && existing != literal.neg) {
                     return false;
@@ -51,20 +73,19 @@ public final class CNFNormalizer {
         return true;
     }
 
-    private static Clause cleanClause(Clause clause) {
+    private static Clause cleanClause(Clause clause, Map<Variable, Boolean> seen) {
         if (clause == null || clause.clause == null) {
             return null;
         }
 
         Clause cleaned = new Clause();
-        Map<Variable, Boolean> seen = new LinkedHashMap<>();
+        seen.clear();
 
         for (Literal literal : clause.clause) {
             if (literal == null || literal.var == null) {
                 continue;
             }
 
-            literal.var.on_off = null;
             Boolean existing = seen.get(literal.var);
             if (existing != null) {
                 if (existing != literal.neg) {
@@ -0,0 +1,18 @@
+package SAT;
+
+/**
+ * Shared flag for cancelling solve calls from outside. Hand the same token
+ * to the budgets of every call that belongs to one request; cancelling it
+ * makes each of them return UNKNOWN at its next budget check.
+ */
+public final class CancellationToken {
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,106 @@
+package SAT;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * sum(weights[i] * lits[i]) <= bound over int-encoded literals, where a true
+ * literal counts 1. With every weight 1 this is "at most bound of these
+ * literals"; at-least constraints are stored as at-most over the negations
+ * (at least k of n literals is at most n - k of their negations).
+ *
+ * The factories normalize what they are given: a variable listed several
+ * times gets the sum of its weights, a literal and its negation cancel
+ * into the bound, negative weights are moved to the negated literal and
+ * zero weights are dropped. Afterwards every variable occurs once with a
+ * positive weight. A negative bound means the constraint cannot hold.
+ */
+public class CardinalityConstraint {
+    public final int[] lits;
+    public final int[] weights;
+    public final long bound;
+
+    private CardinalityConstraint(int[] lits, int[] weights, long bound) {
+        this.lits = lits;
+        this.weights = weights;
+        this.bound = bound;
+    }
+
+    public static CardinalityConstraint atMost(int[] lits, int k) {
+        int[] ones = new int[lits.length];
+        Arrays.fill(ones, 1);
+        return atMost(lits, ones, k);
+    }
+
+    public static CardinalityConstraint atLeast(int[] lits, int k) {
+        int[] ones = new int[lits.length];
+        Arrays.fill(ones, 1);
+        return atLeast(lits, ones, k);
+    }
+
+    public static CardinalityConstraint atMost(int[] lits, int[] weights, long bound) {
+        if (lits.length != weights.length) {throw new IllegalArgumentException("one weight per literal expected");}
+        // Coefficient per variable of its positive literal; w * -x is w - w * x
+        Map<Integer, Long> coefficients = new LinkedHashMap<>();
+        for (int i = 0; i < lits.length; i++) {
+            if (lits[i] < 0) {throw new IllegalArgumentException("negative literal " + lits[i]);}
+            int var = Lit.var(lits[i]);
+            long weight = weights[i];
+            if (Lit.isNeg(lits[i])) {
+                bound -= weight;
+                weight = -weight;
+            }
+            coefficients.merge(var, weight, Long::sum);
+        }
+
+        int[] normalLits = new int[coefficients.size()];
+        int[] normalWeights = new int[coefficients.size()];
+        int size = 0;
+        for (Map.Entry<Integer, Long> entry : coefficients.entrySet()) {
+            long weight = entry.getValue();
+            if (weight == 0) {continue;}
+            boolean neg = weight < 0;
+            if (neg) {
+                // c * x with c < 0 is c + |c| * -x
+                bound -= weight;
+                weight = -weight;
+            }
+            if (weight > Integer.MAX_VALUE) {throw new IllegalArgumentException("weight too large: " + weight);}
+            normalLits[size] = Lit.of(entry.getKey(), neg);
+            normalWeights[size] = (int) weight;
+            size++;
+        }
+        return new CardinalityConstraint(Arrays.copyOf(normalLits, size), Arrays.copyOf(normalWeights, size), bound);
+    }
+
+    public static CardinalityConstraint atLeast(int[] lits, int[] weights, long bound) {
+        if (lits.length != weights.length) {throw new IllegalArgumentException("one weight per literal expected");}
+        int[] negated = new int[lits.length];
+        long total = 0;
+        for (int i = 0; i < lits.length; i++) {
+            negated[i] = Lit.negate(lits[i]);
+            total += weights[i];
+        }
+        return atMost(negated, weights, total - bound);
+    }
+
+    // Every weight is 1, so the CNF encodings in CardinalityEncoder apply
+    public boolean isCardinality() {
+        for (int weight : weights) {
+            if (weight != 1) {return false;}
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lits.length; i++) {
+            if (i > 0) {text.append(" + ");}
+            if (weights[i] != 1) {text.append(weights[i]).append('*');}
+            text.append(Lit.toDimacs(lits[i]));
+        }
+        return (lits.length == 0 ? "0" : text) + " <= " + bound;
+    }
+}
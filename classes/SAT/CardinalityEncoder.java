@@ -0,0 +1,195 @@
+package SAT;
+
+import java.util.Arrays;
+
+/**
+ * Clause encodings of at-most-k constraints, for when the formula has to be
+ * plain CNF (a DIMACS file, a DRAT-checked run, another solver). Each one
+ * introduces auxiliary variables numbered from the caller's variable count and
+ * is linear or close to it in n, instead of the C(n, k + 1) clauses of the
+ * direct encoding:
+ *
+ *  - SEQUENTIAL_COUNTER (Sinz 2005): registers s(i, j) = "at least j of the
+ *    first i literals are true", O(n * k) clauses and variables.
+ *  - TOTALIZER (Bailleux and Boufkhad 2003): a balanced tree whose nodes count
+ *    their leaves in unary, capped at k + 1, O(n * k) clauses and O(n log n)
+ *    variables.
+ *  - CARDINALITY_NETWORK (Asin et al. 2011): odd-even sorting networks on
+ *    blocks of k + 1 literals merged into a running top k + 1,
+ *    O(n log^2 k) clauses and variables.
+ *
+ * Only the clauses for the at-most direction are generated (an output is
+ * forced true when enough inputs are), which is all the constraint needs.
+ * At-least constraints arrive as at-most over the negations, see
+ * {@link CardinalityConstraint}.
+ */
+public final class CardinalityEncoder {
+    public enum Encoding {SEQUENTIAL_COUNTER, TOTALIZER, CARDINALITY_NETWORK}
+
+    private final ClauseArena out;
+    private int numVars;
+
+    private CardinalityEncoder(ClauseArena out, int numVars) {
+        this.out = out;
+        this.numVars = numVars;
+    }
+
+    /**
+     * Writes the clauses of the constraint to out. Auxiliary variables are
+     * numbered from numVars; returns the variable count afterwards.
+     */
+    public static int encode(CardinalityConstraint constraint, Encoding encoding, ClauseArena out, int numVars) {
+        if (!constraint.isCardinality()) {throw new IllegalArgumentException("weighted constraints have no cardinality encoding: " + constraint);}
+        for (int lit : constraint.lits) {
+            numVars = Math.max(numVars, Lit.var(lit) + 1);
+        }
+        CardinalityEncoder encoder = new CardinalityEncoder(out, numVars);
+        int[] lits = constraint.lits;
+        long k = constraint.bound;
+        if (k < 0) {
+            encoder.add();
+        } else if (k == 0) {
+            for (int lit : lits) {
+                encoder.add(Lit.negate(lit));
+            }
+        } else if (k < lits.length) {
+            switch (encoding) {
+                case SEQUENTIAL_COUNTER:
+                    encoder.sequentialCounter(lits, (int) k);
+                    break;
+                case TOTALIZER:
+                    encoder.atMost(encoder.totalizer(lits, 0, lits.length, (int) k + 1), (int) k);
+                    break;
+                default:
+                    encoder.atMost(encoder.cardinalityNetwork(lits, (int) k + 1), (int) k);
+            }
+        }
+        return encoder.numVars;
+    }
+
+    private void sequentialCounter(int[] x, int k) {
+        int n = x.length;
+        // s[i][j]: at least j + 1 of x[0..i] are true
+        int[][] s = new int[n - 1][k];
+        for (int i = 0; i < n - 1; i++) {
+            for (int j = 0; j < k; j++) {
+                s[i][j] = fresh();
+            }
+        }
+        add(Lit.negate(x[0]), s[0][0]);
+        for (int j = 1; j < k; j++) {
+            add(Lit.negate(s[0][j]));
+        }
+        for (int i = 1; i < n - 1; i++) {
+            add(Lit.negate(x[i]), s[i][0]);
+            add(Lit.negate(s[i - 1][0]), s[i][0]);
+            for (int j = 1; j < k; j++) {
+                add(Lit.negate(x[i]), Lit.negate(s[i - 1][j - 1]), s[i][j]);
+                add(Lit.negate(s[i - 1][j]), s[i][j]);
+            }
+            add(Lit.negate(x[i]), Lit.negate(s[i - 1][k - 1]));
+        }
+        add(Lit.negate(x[n - 1]), Lit.negate(s[n - 2][k - 1]));
+    }
+
+    // Unary count of x[from..to) capped at cap: output j is true when at least j + 1 inputs are
+    private int[] totalizer(int[] x, int from, int to, int cap) {
+        if (to - from == 1) {return new int[] {x[from]};}
+        int middle = (from + to) >>> 1;
+        int[] a = totalizer(x, from, middle, cap);
+        int[] b = totalizer(x, middle, to, cap);
+        int[] r = new int[Math.min(a.length + b.length, cap)];
+        for (int j = 0; j < r.length; j++) {
+            r[j] = fresh();
+        }
+        // a has at least i and b at least j true: r has at least i + j
+        for (int i = 0; i <= a.length; i++) {
+            for (int j = 0; j <= b.length; j++) {
+                int sum = Math.min(i + j, cap);
+                if (sum == 0) {continue;}
+                if (i == 0) {
+                    add(Lit.negate(b[j - 1]), r[sum - 1]);
+                } else if (j == 0) {
+                    add(Lit.negate(a[i - 1]), r[sum - 1]);
+                } else {
+                    add(Lit.negate(a[i - 1]), Lit.negate(b[j - 1]), r[sum - 1]);
+                }
+            }
+        }
+        return r;
+    }
+
+    // Sorts blocks of m literals and merges each into the running m largest outputs
+    private int[] cardinalityNetwork(int[] x, int m) {
+        int[] top = sort(Arrays.copyOfRange(x, 0, Math.min(m, x.length)));
+        for (int from = m; from < x.length; from += m) {
+            int[] block = sort(Arrays.copyOfRange(x, from, Math.min(from + m, x.length)));
+            int[] merged = merge(top, block);
+            top = Arrays.copyOf(merged, Math.min(merged.length, m));
+        }
+        return top;
+    }
+
+    // Odd-even merge sort; outputs are in decreasing order (true ones first)
+    private int[] sort(int[] x) {
+        if (x.length <= 1) {return x;}
+        int middle = x.length >>> 1;
+        return merge(sort(Arrays.copyOfRange(x, 0, middle)), sort(Arrays.copyOfRange(x, middle, x.length)));
+    }
+
+    // Batcher's odd-even merge of two sorted sequences of any length
+    private int[] merge(int[] a, int[] b) {
+        if (a.length == 0) {return b;}
+        if (b.length == 0) {return a;}
+        if (a.length == 1 && b.length == 1) {return comparator(a[0], b[0]);}
+        int[] odd = merge(every(a, 0), every(b, 0));
+        int[] even = merge(every(a, 1), every(b, 1));
+        int[] r = new int[a.length + b.length];
+        r[0] = odd[0];
+        int size = 1;
+        int i = 0;
+        for (; i < even.length && i + 1 < odd.length; i++) {
+            int[] pair = comparator(even[i], odd[i + 1]);
+            r[size++] = pair[0];
+            r[size++] = pair[1];
+        }
+        for (; i < even.length; i++) {
+            r[size++] = even[i];
+        }
+        for (int j = i + 1; j < odd.length; j++) {
+            r[size++] = odd[j];
+        }
+        return r;
+    }
+
+    // max and min of two literals, as far as the at-most direction needs: inputs force the outputs up
+    private int[] comparator(int a, int b) {
+        int high = fresh();
+        int low = fresh();
+        add(Lit.negate(a), high);
+        add(Lit.negate(b), high);
+        add(Lit.negate(a), Lit.negate(b), low);
+        return new int[] {high, low};
+    }
+
+    private static int[] every(int[] x, int start) {
+        int[] result = new int[(x.length - start + 1) / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = x[start + 2 * i];
+        }
+        return result;
+    }
+
+    // Forbids the (k + 1)-th output of a unary count
+    private void atMost(int[] counter, int k) {
+        if (counter.length > k) {add(Lit.negate(counter[k]));}
+    }
+
+    private int fresh() {
+        return Lit.of(numVars++, false);
+    }
+
+    private void add(int... lits) {
+        out.add(lits, 0, lits.length, false);
+    }
+}
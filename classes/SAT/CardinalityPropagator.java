@@ -0,0 +1,210 @@
+package SAT;
+
+import java.util.Arrays;
+
+/**
+ * Counter-based propagation for {@link CardinalityConstraint}s.
+ *
+ * Every constraint keeps the total weight of its true literals, updated as
+ * the trail grows and rolled back on backtracking, and every literal lists
+ * the constraints it occurs in. Once the slack (bound minus that total) is
+ * below the largest weight, each unassigned literal heavier than the slack
+ * is implied false; a negative slack is a conflict. For a plain at-most-k
+ * that is: at k true literals the rest are false, at k + 1 conflict.
+ *
+ * As in {@link GaussJordan}, reasons and conflicts are written to the arena
+ * as learned clauses: an implied -l gets [-l, -t1, ..., -tm] over the true
+ * literals, a conflict the negations of the newest true literals whose
+ * weight alone exceeds the bound.
+ */
+class CardinalityPropagator {
+    private int[][] lits = new int[16][];
+    private int[][] weights = new int[16][];
+    private long[] bound = new long[16];
+    private int[] maxWeight = new int[16];
+    private long[] trueWeight = new long[16];
+    private int count;
+
+    // Per literal: pairs of (constraint, weight) it occurs in
+    private int[][] occurrences = new int[0][];
+    private int[] occurrenceSize = new int[0];
+
+    // Trail position up to which true literals have been counted
+    private int counted;
+    private boolean recount;
+    private int[] touched = new int[16];
+    private int touchedSize;
+    private boolean[] isTouched = new boolean[16];
+    private int[] reason = new int[16];
+    private long[] order = new long[16];
+
+    int constraints() {
+        return count;
+    }
+
+    void ensureVars(int varCount) {
+        if (varCount * 2 <= occurrences.length) {return;}
+        int old = occurrences.length;
+        int capacity = Math.max(varCount * 2, old * 2);
+        occurrences = Arrays.copyOf(occurrences, capacity);
+        occurrenceSize = Arrays.copyOf(occurrenceSize, capacity);
+        for (int lit = old; lit < capacity; lit++) {
+            occurrences[lit] = new int[4];
+        }
+    }
+
+    // Only called at decision level 0; true literals are counted afresh on the next propagate
+    void add(CardinalityConstraint constraint) {
+        if (count == lits.length) {
+            int capacity = count * 2;
+            lits = Arrays.copyOf(lits, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            bound = Arrays.copyOf(bound, capacity);
+            maxWeight = Arrays.copyOf(maxWeight, capacity);
+            trueWeight = Arrays.copyOf(trueWeight, capacity);
+            isTouched = Arrays.copyOf(isTouched, capacity);
+        }
+        int c = count++;
+        lits[c] = constraint.lits.clone();
+        weights[c] = constraint.weights.clone();
+        bound[c] = constraint.bound;
+        int max = 0;
+        for (int i = 0; i < lits[c].length; i++) {
+            int lit = lits[c][i];
+            ensureVars(Lit.var(lit) + 1);
+            max = Math.max(max, weights[c][i]);
+            int size = occurrenceSize[lit];
+            if (size + 2 > occurrences[lit].length) {
+                occurrences[lit] = Arrays.copyOf(occurrences[lit], Math.max(size + 2, size * 2));
+            }
+            occurrences[lit][size] = c;
+            occurrences[lit][size + 1] = weights[c][i];
+            occurrenceSize[lit] = size + 2;
+        }
+        maxWeight[c] = max;
+        recount = true;
+    }
+
+    // Called before the trail is cut back to trailSize
+    void onBacktrack(Propagator p, int trailSize) {
+        for (int i = trailSize; i < counted; i++) {
+            int lit = p.trail[i];
+            if (lit >= occurrences.length) {continue;}
+            int[] occ = occurrences[lit];
+            for (int k = 0; k < occurrenceSize[lit]; k += 2) {
+                trueWeight[occ[k]] -= occ[k + 1];
+            }
+        }
+        if (counted > trailSize) {counted = trailSize;}
+        clearTouched();
+    }
+
+    /**
+     * Counts the literals made true since the last call and enqueues what the
+     * touched constraints imply. Returns a conflicting clause, or NO_REASON.
+     */
+    int propagate(Propagator p) {
+        if (count == 0) {return Propagator.NO_REASON;}
+        if (recount) {
+            // Only at level 0: every constraint is looked at once against the whole trail
+            recount = false;
+            Arrays.fill(trueWeight, 0, count, 0);
+            counted = 0;
+            clearTouched();
+            for (int c = 0; c < count; c++) {
+                touch(c);
+            }
+        }
+        for (; counted < p.trailSize; counted++) {
+            int lit = p.trail[counted];
+            if (lit >= occurrences.length) {continue;}
+            int[] occ = occurrences[lit];
+            for (int k = 0; k < occurrenceSize[lit]; k += 2) {
+                int c = occ[k];
+                trueWeight[c] += occ[k + 1];
+                if (bound[c] - trueWeight[c] < maxWeight[c]) {touch(c);}
+            }
+        }
+
+        while (touchedSize > 0) {
+            int c = touched[--touchedSize];
+            isTouched[c] = false;
+            long slack = bound[c] - trueWeight[c];
+            if (slack < 0) {
+                int ref = conflict(p, c);
+                clearTouched();
+                return ref;
+            }
+            if (slack >= maxWeight[c]) {continue;}
+            int size = 0;
+            for (int i = 0; i < lits[c].length; i++) {
+                int lit = lits[c][i];
+                if (weights[c][i] <= slack || p.value(lit) != Propagator.UNASSIGNED) {continue;}
+                if (size == 0) {size = trueLiterals(p, c, 1);}
+                reason[0] = Lit.negate(lit);
+                orderByLevel(p, size);
+                p.enqueue(reason[0], p.attachReason(reason, size));
+            }
+        }
+        return Propagator.NO_REASON;
+    }
+
+    private void touch(int c) {
+        if (isTouched[c]) {return;}
+        if (touchedSize == touched.length) {touched = Arrays.copyOf(touched, touchedSize * 2);}
+        touched[touchedSize++] = c;
+        isTouched[c] = true;
+    }
+
+    private void clearTouched() {
+        while (touchedSize > 0) {
+            isTouched[touched[--touchedSize]] = false;
+        }
+    }
+
+    // Writes the negations of c's true literals into reason[from..]; returns the new size
+    private int trueLiterals(Propagator p, int c, int from) {
+        int size = from;
+        for (int lit : lits[c]) {
+            if (p.value(lit) != Propagator.TRUE) {continue;}
+            if (size == reason.length) {reason = Arrays.copyOf(reason, size * 2);}
+            reason[size++] = Lit.negate(lit);
+        }
+        return size;
+    }
+
+    // Newest true literals first until their weight alone exceeds the bound
+    private int conflict(Propagator p, int c) {
+        int size = 0;
+        if (order.length < lits[c].length) {order = new long[Math.max(lits[c].length, order.length * 2)];}
+        for (int i = 0; i < lits[c].length; i++) {
+            int lit = lits[c][i];
+            if (p.value(lit) != Propagator.TRUE) {continue;}
+            // Highest level first after the sort below
+            order[size++] = ((long) (Integer.MAX_VALUE - p.level[Lit.var(lit)]) << 32) | i;
+        }
+        Arrays.sort(order, 0, size);
+        long weight = 0;
+        int length = 0;
+        while (weight <= bound[c]) {
+            int i = (int) order[length];
+            if (length == reason.length) {reason = Arrays.copyOf(reason, length * 2);}
+            reason[length++] = Lit.negate(lits[c][i]);
+            weight += weights[c][i];
+        }
+        return p.attachReason(reason, length);
+    }
+
+    // Moves the highest-level literal of reason[1..size) to position 1
+    private void orderByLevel(Propagator p, int size) {
+        int best = 1;
+        for (int i = 2; i < size; i++) {
+            if (p.level[Lit.var(reason[i])] > p.level[Lit.var(reason[best])]) {best = i;}
+        }
+        if (best < size) {
+            int swap = reason[1];
+            reason[1] = reason[best];
+            reason[best] = swap;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package SAT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Flat clause database. Every clause lives in one growing int[] as a two-word
+ * header (literal count, flags) followed by its int-encoded literals, and is
+ * referred to by the offset of its header. Walking a clause therefore touches
+ * one contiguous run of ints instead of an ArrayList of Literal objects.
+ */
+public class ClauseArena {
+    static final int HEADER = 2;
+    private static final int LEARNT = 1;
+    private static final int DELETED = 2;
+    // The flags word keeps a learned clause's LBD above the flag bits
+    private static final int LBD_SHIFT = 2;
+
+    int[] memory;
+    private int top;
+    private int count;
+    private int wasted;
+
+    public ClauseArena() {
+        this(1024);
+    }
+
+    public ClauseArena(int initialCapacity) {
+        memory = new int[Math.max(initialCapacity, HEADER)];
+    }
+
+    public int add(int[] lits, int from, int length, boolean learnt) {
+        int needed = top + HEADER + length;
+        if (needed > memory.length) {
+            memory = Arrays.copyOf(memory, Math.max(needed, memory.length * 2));
+        }
+        int ref = top;
+        memory[ref] = length;
+        memory[ref + 1] = learnt ? LEARNT : 0;
+        System.arraycopy(lits, from, memory, ref + HEADER, length);
+        top = needed;
+        count++;
+        return ref;
+    }
+
+    public int size(int ref) {
+        return memory[ref];
+    }
+
+    public int lit(int ref, int index) {
+        return memory[ref + HEADER + index];
+    }
+
+    public int[] literals(int ref) {
+        return Arrays.copyOfRange(memory, ref + HEADER, ref + HEADER + memory[ref]);
+    }
+
+    public boolean isLearnt(int ref) {
+        return (memory[ref + 1] & LEARNT) != 0;
+    }
+
+    public boolean isDeleted(int ref) {
+        return (memory[ref + 1] & DELETED) != 0;
+    }
+
+    public int lbd(int ref) {
+        return memory[ref + 1] >>> LBD_SHIFT;
+    }
+
+    public void setLbd(int ref, int lbd) {
+        memory[ref + 1] = (memory[ref + 1] & (LEARNT | DELETED)) | (lbd << LBD_SHIFT);
+    }
+
+    public void delete(int ref) {
+        if (!isDeleted(ref)) {
+            memory[ref + 1] |= DELETED;
+            count--;
+            wasted += HEADER + memory[ref];
+        }
+    }
+
+    public int clauseCount() {
+        return count;
+    }
+
+    // Words taken up by deleted clauses
+    public int wasted() {
+        return wasted;
+    }
+
+    /**
+     * Squeezes deleted clauses out of the memory, keeping the order of the
+     * rest. Returns the old memory with every live clause's new offset written
+     * into its flags word; {@link #forward} reads it back so callers can
+     * rewrite the references they hold.
+     */
+    int[] compact() {
+        int[] old = memory;
+        int[] fresh = new int[Math.max(top - wasted, HEADER)];
+        int size = 0;
+        for (int ref = 0; ref < top; ) {
+            int next = ref + HEADER + old[ref];
+            if ((old[ref + 1] & DELETED) == 0) {
+                System.arraycopy(old, ref, fresh, size, next - ref);
+                old[ref + 1] = size;
+                size += next - ref;
+            }
+            ref = next;
+        }
+        memory = fresh;
+        top = size;
+        wasted = 0;
+        return old;
+    }
+
+    static int forward(int[] old, int ref) {
+        return old[ref + 1];
+    }
+
+    // Iteration: for (int ref = arena.first(); ref < arena.end(); ref = arena.next(ref))
+    public int first() {
+        return 0;
+    }
+
+    public int next(int ref) {
+        return ref + HEADER + memory[ref];
+    }
+
+    public int end() {
+        return top;
+    }
+
+    /**
+     * Adapter for the object-based CNF built by SMTSolver.atomToCNF,
+     * BooleanFunctionFinder.toClauses and friends. Variables are numbered
+     * through the given index so the model can be mapped back afterwards;
+     * null literals are skipped and empty clauses are kept as empty clauses.
+     */
+    public static ClauseArena fromClauses(ArrayList<Clause> clauses, VariableIndex variables) {
+        ClauseArena arena = new ClauseArena();
+        int[] buffer = new int[8];
+        for (Clause clause : clauses) {
+            if (clause == null || clause.clause == null) {continue;}
+            int length = 0;
+            for (Literal literal : clause.clause) {
+                if (literal == null || literal.var == null) {continue;}
+                if (length == buffer.length) {buffer = Arrays.copyOf(buffer, length * 2);}
+                buffer[length++] = variables.literal(literal);
+            }
+            arena.add(buffer, 0, length, false);
+        }
+        return arena;
+    }
+}
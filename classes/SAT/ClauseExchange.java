@@ -0,0 +1,71 @@
+package SAT;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free ring buffer through which portfolio workers share short learned
+ * clauses. A producer claims a sequence number with one atomic increment and
+ * publishes its clause in that slot; every consumer keeps its own cursor and
+ * reads the slots it has not seen yet. Nothing ever blocks: a slot that is
+ * claimed but not yet published is retried on the next import, and a reader
+ * that falls more than one ring behind simply loses the overwritten clauses,
+ * which is harmless because shared clauses are only hints.
+ */
+public class ClauseExchange {
+    private final AtomicReferenceArray<Entry> ring;
+    private final AtomicLong next = new AtomicLong();
+    public final int maxLength;
+    public final int maxLbd;
+
+    public ClauseExchange() {
+        this(1 << 14, 8, 4);
+    }
+
+    public ClauseExchange(int capacity, int maxLength, int maxLbd) {
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.maxLength = maxLength;
+        this.maxLbd = maxLbd;
+    }
+
+    public boolean accepts(int length, int lbd) {
+        return length <= maxLength && lbd <= maxLbd;
+    }
+
+    public void publish(int source, int[] lits) {
+        long sequence = next.getAndIncrement();
+        ring.set((int) (sequence % ring.length()), new Entry(sequence, source, lits.clone()));
+    }
+
+    /**
+     * Hands every clause published by other sources since {@code cursor} to
+     * the solver and returns the new cursor.
+     */
+    long drain(long cursor, int reader, CDCLSolver solver) {
+        long end = next.get();
+        if (end - cursor > ring.length()) {
+            cursor = end - ring.length();
+        }
+        while (cursor < end) {
+            Entry entry = ring.get((int) (cursor % ring.length()));
+            if (entry == null || entry.sequence < cursor) {break;}
+            if (entry.sequence == cursor && entry.source != reader) {
+                solver.importClause(entry.lits);
+            }
+            cursor++;
+        }
+        return cursor;
+    }
+
+    private static final class Entry {
+        final long sequence;
+        final int source;
+        final int[] lits;
+
+        Entry(long sequence, int source, int[] lits) {
+            this.sequence = sequence;
+            this.source = source;
+            this.lits = lits;
+        }
+    }
+}
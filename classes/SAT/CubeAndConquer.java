@@ -0,0 +1,204 @@
+package SAT;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cube-and-conquer: lookahead splits the formula into cubes (partial
+ * assignments) and CDCL finishes each one. This is the same variable-by-
+ * variable branching the old recursive solveSAT did, except that every
+ * subtree is a {@link RecursiveTask} on a work-stealing {@link ForkJoinPool},
+ * so idle workers pick up the open branches of busy ones.
+ *
+ * At each node the lookahead probes the most frequent unassigned variables
+ * both ways and splits on the one whose two branches together propagate the
+ * most (product of implied counts). A probe that conflicts is a failed
+ * literal: its negation joins the cube without branching, and if both
+ * polarities fail the cube is refuted outright. Below {@code cubeDepth}
+ * decisions the cube is handed to a CDCL solver as assumptions. A task
+ * borrows an idle incremental solver and hands it back before it forks or
+ * returns, so clauses learned on one cube help with the next, and no pool
+ * thread holds on to a solver once solve() is done. The first SAT cube stops
+ * all the others.
+ */
+public class CubeAndConquer {
+    private static final int LOOKAHEAD_CANDIDATES = 32;
+
+    private final ClauseArena formula;
+    private final int numVars;
+    private final int cubeDepth;
+    private final ForkJoinPool pool;
+    private final int[] byOccurrence;
+
+    private final AtomicBoolean found = new AtomicBoolean();
+    private final AtomicLong cubesSolved = new AtomicLong();
+    // Every solver created so far, and those no task is using
+    private final Queue<CDCLSolver> solvers = new ConcurrentLinkedQueue<>();
+    private final Queue<CDCLSolver> idle = new ConcurrentLinkedQueue<>();
+    private volatile boolean[] model = new boolean[0];
+
+    public CubeAndConquer(ClauseArena formula, int numVars, int cubeDepth, ForkJoinPool pool) {
+        this.formula = formula;
+        this.numVars = numVars;
+        this.cubeDepth = cubeDepth;
+        this.pool = pool;
+        this.byOccurrence = variablesByOccurrence(formula, numVars);
+    }
+
+    // Splits to about 4 cubes per pool thread
+    public CubeAndConquer(ClauseArena formula, int numVars, ForkJoinPool pool) {
+        this(formula, numVars, 2 + 32 - Integer.numberOfLeadingZeros(Math.max(1, pool.getParallelism())), pool);
+    }
+
+    public SolveStatus solve() {
+        if (found.getAndSet(false)) {
+            // The last run stopped the other solvers, and idle ones have not seen that yet
+            model = new boolean[0];
+            solvers.clear();
+            idle.clear();
+        }
+        return pool.invoke(new CubeTask(new int[0], 0));
+    }
+
+    public boolean modelValue(int var) {
+        return var < model.length && model[var];
+    }
+
+    public long cubesSolved() {
+        return cubesSolved.get();
+    }
+
+    private final class CubeTask extends RecursiveTask<SolveStatus> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] cube;
+        private final int depth;
+        // The variable lookahead chose to branch on, or -1 to conquer the cube
+        private int split = -1;
+
+        CubeTask(int[] cube, int depth) {
+            this.cube = cube;
+            this.depth = depth;
+        }
+
+        @Override
+        protected SolveStatus compute() {
+            if (found.get()) {return SolveStatus.UNKNOWN;}
+            int[] current;
+            // Handed back before forking, so the subtasks can pick it up
+            CDCLSolver solver = borrow();
+            try {
+                current = depth < cubeDepth ? lookahead(solver) : cube;
+                if (current == null) {return SolveStatus.UNSAT;}
+                if (split == -1) {return conquer(solver, current);}
+            } finally {
+                idle.add(solver);
+            }
+
+            CubeTask left = new CubeTask(extend(current, Lit.of(split, false)), depth + 1);
+            CubeTask right = new CubeTask(extend(current, Lit.of(split, true)), depth + 1);
+            right.fork();
+            SolveStatus leftResult = left.compute();
+            if (leftResult == SolveStatus.SAT) {return leftResult;}
+            SolveStatus rightResult = right.join();
+            if (rightResult == SolveStatus.SAT) {return rightResult;}
+            if (leftResult == SolveStatus.UNSAT && rightResult == SolveStatus.UNSAT) {return SolveStatus.UNSAT;}
+            return SolveStatus.UNKNOWN;
+        }
+
+        // The cube plus its failed literals with split set, or null if the cube is refuted
+        private int[] lookahead(CDCLSolver solver) {
+            int[] current = cube;
+            if (!solver.assumeCube(current)) {
+                solver.clearCube();
+                return null;
+            }
+            long bestScore = -1;
+            int examined = 0;
+            for (int i = 0; i < byOccurrence.length && examined < LOOKAHEAD_CANDIDATES; i++) {
+                int var = byOccurrence[i];
+                if (solver.isAssigned(var)) {continue;}
+                examined++;
+                int positive = solver.probe(Lit.of(var, false));
+                int negative = solver.probe(Lit.of(var, true));
+                if (positive < 0 && negative < 0) {
+                    solver.clearCube();
+                    return null;
+                }
+                if (positive < 0 || negative < 0) {
+                    current = extend(current, Lit.of(var, positive < 0));
+                    if (!solver.assumeCube(current)) {
+                        solver.clearCube();
+                        return null;
+                    }
+                    continue;
+                }
+                long score = (long) (positive + 1) * (negative + 1);
+                if (score > bestScore) {
+                    bestScore = score;
+                    split = var;
+                }
+            }
+            solver.clearCube();
+            return current;
+        }
+    }
+
+    private CDCLSolver borrow() {
+        CDCLSolver solver = idle.poll();
+        if (solver != null) {return solver;}
+        solver = new CDCLSolver();
+        solver.ensureVars(numVars);
+        solver.addClauses(formula);
+        solvers.add(solver);
+        return solver;
+    }
+
+    private SolveStatus conquer(CDCLSolver solver, int[] cube) {
+        SolveStatus status = solver.solve(cube);
+        cubesSolved.incrementAndGet();
+        if (status == SolveStatus.SAT && found.compareAndSet(false, true)) {
+            boolean[] values = new boolean[numVars];
+            for (int var = 0; var < numVars; var++) {
+                values[var] = solver.modelValue(var);
+            }
+            model = values;
+            for (CDCLSolver other : solvers) {
+                if (other != solver) {other.stop();}
+            }
+        }
+        return status;
+    }
+
+    private static int[] extend(int[] cube, int lit) {
+        int[] extended = Arrays.copyOf(cube, cube.length + 1);
+        extended[cube.length] = lit;
+        return extended;
+    }
+
+    private static int[] variablesByOccurrence(ClauseArena formula, int numVars) {
+        int[] counts = new int[numVars];
+        for (int ref = formula.first(); ref < formula.end(); ref = formula.next(ref)) {
+            if (formula.isDeleted(ref)) {continue;}
+            for (int i = 0; i < formula.size(ref); i++) {
+                int var = Lit.var(formula.lit(ref, i));
+                if (var < numVars) {counts[var]++;}
+            }
+        }
+        Integer[] order = new Integer[numVars];
+        for (int var = 0; var < numVars; var++) {
+            order[var] = var;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(counts[b], counts[a]));
+        int[] result = new int[numVars];
+        for (int i = 0; i < numVars; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+}
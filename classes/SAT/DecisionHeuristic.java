@@ -0,0 +1,20 @@
+package SAT;
+
+/**
+ * Chooses the next decision literal for {@link CDCLSolver}. The solver reports
+ * every variable that took part in a conflict, the end of each conflict, and
+ * every variable it unassigns while backtracking (with the value it had, for
+ * phase saving).
+ */
+public interface DecisionHeuristic {
+    void ensureVars(int count);
+
+    void bump(int var);
+
+    void onConflict();
+
+    void onUnassign(int var, boolean value);
+
+    // Returns an unassigned literal, or -1 when every variable is assigned
+    int pickBranchLiteral(Propagator propagator);
+}
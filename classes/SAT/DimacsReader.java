@@ -0,0 +1,151 @@
+package SAT;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming DIMACS CNF loader. The file is memory-mapped in windows of at
+ * most {@code WINDOW} bytes (a single mapping cannot exceed 2 GB) and parsed
+ * byte by byte straight into a {@link ClauseArena}: no line Strings, no
+ * boxed integers, one reusable int buffer for the clause being read.
+ *
+ * Comment lines ('c'), the "p cnf vars clauses" header and a trailing '%'
+ * end marker are understood; clauses may span lines and are terminated by 0.
+ */
+public final class DimacsReader {
+    private static final long WINDOW = 1L << 28;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer buffer;
+    private long windowStart;
+    private int declaredVariables;
+    private int number;
+
+    private DimacsReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+    }
+
+    /**
+     * Reads every clause of the file into the arena and returns the number of
+     * variables declared in the header (or the highest variable seen, if larger).
+     */
+    public static int read(Path path, ClauseArena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            DimacsReader reader = new DimacsReader(channel);
+            return reader.parse(arena);
+        }
+    }
+
+    // Convenience: parses the file and loads it into the solver
+    public static boolean load(Path path, CDCLSolver solver) throws IOException {
+        ClauseArena arena = new ClauseArena();
+        solver.ensureVars(read(path, arena));
+        return solver.addClauses(arena);
+    }
+
+    private int parse(ClauseArena arena) throws IOException {
+        int[] clause = new int[64];
+        int length = 0;
+        int maxVariable = 0;
+
+        int c = next();
+        while (c != -1) {
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                c = next();
+            } else if (c == 'c') {
+                c = skipLine();
+            } else if (c == '%') {
+                break;
+            } else if (c == 'p') {
+                c = parseHeader();
+            } else if (c == '-' || (c >= '0' && c <= '9')) {
+                boolean negative = c == '-';
+                if (negative) {c = next();}
+                if (c < '0' || c > '9') {
+                    throw new IOException("Malformed literal near byte " + position());
+                }
+                int value = 0;
+                while (c >= '0' && c <= '9') {
+                    value = value * 10 + (c - '0');
+                    c = next();
+                }
+
+                if (value == 0) {
+                    arena.add(clause, 0, length, false);
+                    length = 0;
+                    continue;
+                }
+                maxVariable = Math.max(maxVariable, value);
+                if (length == clause.length) {
+                    clause = Arrays.copyOf(clause, length * 2);
+                }
+                clause[length++] = Lit.fromDimacs(negative ? -value : value);
+            } else {
+                throw new IOException("Unexpected character '" + (char) c + "' near byte " + position());
+            }
+        }
+
+        if (length > 0) {
+            arena.add(clause, 0, length, false);
+        }
+        return Math.max(declaredVariables, maxVariable);
+    }
+
+    // Returns the first character after the header line
+    private int parseHeader() throws IOException {
+        int c = skipBlanks(next());
+        if (c != 'c' || next() != 'n' || next() != 'f') {
+            throw new IOException("Only 'p cnf' headers are supported");
+        }
+        c = readUnsigned(skipBlanks(next()));
+        declaredVariables = number;
+        c = readUnsigned(skipBlanks(c)); // clause count, only informative
+        while (c != -1 && c != '\n') {c = next();}
+        return c;
+    }
+
+    private int skipBlanks(int c) throws IOException {
+        while (c == ' ' || c == '\t') {c = next();}
+        return c;
+    }
+
+    // Parses digits starting at c into number and returns the character after them
+    private int readUnsigned(int c) throws IOException {
+        if (c < '0' || c > '9') {
+            throw new IOException("Malformed header near byte " + position());
+        }
+        number = 0;
+        while (c >= '0' && c <= '9') {
+            number = number * 10 + (c - '0');
+            c = next();
+        }
+        return c;
+    }
+
+    // Returns the first character after the end of the current line
+    private int skipLine() throws IOException {
+        int c = next();
+        while (c != -1 && c != '\n') {c = next();}
+        return c == -1 ? -1 : next();
+    }
+
+    private int next() throws IOException {
+        if (buffer == null || !buffer.hasRemaining()) {
+            long start = buffer == null ? 0 : windowStart + buffer.capacity();
+            if (start >= fileSize) {return -1;}
+            windowStart = start;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, fileSize - start));
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    private long position() {
+        return buffer == null ? 0 : windowStart + buffer.position();
+    }
+}
@@ -0,0 +1,101 @@
+package SAT;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a solver answer in the SAT competition output format:
+ * an "s SATISFIABLE" / "s UNSATISFIABLE" / "s UNKNOWN" line followed, for SAT, by the model
+ * as "v" lines of DIMACS literals ending with 0. Digits are written straight
+ * into a byte buffer, so a model of millions of variables builds no Strings.
+ */
+public final class DimacsWriter {
+    private static final int LITERALS_PER_LINE = 20;
+
+    private final OutputStream out;
+    private final byte[] digits = new byte[12];
+
+    public DimacsWriter(OutputStream out) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+    }
+
+    public void writeStatus(SolveStatus status) throws IOException {
+        switch (status) {
+            case SAT:
+                writeAscii("s SATISFIABLE\n");
+                break;
+            case UNSAT:
+                writeAscii("s UNSATISFIABLE\n");
+                break;
+            default:
+                writeAscii("s UNKNOWN\n");
+        }
+    }
+
+    public void writeModel(boolean[] model) throws IOException {
+        out.write('v');
+        for (int var = 0; var < model.length; var++) {
+            if (var > 0 && var % LITERALS_PER_LINE == 0) {
+                writeAscii("\nv");
+            }
+            out.write(' ');
+            writeInt(model[var] ? var + 1 : -(var + 1));
+        }
+        writeAscii(" 0\n");
+    }
+
+    // The formula as a DIMACS CNF, e.g. to hand a checker the clauses a proof refers to
+    public void writeFormula(ClauseArena formula, int numVars) throws IOException {
+        writeAscii("p cnf ");
+        writeInt(numVars);
+        out.write(' ');
+        writeInt(formula.clauseCount());
+        out.write('\n');
+        for (int ref = formula.first(); ref < formula.end(); ref = formula.next(ref)) {
+            if (formula.isDeleted(ref)) {continue;}
+            for (int i = 0; i < formula.size(ref); i++) {
+                writeInt(Lit.toDimacs(formula.lit(ref, i)));
+                out.write(' ');
+            }
+            writeAscii("0\n");
+        }
+    }
+
+    public void writeResult(SolveStatus status, CDCLSolver solver) throws IOException {
+        writeStatus(status);
+        if (status == SolveStatus.SAT) {
+            boolean[] model = new boolean[solver.numVars()];
+            for (int var = 0; var < model.length; var++) {
+                model[var] = solver.modelValue(var);
+            }
+            writeModel(model);
+        }
+        flush();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void writeInt(int value) throws IOException {
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        int size = 0;
+        do {
+            digits[size++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (size > 0) {
+            out.write(digits[--size]);
+        }
+    }
+
+    private void writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            out.write(text.charAt(i));
+        }
+    }
+}
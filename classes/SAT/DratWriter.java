@@ -0,0 +1,161 @@
+package SAT;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Binary DRAT proof output, as read by drat-trim and similar checkers. Every
+ * line is 'a' (added) or 'd' (deleted), the clause's literals as variable-length
+ * unsigned ints (2 * DIMACS variable + sign) and a terminating 0 byte.
+ *
+ * The solver thread only encodes the line into a byte ring; a background
+ * daemon thread drains the ring into the stream. The ring has one producer
+ * and one consumer, so the two sides hand over through a pair of positions
+ * and never lock. When the ring is full the solver waits for the writer.
+ *
+ * {@link #close()} drains what is left, closes the stream and rethrows any
+ * I/O error the writer thread ran into.
+ */
+public final class DratWriter implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 1 << 20;
+    private static final int[] EMPTY = new int[0];
+
+    private final OutputStream out;
+    private final byte[] ring;
+    private final int mask;
+    private final AtomicLong produced = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private byte[] line = new byte[64];
+    private long lines;
+
+    public DratWriter(OutputStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    // The capacity is rounded up to a power of two
+    public DratWriter(OutputStream out, int capacity) {
+        if (capacity <= 0) {throw new IllegalArgumentException("capacity must be positive");}
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        this.ring = new byte[Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1];
+        this.mask = ring.length - 1;
+        this.writer = new Thread(this::drain, "drat-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void add(int[] lits, int from, int length) {
+        put('a', lits, from, length);
+    }
+
+    public void delete(int[] lits, int from, int length) {
+        put('d', lits, from, length);
+    }
+
+    // The empty clause; a checker stops reading here
+    public void addEmpty() {
+        put('a', EMPTY, 0, 0);
+    }
+
+    public long lines() {
+        return lines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            LockSupport.unpark(writer);
+            boolean interrupted = false;
+            while (writer.isAlive()) {
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {Thread.currentThread().interrupt();}
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (failure == null) {failure = e;}
+            }
+        }
+        if (failure != null) {throw failure;}
+    }
+
+    private void put(char kind, int[] lits, int from, int length) {
+        if (closed) {throw new IllegalStateException("proof already closed");}
+        int needed = 2 + length * 5;
+        if (needed > line.length) {
+            line = new byte[Math.max(needed, line.length * 2)];
+        }
+        int size = 0;
+        line[size++] = (byte) kind;
+        for (int i = from; i < from + length; i++) {
+            // Lit encodes var << 1 | neg, so 2 * (var + 1) + neg is lit + 2
+            int value = lits[i] + 2;
+            while ((value & ~0x7f) != 0) {
+                line[size++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            line[size++] = (byte) value;
+        }
+        line[size++] = 0;
+        publish(size);
+        lines++;
+    }
+
+    // Copies the encoded line into the ring, in pieces if it is longer than the free space
+    private void publish(int size) {
+        long head = produced.get();
+        int offset = 0;
+        while (offset < size) {
+            long free = ring.length - (head - consumed.get());
+            if (free == 0) {
+                if (failure != null || !writer.isAlive()) {throw new IllegalStateException("proof writer stopped", failure);}
+                LockSupport.unpark(writer);
+                Thread.onSpinWait();
+                continue;
+            }
+            int chunk = (int) Math.min(free, size - offset);
+            int start = (int) (head & mask);
+            int first = Math.min(chunk, ring.length - start);
+            System.arraycopy(line, offset, ring, start, first);
+            System.arraycopy(line, offset + first, ring, 0, chunk - first);
+            offset += chunk;
+            head += chunk;
+            produced.lazySet(head);
+        }
+        // Wake the writer once the ring is half full instead of on every line
+        if (head - consumed.get() >= ring.length >> 1) {LockSupport.unpark(writer);}
+    }
+
+    private void drain() {
+        try {
+            long tail = consumed.get();
+            while (true) {
+                long head = produced.get();
+                if (head == tail) {
+                    if (closed && head == produced.get()) {break;}
+                    LockSupport.parkNanos(1_000_000);
+                    continue;
+                }
+                int start = (int) (tail & mask);
+                int available = (int) Math.min(head - tail, ring.length - start);
+                out.write(ring, start, available);
+                tail += available;
+                consumed.lazySet(tail);
+            }
+            out.flush();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package SAT;
+
+import java.util.Arrays;
+
+/**
+ * Propagation for XOR constraints by Gauss-Jordan elimination over GF(2).
+ *
+ * Every constraint is a row of a bit matrix: one bit per column (a variable
+ * that occurs in some XOR) packed 64 to a long, plus the parity. The matrix is
+ * kept in reduced row echelon form with respect to the unassigned columns:
+ * every row has a pivot column that is unassigned and occurs in no other row.
+ * Rows are only ever added to each other, so the matrix describes the same
+ * linear system whatever the assignment, and nothing has to be undone on
+ * backtracking; after new assignments only the rows whose pivot got
+ * assigned look for a new one.
+ *
+ * In that form a row whose only unassigned column is its pivot implies the
+ * pivot's value, and a row without unassigned columns is either satisfied or
+ * a conflict. The reason is the row's assigned part, which is stored in the
+ * arena as a learned clause so conflict analysis can use it like any other.
+ */
+class GaussJordan {
+    private static final int NONE = -1;
+
+    private int[] varColumn = new int[0];
+    private int[] columnVar = new int[16];
+    private int columns;
+    private int words;
+
+    private long[][] rows = new long[16][];
+    private boolean[] parity = new boolean[16];
+    private int[] pivot = new int[16];
+    private int rowCount;
+    private int[] pivotRow = new int[16];
+
+    // Rows added since the last full elimination; they may depend on the others
+    private boolean needsElimination;
+    // Trail position up to which assignments have been looked at
+    private int checked;
+    private boolean dirty;
+
+    private long[] unassigned = new long[0];
+    private long[] trueBits = new long[0];
+    private int[] reason = new int[16];
+
+    int rows() {
+        return rowCount;
+    }
+
+    int columns() {
+        return columns;
+    }
+
+    void ensureVars(int count) {
+        if (count <= varColumn.length) {return;}
+        int old = varColumn.length;
+        varColumn = Arrays.copyOf(varColumn, Math.max(count, old * 2));
+        Arrays.fill(varColumn, old, varColumn.length, NONE);
+    }
+
+    boolean involves(int var) {
+        return var < varColumn.length && varColumn[var] != NONE;
+    }
+
+    // Only called at decision level 0; the row is eliminated against the others on the next propagate
+    void addRow(int[] vars, boolean rhs) {
+        for (int var : vars) {
+            ensureVars(var + 1);
+            column(var);
+        }
+        long[] row = new long[words];
+        for (int var : vars) {
+            int col = varColumn[var];
+            row[col >>> 6] ^= 1L << col;
+        }
+        if (rowCount == rows.length) {
+            int capacity = rowCount * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            parity = Arrays.copyOf(parity, capacity);
+            pivot = Arrays.copyOf(pivot, capacity);
+        }
+        rows[rowCount] = row;
+        parity[rowCount] = rhs;
+        pivot[rowCount] = NONE;
+        rowCount++;
+        needsElimination = true;
+        dirty = true;
+    }
+
+    void onBacktrack(int trailSize) {
+        if (checked > trailSize) {checked = trailSize;}
+    }
+
+    /**
+     * Brings the matrix up to date with the trail and enqueues every implied
+     * literal. Returns a conflicting clause, or NO_REASON.
+     */
+    int propagate(Propagator p) {
+        if (rowCount == 0 && !needsElimination) {return Propagator.NO_REASON;}
+        for (int i = checked; i < p.trailSize && !dirty; i++) {
+            dirty = involves(Lit.var(p.trail[i]));
+        }
+        checked = p.trailSize;
+        if (!dirty) {return Propagator.NO_REASON;}
+        dirty = false;
+
+        if (needsElimination && !eliminate()) {
+            // The XORs alone are contradictory; only happens at level 0
+            return p.arena.add(reason, 0, 0, true);
+        }
+        loadAssignment(p);
+        repairPivots();
+
+        for (int r = 0; r < rowCount; r++) {
+            long[] row = rows[r];
+            int free = NONE;
+            int freeCount = 0;
+            boolean sum = parity[r];
+            for (int w = 0; w < words && freeCount < 2; w++) {
+                long open = row[w] & unassigned[w];
+                if (open != 0) {
+                    freeCount += Long.bitCount(open);
+                    free = (w << 6) + Long.numberOfTrailingZeros(open);
+                }
+                sum ^= (Long.bitCount(row[w] & trueBits[w]) & 1) != 0;
+            }
+            if (freeCount >= 2) {continue;}
+
+            if (freeCount == 0) {
+                if (!sum) {continue;}
+                int size = falseLiterals(p, row, 0);
+                orderByLevel(p, size, 0);
+                orderByLevel(p, size, 1);
+                return p.attachReason(reason, size);
+            }
+
+            // sum is the value the free column needs for the row to hold
+            int lit = Lit.of(columnVar[free], !sum);
+            reason[0] = lit;
+            int size = falseLiterals(p, row, 1);
+            orderByLevel(p, size, 1);
+            p.enqueue(lit, p.attachReason(reason, size));
+        }
+        return Propagator.NO_REASON;
+    }
+
+    private int column(int var) {
+        if (varColumn[var] != NONE) {return varColumn[var];}
+        if (columns == columnVar.length) {
+            columnVar = Arrays.copyOf(columnVar, columns * 2);
+            pivotRow = Arrays.copyOf(pivotRow, columns * 2);
+        }
+        int col = columns++;
+        varColumn[var] = col;
+        columnVar[col] = var;
+        pivotRow[col] = NONE;
+        int needed = (columns + 63) >>> 6;
+        if (needed > words) {
+            words = needed;
+            for (int r = 0; r < rowCount; r++) {
+                rows[r] = Arrays.copyOf(rows[r], words);
+            }
+        }
+        return col;
+    }
+
+    // Full elimination ignoring the assignment: drops dependent rows, false on 0 = 1
+    private boolean eliminate() {
+        needsElimination = false;
+        Arrays.fill(pivotRow, 0, columns, NONE);
+        int kept = 0;
+        for (int r = 0; r < rowCount; r++) {
+            long[] row = rows[r];
+            boolean rhs = parity[r];
+            for (int k = 0; k < kept; k++) {
+                int col = pivot[k];
+                if ((row[col >>> 6] & (1L << col)) != 0) {
+                    xorInto(row, rows[k]);
+                    rhs ^= parity[k];
+                }
+            }
+            int col = firstBit(row, null);
+            if (col == NONE) {
+                if (rhs) {return false;}
+                continue;
+            }
+            for (int k = 0; k < kept; k++) {
+                if ((rows[k][col >>> 6] & (1L << col)) != 0) {
+                    xorInto(rows[k], row);
+                    parity[k] ^= rhs;
+                }
+            }
+            rows[kept] = row;
+            parity[kept] = rhs;
+            pivot[kept] = col;
+            pivotRow[col] = kept;
+            kept++;
+        }
+        for (int r = kept; r < rowCount; r++) {
+            rows[r] = null;
+        }
+        rowCount = kept;
+        return true;
+    }
+
+    private void loadAssignment(Propagator p) {
+        if (unassigned.length != words) {
+            unassigned = new long[words];
+            trueBits = new long[words];
+        }
+        Arrays.fill(unassigned, 0);
+        Arrays.fill(trueBits, 0);
+        for (int col = 0; col < columns; col++) {
+            byte value = p.assigns[columnVar[col]];
+            if (value == Propagator.UNASSIGNED) {
+                unassigned[col >>> 6] |= 1L << col;
+            } else if (value == Propagator.TRUE) {
+                trueBits[col >>> 6] |= 1L << col;
+            }
+        }
+    }
+
+    // Gives every row with an unassigned column an unassigned pivot that no other row contains
+    private void repairPivots() {
+        for (int r = 0; r < rowCount; r++) {
+            int col = pivot[r];
+            if (col != NONE && (unassigned[col >>> 6] & (1L << col)) == 0) {
+                pivotRow[col] = NONE;
+                pivot[r] = NONE;
+            }
+        }
+        for (int r = 0; r < rowCount; r++) {
+            if (pivot[r] != NONE) {continue;}
+            int col = firstBit(rows[r], unassigned);
+            if (col == NONE) {continue;}
+            pivot[r] = col;
+            pivotRow[col] = r;
+            long[] row = rows[r];
+            for (int o = 0; o < rowCount; o++) {
+                if (o != r && (rows[o][col >>> 6] & (1L << col)) != 0) {
+                    xorInto(rows[o], row);
+                    parity[o] ^= parity[r];
+                }
+            }
+        }
+    }
+
+    // Writes the row's currently false literals into reason[from..]; returns the new size
+    private int falseLiterals(Propagator p, long[] row, int from) {
+        int size = from;
+        for (int w = 0; w < words; w++) {
+            long bits = row[w] & ~unassigned[w];
+            while (bits != 0) {
+                int col = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int var = columnVar[col];
+                if (size == reason.length) {reason = Arrays.copyOf(reason, size * 2);}
+                // A true variable makes its negative literal false and vice versa
+                reason[size++] = Lit.of(var, p.assigns[var] == Propagator.TRUE);
+            }
+        }
+        return size;
+    }
+
+    // Moves the highest-level literal of reason[at..size) to position at
+    private void orderByLevel(Propagator p, int size, int at) {
+        int best = at;
+        for (int i = at + 1; i < size; i++) {
+            if (p.level[Lit.var(reason[i])] > p.level[Lit.var(reason[best])]) {best = i;}
+        }
+        if (best < size) {
+            int swap = reason[at];
+            reason[at] = reason[best];
+            reason[best] = swap;
+        }
+    }
+
+    private int firstBit(long[] row, long[] mask) {
+        for (int w = 0; w < words; w++) {
+            long bits = mask == null ? row[w] : row[w] & mask[w];
+            if (bits != 0) {return (w << 6) + Long.numberOfTrailingZeros(bits);}
+        }
+        return NONE;
+    }
+
+    private void xorInto(long[] target, long[] source) {
+        for (int w = 0; w < words; w++) {
+            target[w] ^= source[w];
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package SAT;
+
+// Restarts after first, first*factor, first*factor^2, ... conflicts
+public class GeometricRestart implements RestartPolicy {
+    private final double factor;
+    private double limit;
+    private long conflicts;
+
+    public GeometricRestart() {
+        this(100, 1.5);
+    }
+
+    public GeometricRestart(int first, double factor) {
+        if (first <= 0 || factor < 1) {
+            throw new IllegalArgumentException("first must be positive and factor at least 1");
+        }
+        this.limit = first;
+        this.factor = factor;
+    }
+
+    @Override
+    public void onConflict(int lbd) {
+        conflicts++;
+    }
+
+    @Override
+    public String restartReason() {
+        if (conflicts < limit) {return null;}
+        return "geometric limit of " + (long) limit + " conflicts reached";
+    }
+
+    @Override
+    public void onRestart() {
+        conflicts = 0;
+        limit *= factor;
+    }
+}
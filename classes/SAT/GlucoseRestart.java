@@ -0,0 +1,59 @@
+package SAT;
+
+/**
+ * Adaptive restarts in the style of Glucose: compares the average LBD of the
+ * last {@code window} learned clauses with the average over the whole run, and
+ * restarts when recent clauses are clearly worse (fast * k > slow), i.e. when
+ * the current branch is producing low-quality learned clauses.
+ */
+public class GlucoseRestart implements RestartPolicy {
+    private final int[] recent;
+    private final double k;
+    private int recentCount;
+    private int recentNext;
+    private long recentSum;
+    private long totalSum;
+    private long totalCount;
+
+    public GlucoseRestart() {
+        this(50, 0.8);
+    }
+
+    public GlucoseRestart(int window, double k) {
+        if (window <= 0 || k <= 0) {
+            throw new IllegalArgumentException("window and k must be positive");
+        }
+        this.recent = new int[window];
+        this.k = k;
+    }
+
+    @Override
+    public void onConflict(int lbd) {
+        totalSum += lbd;
+        totalCount++;
+        if (recentCount == recent.length) {
+            recentSum -= recent[recentNext];
+        } else {
+            recentCount++;
+        }
+        recent[recentNext] = lbd;
+        recentSum += lbd;
+        recentNext = (recentNext + 1) % recent.length;
+    }
+
+    @Override
+    public String restartReason() {
+        if (recentCount < recent.length) {return null;}
+        double fast = (double) recentSum / recentCount;
+        double slow = (double) totalSum / totalCount;
+        if (fast * k <= slow) {return null;}
+        return String.format("recent lbd average %.2f x %.2f exceeds overall %.2f", fast, k, slow);
+    }
+
+    @Override
+    public void onRestart() {
+        recentCount = 0;
+        recentNext = 0;
+        recentSum = 0;
+    }
+}
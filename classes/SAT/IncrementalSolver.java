@@ -0,0 +1,74 @@
+package SAT;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Object-level front end for incremental solving: load a base formula once,
+ * then ask many related queries with {@link #solve(Literal...)} instead of
+ * appending unit clauses with SATSolver.setVariableValue to a fresh copy each
+ * time. Learned clauses and heuristic state carry over between calls.
+ *
+ * After SAT the model is written to Variable.on_off like SATSolver.solveSAT
+ * does; after UNSAT {@link #failedAssumptions()} returns the responsible
+ * subset of the assumptions passed in.
+ */
+public class IncrementalSolver {
+    private final CDCLSolver solver = new CDCLSolver();
+    private final VariableIndex variables = new VariableIndex();
+    private final ArrayList<Literal> failed = new ArrayList<>();
+
+    public boolean addClause(Clause clause) {
+        int[] lits = new int[clause.clause.size()];
+        int size = 0;
+        for (Literal literal : clause.clause) {
+            if (literal == null || literal.var == null) {continue;}
+            lits[size++] = variables.literal(literal);
+        }
+        return solver.addClause(lits, 0, size);
+    }
+
+    public boolean addClauses(ArrayList<Clause> clauses) {
+        boolean ok = true;
+        for (Clause clause : clauses) {
+            ok &= addClause(clause);
+        }
+        return ok;
+    }
+
+    public SolveStatus solve(Literal... assumptions) {
+        int[] lits = new int[assumptions.length];
+        for (int i = 0; i < assumptions.length; i++) {
+            lits[i] = variables.literal(assumptions[i]);
+        }
+
+        failed.clear();
+        SolveStatus status = solver.solve(lits);
+        if (status == SolveStatus.SAT) {
+            boolean[] model = new boolean[variables.size()];
+            for (int i = 0; i < model.length; i++) {
+                model[i] = solver.modelValue(i);
+            }
+            variables.applyModel(model);
+            return status;
+        }
+
+        for (int lit : solver.failedAssumptions()) {
+            for (int i = 0; i < lits.length; i++) {
+                if (lits[i] == lit) {
+                    failed.add(assumptions[i]);
+                    break;
+                }
+            }
+        }
+        return status;
+    }
+
+    public List<Literal> failedAssumptions() {
+        return new ArrayList<>(failed);
+    }
+
+    public CDCLSolver engine() {
+        return solver;
+    }
+}
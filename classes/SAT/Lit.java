@@ -0,0 +1,36 @@
+package SAT;
+
+/**
+ * Helpers for the int literal encoding used by the solver engines.
+ * Variable {@code v} (0-based) becomes {@code 2*v} for the positive literal
+ * and {@code 2*v+1} for the negated one, so a literal doubles as an index
+ * into per-literal arrays.
+ */
+public final class Lit {
+    private Lit() {}
+
+    public static int of(int var, boolean neg) {
+        return (var << 1) | (neg ? 1 : 0);
+    }
+
+    public static int var(int lit) {
+        return lit >>> 1;
+    }
+
+    public static boolean isNeg(int lit) {
+        return (lit & 1) != 0;
+    }
+
+    public static int negate(int lit) {
+        return lit ^ 1;
+    }
+
+    // DIMACS numbers variables from 1 and writes negation as a minus sign
+    public static int fromDimacs(int dimacs) {
+        return dimacs > 0 ? of(dimacs - 1, false) : of(-dimacs - 1, true);
+    }
+
+    public static int toDimacs(int lit) {
+        return isNeg(lit) ? -(var(lit) + 1) : var(lit) + 1;
+    }
+}
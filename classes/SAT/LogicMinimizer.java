@@ -0,0 +1,618 @@
+package SAT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Two-level minimization of a {@link TruthTable}: a small set of cubes
+ * (conjunctions of input literals) whose union is exactly the rows where the
+ * output has the requested polarity. Every cube found is prime: dropping
+ * any of its literals would let it reach a row of the other polarity.
+ *
+ *  - Up to {@link #EXACT_LIMIT} inputs, Quine-McCluskey: all prime
+ *    implicants by merging cubes that differ in one variable, then a
+ *    minimum cover picked by branch and bound after taking the essential
+ *    primes (with a node limit, beyond which the best cover found so far
+ *    is kept).
+ *  - Above that, an Espresso-style loop over the table itself: expand
+ *    each uncovered row into a prime, drop redundant cubes, reduce every
+ *    cube to the rows only it covers and expand again, for as long as the
+ *    cover gets smaller.
+ *
+ * Internally cubes live in assignment space (bit b of an assignment is
+ * column width - 1 - b, see {@link TruthTable#assignment}); the
+ * {@link Cube}s handed out are indexed by column. The table's rows may be in
+ * any order and need not list every assignment. A cube only covers
+ * assignments the table lists with the requested polarity, so an unlisted
+ * input is in neither polarity's cover and stays unconstrained. A table that
+ * lists one input with both outputs is rejected.
+ */
+public final class LogicMinimizer {
+    public static final int EXACT_LIMIT = 10;
+    private static final int COVER_NODE_LIMIT = 20_000;
+    private static final int MAX_PASSES = 4;
+
+    private LogicMinimizer() {}
+
+    /**
+     * A conjunction of literals: column c occurs if bit c of care is set,
+     * positively if bit c of value is set too. A cube without literals
+     * covers every row.
+     */
+    public static final class Cube {
+        public final int care;
+        public final int value;
+
+        public Cube(int care, int value) {
+            this.care = care;
+            this.value = value & care;
+        }
+
+        public boolean hasLiteral(int column) {
+            return (care & (1 << column)) != 0;
+        }
+
+        public boolean isPositive(int column) {
+            return (value & (1 << column)) != 0;
+        }
+
+        public int literalCount() {
+            return Integer.bitCount(care);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Cube && ((Cube) other).care == care && ((Cube) other).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return care * 31 + value;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            for (int column = 0; column < 32; column++) {
+                if (!hasLiteral(column)) {continue;}
+                if (text.length() > 0) {text.append(' ');}
+                text.append(isPositive(column) ? "" : "-").append(column);
+            }
+            return "[" + text + "]";
+        }
+    }
+
+    // Exact for small tables, heuristic above EXACT_LIMIT inputs
+    public static List<Cube> minimize(TruthTable table, boolean polarity) {
+        return table.width <= EXACT_LIMIT ? quineMcCluskey(table, polarity) : espresso(table, polarity);
+    }
+
+    public static List<Cube> quineMcCluskey(TruthTable table, boolean polarity) {
+        long[] on = rowsWith(table, polarity);
+        int width = table.width;
+        int full = (1 << width) - 1;
+
+        // Prime implicants: merge cubes of one level that differ in a single cared-for variable
+        List<Long> primes = new ArrayList<>();
+        Set<Long> level = new HashSet<>();
+        for (int row = nextRow(on, 0); row != -1; row = nextRow(on, row + 1)) {
+            level.add(key(full, row));
+        }
+        while (!level.isEmpty()) {
+            Set<Long> next = new HashSet<>();
+            Set<Long> merged = new HashSet<>();
+            for (long cube : level) {
+                int care = (int) (cube >>> 32);
+                int value = (int) cube;
+                for (int bits = care; bits != 0; bits &= bits - 1) {
+                    int bit = bits & -bits;
+                    long partner = key(care, value ^ bit);
+                    if (level.contains(partner)) {
+                        merged.add(cube);
+                        next.add(key(care & ~bit, value & ~bit));
+                    }
+                }
+            }
+            for (long cube : level) {
+                if (!merged.contains(cube)) {primes.add(cube);}
+            }
+            level = next;
+        }
+        primes.sort(null);
+        return toColumns(cover(on, primes), width);
+    }
+
+    public static List<Cube> espresso(TruthTable table, boolean polarity) {
+        long[] on = rowsWith(table, polarity);
+        int width = table.width;
+        int full = (1 << width) - 1;
+        int[] coverCount = new int[1 << width];
+
+        // First cover: every row not yet covered grows into a prime
+        List<int[]> cover = new ArrayList<>();
+        for (int row = nextRow(on, 0); row != -1; row = nextRow(on, row + 1)) {
+            if (coverCount[row] > 0) {continue;}
+            int[] cube = expand(on, coverCount, full, row);
+            cover.add(cube);
+            count(coverCount, cube, 1);
+        }
+        irredundant(cover, coverCount);
+
+        List<int[]> best = copy(cover);
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            reduce(cover, coverCount);
+            for (int i = 0; i < cover.size(); i++) {
+                int[] cube = cover.get(i);
+                count(coverCount, cube, -1);
+                int[] grown = expand(on, coverCount, cube[0], cube[1]);
+                count(coverCount, grown, 1);
+                cover.set(i, grown);
+            }
+            irredundant(cover, coverCount);
+            if (cost(cover) >= cost(best)) {break;}
+            best = copy(cover);
+        }
+        List<Long> keys = new ArrayList<>();
+        for (int[] cube : best) {
+            keys.add(key(cube[0], cube[1]));
+        }
+        return toColumns(keys, width);
+    }
+
+    /**
+     * Drops literals from the cube while it stays inside the on-set. Each
+     * step drops the literal whose other half covers the most rows no other
+     * cube covers yet.
+     */
+    private static int[] expand(long[] on, int[] coverCount, int care, int value) {
+        while (true) {
+            int bestBit = 0;
+            long bestGain = -1;
+            for (int bits = care; bits != 0; bits &= bits - 1) {
+                int bit = bits & -bits;
+                long gain = halfGain(on, coverCount, care, value ^ bit);
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestBit = bit;
+                }
+            }
+            if (bestGain < 0) {return new int[] {care, value & care};}
+            care &= ~bestBit;
+            value &= care;
+        }
+    }
+
+    /**
+     * The half a cube would gain by dropping a literal is the cube with that
+     * literal flipped. Returns how many of its rows no cube covers yet, or -1
+     * if it leaves the on-set.
+     */
+    private static long halfGain(long[] on, int[] coverCount, int care, int value) {
+        int free = ~care & (coverCount.length - 1);
+        int base = value & care;
+        long gain = 0;
+        int subset = 0;
+        do {
+            int row = base | subset;
+            if ((on[row >>> 6] & (1L << row)) == 0) {return -1;}
+            if (coverCount[row] == 0) {gain++;}
+            subset = (subset - free) & free;
+        } while (subset != 0);
+        return gain;
+    }
+
+    // Removes cubes every row of which another cube also covers, smallest first
+    private static void irredundant(List<int[]> cover, int[] coverCount) {
+        cover.sort((a, b) -> Integer.compare(Integer.bitCount(b[0]), Integer.bitCount(a[0])));
+        for (int i = 0; i < cover.size(); i++) {
+            int[] cube = cover.get(i);
+            if (minCount(coverCount, cube) >= 2) {
+                count(coverCount, cube, -1);
+                cover.remove(i--);
+            }
+        }
+    }
+
+    // Shrinks each cube to the smallest one holding the rows only it covers
+    private static void reduce(List<int[]> cover, int[] coverCount) {
+        for (int i = 0; i < cover.size(); i++) {
+            int[] cube = cover.get(i);
+            int free = ~cube[0] & (coverCount.length - 1);
+            int and = -1;
+            int or = 0;
+            boolean any = false;
+            int subset = 0;
+            do {
+                int row = cube[1] | subset;
+                if (coverCount[row] == 1) {
+                    and &= row;
+                    or |= row;
+                    any = true;
+                }
+                subset = (subset - free) & free;
+            } while (subset != 0);
+            count(coverCount, cube, -1);
+            if (!any) {
+                cover.remove(i--);
+                continue;
+            }
+            // Bits on which all the unique rows agree become literals again
+            int care = ~(and ^ or) & (coverCount.length - 1);
+            int[] reduced = {care, and & care};
+            count(coverCount, reduced, 1);
+            cover.set(i, reduced);
+        }
+    }
+
+    private static void count(int[] coverCount, int[] cube, int delta) {
+        int free = ~cube[0] & (coverCount.length - 1);
+        int subset = 0;
+        do {
+            coverCount[cube[1] | subset] += delta;
+            subset = (subset - free) & free;
+        } while (subset != 0);
+    }
+
+    private static int minCount(int[] coverCount, int[] cube) {
+        int free = ~cube[0] & (coverCount.length - 1);
+        int min = Integer.MAX_VALUE;
+        int subset = 0;
+        do {
+            min = Math.min(min, coverCount[cube[1] | subset]);
+            subset = (subset - free) & free;
+        } while (subset != 0 && min >= 2);
+        return min;
+    }
+
+    /**
+     * Picks a minimum set of primes covering every on-row: essential primes
+     * first, then branch and bound on the row with the fewest candidates.
+     * A greedy cover is the starting bound and the fallback at the node limit.
+     */
+    private static List<Long> cover(long[] on, List<Long> primes) {
+        int[] rows = new int[bitCount(on, 0)];
+        int size = 0;
+        for (int row = nextRow(on, 0); row != -1; row = nextRow(on, row + 1)) {
+            rows[size++] = row;
+        }
+        int words = Math.max(1, (size + 63) >>> 6);
+        // covers[p]: which on-rows (by position in rows) prime p contains
+        long[][] covers = new long[primes.size()][words];
+        int[][] candidates = new int[size][];
+        int[] candidateCount = new int[size];
+        int widest = 1;
+        for (int p = 0; p < primes.size(); p++) {
+            int care = (int) (primes.get(p) >>> 32);
+            int value = (int) (long) primes.get(p);
+            for (int r = 0; r < size; r++) {
+                if ((rows[r] & care) == value) {
+                    covers[p][r >>> 6] |= 1L << r;
+                    candidateCount[r]++;
+                }
+            }
+            widest = Math.max(widest, bitCount(covers[p], 0));
+        }
+        for (int r = 0; r < size; r++) {
+            candidates[r] = new int[candidateCount[r]];
+            candidateCount[r] = 0;
+        }
+        for (int p = 0; p < primes.size(); p++) {
+            for (int r = 0; r < size; r++) {
+                if ((covers[p][r >>> 6] & (1L << r)) != 0) {candidates[r][candidateCount[r]++] = p;}
+            }
+        }
+
+        long[] uncovered = new long[words];
+        for (int r = 0; r < size; r++) {
+            uncovered[r >>> 6] |= 1L << r;
+        }
+        List<Integer> chosen = new ArrayList<>();
+        for (int r = 0; r < size; r++) {
+            if (candidates[r].length == 1 && (uncovered[r >>> 6] & (1L << r)) != 0) {
+                int p = candidates[r][0];
+                chosen.add(p);
+                andNot(uncovered, covers[p]);
+            }
+        }
+
+        CoverSearch search = new CoverSearch(covers, candidates, primes, widest);
+        search.best = greedy(uncovered.clone(), covers, new ArrayList<>(chosen));
+        search.branch(uncovered, new boolean[primes.size()], chosen);
+        List<Long> result = new ArrayList<>();
+        for (int p : search.best) {
+            result.add(primes.get(p));
+        }
+        result.sort(null);
+        return result;
+    }
+
+    /**
+     * Branch and bound over the cover table. Each node first simplifies:
+     * a row with one candidate left forces it, and a prime whose uncovered
+     * rows another prime also covers is excluded. It then branches on the
+     * candidates of the row with the fewest, excluding each one from the
+     * branches after it, as those already had their chance.
+     */
+    private static final class CoverSearch {
+        final long[][] covers;
+        final int[][] candidates;
+        final List<Long> primes;
+        // The most on-rows any prime covers
+        final int widest;
+        List<Integer> best;
+        int nodes;
+        private int[] used = new int[0];
+        private int stamp;
+
+        CoverSearch(long[][] covers, int[][] candidates, List<Long> primes, int widest) {
+            this.covers = covers;
+            this.candidates = candidates;
+            this.primes = primes;
+            this.widest = widest;
+        }
+
+        void branch(long[] uncovered, boolean[] excluded, List<Integer> chosen) {
+            if (++nodes > COVER_NODE_LIMIT) {return;}
+            int depth = chosen.size();
+            try {
+                if (!simplify(uncovered, excluded, chosen)) {return;}
+                int left = bitCount(uncovered, 0);
+                if (left == 0) {
+                    if (chosen.size() < best.size() || (chosen.size() == best.size() && literals(chosen) < literals(best))) {
+                        best = new ArrayList<>(chosen);
+                    }
+                    return;
+                }
+                if (chosen.size() + lowerBound(uncovered, excluded, left) > best.size()) {return;}
+
+                int row = -1;
+                int fewest = Integer.MAX_VALUE;
+                for (int w = 0; w < uncovered.length; w++) {
+                    for (long bits = uncovered[w]; bits != 0; bits &= bits - 1) {
+                        int r = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        int count = 0;
+                        for (int p : candidates[r]) {
+                            if (!excluded[p]) {count++;}
+                        }
+                        if (count < fewest) {
+                            fewest = count;
+                            row = r;
+                        }
+                    }
+                }
+                boolean[] skip = excluded.clone();
+                for (int p : candidates[row]) {
+                    if (excluded[p]) {continue;}
+                    long[] rest = uncovered.clone();
+                    andNot(rest, covers[p]);
+                    chosen.add(p);
+                    branch(rest, skip.clone(), chosen);
+                    chosen.remove(chosen.size() - 1);
+                    skip[p] = true;
+                }
+            } finally {
+                while (chosen.size() > depth) {chosen.remove(chosen.size() - 1);}
+            }
+        }
+
+        // Applies forced primes and dominance until nothing changes; false if some row cannot be covered
+        private boolean simplify(long[] uncovered, boolean[] excluded, List<Integer> chosen) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int w = 0; w < uncovered.length; w++) {
+                    for (long bits = uncovered[w]; bits != 0; bits &= bits - 1) {
+                        int r = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        // May have been covered by a prime forced earlier in this word
+                        if ((uncovered[w] & (1L << r)) == 0) {continue;}
+                        int only = -1;
+                        int count = 0;
+                        for (int p : candidates[r]) {
+                            if (!excluded[p]) {
+                                only = p;
+                                count++;
+                            }
+                        }
+                        if (count == 0) {return false;}
+                        if (count == 1) {
+                            chosen.add(only);
+                            andNot(uncovered, covers[only]);
+                            changed = true;
+                        }
+                    }
+                }
+                for (int p = 0; p < covers.length; p++) {
+                    if (excluded[p]) {continue;}
+                    int first = firstCommon(covers[p], uncovered);
+                    if (first == -1) {
+                        excluded[p] = true;
+                        continue;
+                    }
+                    // A prime dominating p must cover p's first uncovered row
+                    for (int q : candidates[first]) {
+                        if (q == p || excluded[q] || !within(covers[p], covers[q], uncovered)) {continue;}
+                        // Of two primes covering the same rows keep the lower-numbered one
+                        if (within(covers[q], covers[p], uncovered) && q > p) {continue;}
+                        excluded[p] = true;
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Rows no two of which share a candidate prime each need a prime of
+         * their own; a greedy set of such rows, or the row count over the
+         * widest prime if that is larger, bounds the primes still needed.
+         */
+        int lowerBound(long[] uncovered, boolean[] excluded, int left) {
+            if (used.length < covers.length) {used = new int[covers.length];}
+            stamp++;
+            int independent = 0;
+            for (int w = 0; w < uncovered.length; w++) {
+                for (long bits = uncovered[w]; bits != 0; bits &= bits - 1) {
+                    int r = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    boolean free = true;
+                    for (int p : candidates[r]) {
+                        if (!excluded[p] && used[p] == stamp) {
+                            free = false;
+                            break;
+                        }
+                    }
+                    if (!free) {continue;}
+                    for (int p : candidates[r]) {
+                        used[p] = stamp;
+                    }
+                    independent++;
+                }
+            }
+            return Math.max(independent, (left + widest - 1) / widest);
+        }
+
+        int literals(List<Integer> cover) {
+            int total = 0;
+            for (int p : cover) {
+                total += Integer.bitCount((int) (primes.get(p) >>> 32));
+            }
+            return total;
+        }
+    }
+
+    // The lowest row in both a and b, or -1
+    private static int firstCommon(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            long common = a[w] & b[w];
+            if (common != 0) {return (w << 6) + Long.numberOfTrailingZeros(common);}
+        }
+        return -1;
+    }
+
+    // a's uncovered rows are all in b
+    private static boolean within(long[] a, long[] b, long[] uncovered) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & uncovered[w] & ~b[w]) != 0) {return false;}
+        }
+        return true;
+    }
+
+    // Repeatedly takes the prime covering the most uncovered rows
+    private static List<Integer> greedy(long[] uncovered, long[][] covers, List<Integer> chosen) {
+        while (bitCount(uncovered, 0) > 0) {
+            int best = -1;
+            int bestCount = 0;
+            for (int p = 0; p < covers.length; p++) {
+                int count = overlap(covers[p], uncovered);
+                if (count > bestCount) {
+                    bestCount = count;
+                    best = p;
+                }
+            }
+            chosen.add(best);
+            andNot(uncovered, covers[best]);
+        }
+        return chosen;
+    }
+
+    // The assignments the table lists with the given output
+    private static long[] rowsWith(TruthTable table, boolean polarity) {
+        if (table.width > 30) {throw new IllegalArgumentException("at most 30 inputs are supported");}
+        int words = TruthTable.wordCount(1 << table.width);
+        if (table.isComplete()) {
+            long[] rows = Arrays.copyOf(table.output, words);
+            if (!polarity) {
+                for (int w = 0; w < rows.length; w++) {
+                    rows[w] = ~rows[w];
+                }
+            }
+            if (table.rows % 64 != 0) {rows[rows.length - 1] &= (1L << table.rows) - 1;}
+            return rows;
+        }
+        long[] rows = new long[words];
+        long[] others = new long[words];
+        for (int row = 0; row < table.rows; row++) {
+            int assignment = table.assignment(row);
+            long bit = 1L << assignment;
+            long[] target = table.output(row) == polarity ? rows : others;
+            long[] opposite = target == rows ? others : rows;
+            if ((opposite[assignment >>> 6] & bit) != 0) {
+                throw new IllegalArgumentException("Row " + row + " repeats an earlier input with the other output");
+            }
+            target[assignment >>> 6] |= bit;
+        }
+        return rows;
+    }
+
+    private static int nextRow(long[] rows, int from) {
+        int w = from >>> 6;
+        if (w >= rows.length) {return -1;}
+        long word = rows[w] & (-1L << from);
+        while (word == 0) {
+            if (++w >= rows.length) {return -1;}
+            word = rows[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private static int bitCount(long[] bits, int from) {
+        int count = 0;
+        for (int w = from; w < bits.length; w++) {
+            count += Long.bitCount(bits[w]);
+        }
+        return count;
+    }
+
+    private static int overlap(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < a.length; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    private static void andNot(long[] target, long[] remove) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= ~remove[w];
+        }
+    }
+
+    private static long key(int care, int value) {
+        return ((long) care << 32) | (value & 0xffffffffL);
+    }
+
+    private static int cost(List<int[]> cover) {
+        int literals = 0;
+        for (int[] cube : cover) {
+            literals += Integer.bitCount(cube[0]);
+        }
+        // Fewer cubes first, then fewer literals
+        return cover.size() * 64 + literals;
+    }
+
+    private static List<int[]> copy(List<int[]> cover) {
+        List<int[]> result = new ArrayList<>();
+        for (int[] cube : cover) {
+            result.add(cube.clone());
+        }
+        return result;
+    }
+
+    // Row-index bit b is column width - 1 - b
+    private static List<Cube> toColumns(List<Long> cubes, int width) {
+        List<Cube> result = new ArrayList<>();
+        for (long cube : cubes) {
+            int care = (int) (cube >>> 32);
+            int value = (int) cube;
+            result.add(new Cube(reverse(care, width), reverse(value, width)));
+        }
+        return result;
+    }
+
+    private static int reverse(int bits, int width) {
+        return width == 0 ? 0 : Integer.reverse(bits) >>> (32 - width);
+    }
+}
@@ -0,0 +1,59 @@
+package SAT;
+
+/**
+ * Restarts after unit * luby(i) conflicts, where luby is the sequence
+ * 1,1,2,1,1,2,4,1,1,2,1,1,2,4,8,...
+ */
+public class LubyRestart implements RestartPolicy {
+    private final int unit;
+    private int index = 1;
+    private long limit;
+    private long conflicts;
+
+    public LubyRestart() {
+        this(100);
+    }
+
+    public LubyRestart(int unit) {
+        if (unit <= 0) {
+            throw new IllegalArgumentException("unit must be positive");
+        }
+        this.unit = unit;
+        this.limit = unit * luby(index);
+    }
+
+    @Override
+    public void onConflict(int lbd) {
+        conflicts++;
+    }
+
+    @Override
+    public String restartReason() {
+        if (conflicts < limit) {return null;}
+        return "luby(" + index + ") = " + (limit / unit) + " x " + unit + " conflicts reached";
+    }
+
+    @Override
+    public void onRestart() {
+        conflicts = 0;
+        index++;
+        limit = unit * luby(index);
+    }
+
+    // i-th element (1-based) of the Luby sequence
+    static long luby(int i) {
+        int x = i - 1;
+        int size = 1;
+        int seq = 0;
+        while (size < x + 1) {
+            seq++;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != x) {
+            size = (size - 1) >> 1;
+            seq--;
+            x = x % size;
+        }
+        return 1L << seq;
+    }
+}
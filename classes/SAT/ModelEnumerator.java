@@ -0,0 +1,139 @@
+package SAT;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy AllSAT: enumerates the models of the solver's formula, projected onto
+ * the given variables, one solve call per model. Nothing is computed ahead of
+ * the consumer: the next model is searched for only when {@link #hasNext()}
+ * is asked, so a stream of millions of models holds one of them at a time.
+ *
+ * Each model is excluded from the rest of the search by a blocking clause.
+ * When every decision that led to the model is on a projected variable, the
+ * clause is the negation of those decisions (decision-based blocking), which
+ * is usually much shorter than the negated model. Otherwise it is the
+ * negation of the model's projected values, so two models that differ only
+ * outside the projection are reported once.
+ *
+ * The blocking clauses stay in the solver; it is used up by the enumeration.
+ */
+public class ModelEnumerator implements Iterator<boolean[]> {
+    private final CDCLSolver solver;
+    private final int[] projection;
+    private final boolean[] projected;
+    private int[] blocking = new int[16];
+
+    private boolean[] pending;
+    private boolean done;
+    private SolveStatus last = SolveStatus.SAT;
+    private long count;
+
+    // Enumerates full models over all of the solver's variables
+    public ModelEnumerator(CDCLSolver solver) {
+        this(solver, allVariables(solver.numVars()));
+    }
+
+    // Models are reported as boolean[] with one entry per projection variable, in that order
+    public ModelEnumerator(CDCLSolver solver, int[] projection) {
+        this.solver = solver;
+        this.projection = projection.clone();
+        int max = solver.numVars();
+        for (int var : projection) {
+            if (var < 0) {throw new IllegalArgumentException("negative variable " + var);}
+            max = Math.max(max, var + 1);
+        }
+        // Projected variables missing from every clause still have two values to enumerate
+        solver.ensureVars(max);
+        this.projected = new boolean[max];
+        for (int var : projection) {
+            projected[var] = true;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending != null) {return true;}
+        if (done) {return false;}
+
+        last = solver.solve();
+        if (last != SolveStatus.SAT) {
+            done = true;
+            return false;
+        }
+        pending = new boolean[projection.length];
+        for (int i = 0; i < projection.length; i++) {
+            pending[i] = solver.modelValue(projection[i]);
+        }
+        block();
+        return true;
+    }
+
+    @Override
+    public boolean[] next() {
+        if (!hasNext()) {throw new NoSuchElementException();}
+        boolean[] model = pending;
+        pending = null;
+        count++;
+        return model;
+    }
+
+    public Stream<boolean[]> stream() {
+        Spliterator<boolean[]> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    // Models handed out by next() so far
+    public long count() {
+        return count;
+    }
+
+    // True once every model has been reported; false while running or when the solver was stopped
+    public boolean isComplete() {
+        return done && last == SolveStatus.UNSAT;
+    }
+
+    private void block() {
+        int[] decisions = solver.modelDecisions();
+        boolean decisionBased = decisions.length <= projection.length;
+        for (int i = 0; decisionBased && i < decisions.length; i++) {
+            decisionBased = projected[Lit.var(decisions[i])];
+        }
+
+        int size = 0;
+        if (decisionBased) {
+            ensureBlocking(decisions.length);
+            for (int lit : decisions) {
+                blocking[size++] = Lit.negate(lit);
+            }
+        } else {
+            ensureBlocking(projection.length);
+            for (int i = 0; i < projection.length; i++) {
+                blocking[size++] = Lit.of(projection[i], pending[i]);
+            }
+        }
+        // An empty blocking clause means that was the only model
+        if (!solver.addClause(blocking, 0, size)) {
+            done = true;
+            last = SolveStatus.UNSAT;
+        }
+    }
+
+    private void ensureBlocking(int length) {
+        if (length > blocking.length) {
+            blocking = new int[Math.max(length, blocking.length * 2)];
+        }
+    }
+
+    private static int[] allVariables(int numVars) {
+        int[] vars = new int[numVars];
+        for (int i = 0; i < numVars; i++) {
+            vars[i] = i;
+        }
+        return vars;
+    }
+}
@@ -0,0 +1,34 @@
+package SAT;
+
+/**
+ * Lowest unassigned variable first, always trying true. This is the order the
+ * original recursive solveSAT used and is kept for comparison.
+ */
+public class OrderedHeuristic implements DecisionHeuristic {
+    private int next;
+
+    @Override
+    public void ensureVars(int count) {}
+
+    @Override
+    public void bump(int var) {}
+
+    @Override
+    public void onConflict() {}
+
+    @Override
+    public void onUnassign(int var, boolean value) {
+        next = Math.min(next, var);
+    }
+
+    @Override
+    public int pickBranchLiteral(Propagator propagator) {
+        while (next < propagator.numVars) {
+            if (propagator.assigns[next] == Propagator.UNASSIGNED) {
+                return Lit.of(next, false);
+            }
+            next++;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package SAT;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One phase of SMTSolver.solveSMT, opened and closed through SolverStatistics
+@Name("satsmt.SmtPhase")
+@Label("SMT Phase")
+@Category("SAT-SMT")
+@Description("Time spent in one phase of an SMT solve")
+public class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    public String phase;
+
+    // Not recorded; feed the statistics' phase timers
+    transient SolverStatistics.Phase kind;
+    transient long startNanos;
+}
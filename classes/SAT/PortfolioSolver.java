@@ -0,0 +1,99 @@
+package SAT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs several differently configured CDCL searches on the same formula in
+ * parallel. Each worker loads its own solver from one shared, read-only
+ * {@link ClauseArena}, shares short learned clauses with the others through a
+ * {@link ClauseExchange}, and the first worker to reach SAT or UNSAT stops
+ * the rest.
+ */
+public class PortfolioSolver {
+    private final ClauseArena formula;
+    private final int numVars;
+    private final List<SolverConfig> configs;
+    private final ClauseExchange exchange = new ClauseExchange();
+
+    private final AtomicInteger winner = new AtomicInteger(-1);
+    private volatile SolveStatus status = SolveStatus.UNKNOWN;
+    private volatile boolean[] model = new boolean[0];
+
+    public PortfolioSolver(ClauseArena formula, int numVars, List<SolverConfig> configs) {
+        if (configs.isEmpty()) {
+            throw new IllegalArgumentException("At least one configuration is required");
+        }
+        this.formula = formula;
+        this.numVars = numVars;
+        this.configs = configs;
+    }
+
+    public PortfolioSolver(ClauseArena formula, int numVars, int threads) {
+        this(formula, numVars, SolverConfig.diverse(threads));
+    }
+
+    public SolveStatus solve() throws InterruptedException {
+        winner.set(-1);
+        status = SolveStatus.UNKNOWN;
+        model = new boolean[0];
+        List<CDCLSolver> solvers = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            CDCLSolver solver = configs.get(i).newSolver();
+            solver.ensureVars(numVars);
+            solver.setClauseExchange(exchange, i);
+            solvers.add(solver);
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < solvers.size(); i++) {
+            int id = i;
+            Thread thread = new Thread(() -> runWorker(id, solvers), "portfolio-" + configs.get(i).name);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            for (CDCLSolver solver : solvers) {
+                solver.stop();
+            }
+            throw e;
+        }
+        return status;
+    }
+
+    private void runWorker(int id, List<CDCLSolver> solvers) {
+        CDCLSolver solver = solvers.get(id);
+        solver.addClauses(formula);
+        SolveStatus result = solver.solve();
+        if (result == SolveStatus.UNKNOWN || !winner.compareAndSet(-1, id)) {return;}
+
+        if (result == SolveStatus.SAT) {
+            boolean[] values = new boolean[numVars];
+            for (int var = 0; var < numVars; var++) {
+                values[var] = solver.modelValue(var);
+            }
+            model = values;
+        }
+        status = result;
+        for (CDCLSolver other : solvers) {
+            if (other != solver) {other.stop();}
+        }
+    }
+
+    public boolean modelValue(int var) {
+        return var < model.length && model[var];
+    }
+
+    // Name of the configuration that answered, or null if none did
+    public String winner() {
+        int id = winner.get();
+        return id < 0 ? null : configs.get(id).name;
+    }
+}
@@ -0,0 +1,412 @@
+package SAT;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * CNF simplification run before search, in the style of SatELite:
+ *
+ *  - top-level unit propagation,
+ *  - backward subsumption (a clause C removes every clause D with C subset of D),
+ *  - self-subsuming resolution (if C and D clash on one literal and C minus that
+ *    literal is a subset of D, the clashing literal is dropped from D),
+ *  - bounded variable elimination (a variable is resolved away when the
+ *    non-tautological resolvents of its clauses are no more numerous than the
+ *    clauses they replace).
+ *
+ * Every clause removed by elimination is pushed on a stack together with the
+ * eliminated variable, so {@link #extendModel} can assign eliminated variables
+ * after the reduced formula has been solved. Frozen variables are never
+ * eliminated; use that for variables a caller will add clauses or
+ * assumptions over later.
+ *
+ * Clauses are kept as int[] rows with per-literal occurrence lists; removed
+ * clauses become null rows.
+ */
+public class Preprocessor {
+    private static final int MAX_OCCURRENCES = 16;
+    private static final int MAX_RESOLVENT_LENGTH = 20;
+
+    private final ArrayList<int[]> clauses = new ArrayList<>();
+    private final int numVars;
+    private final boolean[] frozen;
+    private final boolean[] eliminated;
+    private final byte[] value;
+
+    private final int[][] occurrences;
+    private final int[] occurrenceSize;
+    private final int[] mark;
+    private int stamp;
+
+    private final ArrayDeque<Integer> subsumptionQueue = new ArrayDeque<>();
+    private final ArrayDeque<Integer> unitQueue = new ArrayDeque<>();
+    private final ArrayList<int[]> eliminationStack = new ArrayList<>();
+
+    private boolean ok = true;
+    private int removedClauses;
+    private int strengthenedClauses;
+    private int eliminatedVariables;
+
+    public Preprocessor(int numVars) {
+        this.numVars = numVars;
+        this.frozen = new boolean[numVars];
+        this.eliminated = new boolean[numVars];
+        this.value = new byte[numVars];
+        this.occurrences = new int[numVars * 2][];
+        this.occurrenceSize = new int[numVars * 2];
+        this.mark = new int[numVars * 2];
+        for (int lit = 0; lit < numVars * 2; lit++) {
+            occurrences[lit] = new int[4];
+        }
+    }
+
+    public static Preprocessor fromArena(ClauseArena arena, int numVars) {
+        Preprocessor preprocessor = new Preprocessor(numVars);
+        for (int ref = arena.first(); ref < arena.end(); ref = arena.next(ref)) {
+            if (!arena.isDeleted(ref)) {
+                preprocessor.addClause(arena.literals(ref));
+            }
+        }
+        return preprocessor;
+    }
+
+    public void freeze(int var) {
+        frozen[var] = true;
+    }
+
+    public void addClause(int[] lits) {
+        if (!ok) {return;}
+        int[] sorted = lits.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i] == sorted[i - 1]) {continue;}
+            if (i > 0 && sorted[i] == Lit.negate(sorted[i - 1])) {return;}
+            sorted[size++] = sorted[i];
+        }
+        store(Arrays.copyOf(sorted, size));
+    }
+
+    /**
+     * Runs the whole pipeline. Returns false when the formula was found to be
+     * unsatisfiable on the way.
+     */
+    public boolean run() {
+        if (!ok) {return false;}
+        propagateUnits();
+        for (int ci = 0; ci < clauses.size(); ci++) {
+            if (clauses.get(ci) != null) {subsumptionQueue.add(ci);}
+        }
+        subsume();
+
+        boolean progress = true;
+        while (ok && progress) {
+            progress = false;
+            for (int var : eliminationOrder()) {
+                if (!ok) {break;}
+                if (tryEliminate(var)) {
+                    progress = true;
+                    subsume();
+                }
+            }
+        }
+        return ok;
+    }
+
+    // The simplified formula, with one unit clause per variable fixed at the top level
+    public ClauseArena result() {
+        ClauseArena arena = new ClauseArena();
+        if (!ok) {
+            arena.add(new int[0], 0, 0, false);
+            return arena;
+        }
+        for (int var = 0; var < numVars; var++) {
+            if (value[var] != 0) {
+                arena.add(new int[] {Lit.of(var, value[var] < 0)}, 0, 1, false);
+            }
+        }
+        for (int[] clause : clauses) {
+            if (clause != null) {arena.add(clause, 0, clause.length, false);}
+        }
+        return arena;
+    }
+
+    /**
+     * Assigns the eliminated variables in a model of the simplified formula so
+     * that it satisfies the original one. Clauses are replayed newest first and
+     * the eliminated variable is flipped whenever its clause is not yet satisfied.
+     */
+    public void extendModel(boolean[] model) {
+        for (int i = eliminationStack.size() - 1; i >= 0; i--) {
+            int[] clause = eliminationStack.get(i);
+            boolean satisfied = false;
+            for (int lit : clause) {
+                if (model[Lit.var(lit)] != Lit.isNeg(lit)) {
+                    satisfied = true;
+                    break;
+                }
+            }
+            if (!satisfied) {
+                model[Lit.var(clause[0])] = !Lit.isNeg(clause[0]);
+            }
+        }
+    }
+
+    public int removedClauses() {
+        return removedClauses;
+    }
+
+    public int strengthenedClauses() {
+        return strengthenedClauses;
+    }
+
+    public int eliminatedVariables() {
+        return eliminatedVariables;
+    }
+
+    public boolean isEliminated(int var) {
+        return eliminated[var];
+    }
+
+    private void store(int[] clause) {
+        if (clause.length == 0) {
+            ok = false;
+            return;
+        }
+        int ci = clauses.size();
+        clauses.add(clause);
+        for (int lit : clause) {
+            addOccurrence(lit, ci);
+        }
+        if (clause.length == 1) {unitQueue.add(clause[0]);}
+        subsumptionQueue.add(ci);
+    }
+
+    private void removeClause(int ci) {
+        int[] clause = clauses.get(ci);
+        if (clause == null) {return;}
+        for (int lit : clause) {
+            removeOccurrence(lit, ci);
+        }
+        clauses.set(ci, null);
+        removedClauses++;
+    }
+
+    private void strengthen(int ci, int lit) {
+        int[] clause = clauses.get(ci);
+        int[] shorter = new int[clause.length - 1];
+        int size = 0;
+        for (int other : clause) {
+            if (other != lit) {shorter[size++] = other;}
+        }
+        removeOccurrence(lit, ci);
+        clauses.set(ci, shorter);
+        strengthenedClauses++;
+
+        if (shorter.length == 0) {
+            ok = false;
+        } else if (shorter.length == 1) {
+            unitQueue.add(shorter[0]);
+        }
+        subsumptionQueue.add(ci);
+    }
+
+    private void propagateUnits() {
+        while (ok && !unitQueue.isEmpty()) {
+            int lit = unitQueue.poll();
+            int var = Lit.var(lit);
+            byte wanted = Lit.isNeg(lit) ? (byte) -1 : (byte) 1;
+            if (value[var] == wanted) {continue;}
+            if (value[var] != 0) {
+                ok = false;
+                return;
+            }
+            value[var] = wanted;
+
+            for (int ci : Arrays.copyOf(occurrences[lit], occurrenceSize[lit])) {
+                removeClause(ci);
+            }
+            int falseLit = Lit.negate(lit);
+            for (int ci : Arrays.copyOf(occurrences[falseLit], occurrenceSize[falseLit])) {
+                if (clauses.get(ci) != null) {strengthen(ci, falseLit);}
+                if (!ok) {return;}
+            }
+        }
+    }
+
+    private void subsume() {
+        while (ok && !subsumptionQueue.isEmpty()) {
+            int ci = subsumptionQueue.poll();
+            if (clauses.get(ci) != null) {backwardSubsume(ci);}
+            propagateUnits();
+        }
+    }
+
+    /**
+     * Every clause that C subsumes or strengthens contains the variable of C
+     * with the fewest occurrences, in one polarity or the other, so only
+     * those candidates are checked.
+     */
+    private void backwardSubsume(int ci) {
+        int[] clause = clauses.get(ci);
+        int pivot = clause[0];
+        for (int lit : clause) {
+            if (occurrenceSize[lit] + occurrenceSize[Lit.negate(lit)]
+                    < occurrenceSize[pivot] + occurrenceSize[Lit.negate(pivot)]) {
+                pivot = lit;
+            }
+        }
+
+        for (int candidateLit : new int[] {pivot, Lit.negate(pivot)}) {
+            for (int di : Arrays.copyOf(occurrences[candidateLit], occurrenceSize[candidateLit])) {
+                if (di == ci || clauses.get(ci) == null) {continue;}
+                int[] other = clauses.get(di);
+                if (other == null || other.length < clause.length) {continue;}
+
+                int flipped = subsetWithOneFlip(clause, other);
+                if (flipped == -1) {continue;}
+                if (flipped == -2) {
+                    removeClause(di);
+                } else {
+                    strengthen(di, Lit.negate(flipped));
+                    if (!ok) {return;}
+                }
+            }
+        }
+    }
+
+    // -2 if clause subsumes other, the clashing literal of clause if exactly one
+    // literal appears negated in other, -1 otherwise
+    private int subsetWithOneFlip(int[] clause, int[] other) {
+        stamp++;
+        for (int lit : other) {
+            mark[lit] = stamp;
+        }
+        int flipped = -2;
+        for (int lit : clause) {
+            if (mark[lit] == stamp) {continue;}
+            if (mark[Lit.negate(lit)] == stamp && flipped == -2) {
+                flipped = lit;
+                continue;
+            }
+            return -1;
+        }
+        return flipped;
+    }
+
+    private int[] eliminationOrder() {
+        ArrayList<Integer> candidates = new ArrayList<>();
+        for (int var = 0; var < numVars; var++) {
+            if (!frozen[var] && !eliminated[var] && value[var] == 0) {candidates.add(var);}
+        }
+        candidates.sort((a, b) -> Long.compare(cost(a), cost(b)));
+        int[] order = new int[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = candidates.get(i);
+        }
+        return order;
+    }
+
+    private long cost(int var) {
+        return (long) occurrenceSize[Lit.of(var, false)] * occurrenceSize[Lit.of(var, true)];
+    }
+
+    private boolean tryEliminate(int var) {
+        if (eliminated[var] || value[var] != 0) {return false;}
+        int positive = Lit.of(var, false);
+        int negative = Lit.of(var, true);
+        int posCount = occurrenceSize[positive];
+        int negCount = occurrenceSize[negative];
+        if (posCount + negCount == 0) {return false;}
+        if (posCount > MAX_OCCURRENCES || negCount > MAX_OCCURRENCES) {return false;}
+
+        int[] posClauses = Arrays.copyOf(occurrences[positive], posCount);
+        int[] negClauses = Arrays.copyOf(occurrences[negative], negCount);
+        ArrayList<int[]> resolvents = new ArrayList<>();
+        for (int pi : posClauses) {
+            for (int ni : negClauses) {
+                int[] resolvent = resolve(clauses.get(pi), clauses.get(ni), var);
+                if (resolvent == null) {continue;}
+                if (resolvent.length > MAX_RESOLVENT_LENGTH || resolvents.size() == posCount + negCount) {
+                    return false;
+                }
+                resolvents.add(resolvent);
+            }
+        }
+
+        for (int ci : posClauses) {
+            eliminationStack.add(withPivotFirst(clauses.get(ci), positive));
+            removeClause(ci);
+        }
+        for (int ci : negClauses) {
+            eliminationStack.add(withPivotFirst(clauses.get(ci), negative));
+            removeClause(ci);
+        }
+        eliminated[var] = true;
+        eliminatedVariables++;
+
+        for (int[] resolvent : resolvents) {
+            store(resolvent);
+            if (!ok) {break;}
+        }
+        propagateUnits();
+        return true;
+    }
+
+    // Resolvent of two sorted clauses on var, or null when it is a tautology
+    private int[] resolve(int[] left, int[] right, int var) {
+        int[] merged = new int[left.length + right.length - 2];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length || j < right.length) {
+            int lit;
+            if (j >= right.length || (i < left.length && left[i] < right[j])) {
+                lit = left[i++];
+            } else if (i >= left.length || right[j] < left[i]) {
+                lit = right[j++];
+            } else {
+                lit = left[i++];
+                j++;
+            }
+            if (Lit.var(lit) == var) {continue;}
+            if (size > 0 && merged[size - 1] == Lit.negate(lit)) {return null;}
+            merged[size++] = lit;
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    private int[] withPivotFirst(int[] clause, int pivot) {
+        int[] copy = clause.clone();
+        for (int i = 0; i < copy.length; i++) {
+            if (copy[i] == pivot) {
+                copy[i] = copy[0];
+                copy[0] = pivot;
+                break;
+            }
+        }
+        return copy;
+    }
+
+    private void addOccurrence(int lit, int ci) {
+        int size = occurrenceSize[lit];
+        if (size == occurrences[lit].length) {
+            occurrences[lit] = Arrays.copyOf(occurrences[lit], size * 2);
+        }
+        occurrences[lit][size] = ci;
+        occurrenceSize[lit] = size + 1;
+    }
+
+    private void removeOccurrence(int lit, int ci) {
+        int[] list = occurrences[lit];
+        int size = occurrenceSize[lit];
+        for (int i = 0; i < size; i++) {
+            if (list[i] == ci) {
+                list[i] = list[size - 1];
+                occurrenceSize[lit] = size - 1;
+                return;
+            }
+        }
+    }
+}
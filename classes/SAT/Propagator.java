@@ -0,0 +1,235 @@
+package SAT;
+
+import java.util.Arrays;
+
+/**
+ * Boolean constraint propagation with two watched literals per clause.
+ *
+ * Owns the assignment (values, levels, reasons and the trail). Every clause of
+ * two or more literals is watched by its first two positions; when a watched
+ * literal becomes false the clause looks for a replacement, and only if none
+ * exists is it unit (the other watch is implied) or falsified (a conflict).
+ * Clauses whose watches stay non-false are never visited, so a unit-heavy
+ * formula is processed in time roughly linear in its size.
+ *
+ * Clauses are stored in a {@link ClauseArena} and referred to by offset;
+ * reasons and watch lists hold those offsets.
+ */
+public class Propagator {
+    static final byte UNASSIGNED = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = -1;
+    static final int NO_REASON = -1;
+
+    final ClauseArena arena = new ClauseArena();
+    final GaussJordan xors = new GaussJordan();
+    final CardinalityPropagator cardinalities = new CardinalityPropagator();
+
+    int numVars;
+    byte[] assigns = new byte[0];
+    int[] level = new int[0];
+    int[] reason = new int[0];
+
+    int[] trail = new int[0];
+    int trailSize;
+    int[] trailLim = new int[16];
+    int decisionLevel;
+    long propagations;
+
+    private int qhead;
+    private int conflict = NO_REASON;
+    private int[][] watches = new int[0][];
+    private int[] watchSize = new int[0];
+
+    void ensureVars(int count) {
+        if (count <= numVars) {return;}
+        if (count > assigns.length) {
+            int capacity = Math.max(count, assigns.length * 2);
+            assigns = Arrays.copyOf(assigns, capacity);
+            level = Arrays.copyOf(level, capacity);
+            reason = Arrays.copyOf(reason, capacity);
+            trail = Arrays.copyOf(trail, capacity);
+            watches = Arrays.copyOf(watches, capacity * 2);
+            watchSize = Arrays.copyOf(watchSize, capacity * 2);
+        }
+        Arrays.fill(reason, numVars, count, NO_REASON);
+        for (int lit = numVars * 2; lit < count * 2; lit++) {
+            watches[lit] = new int[4];
+        }
+        numVars = count;
+    }
+
+    /**
+     * Stores a clause of at least two literals and watches its first two.
+     * The caller must make sure those two are not false (or, for a learned
+     * clause, that position 0 is about to be asserted and position 1 is the
+     * last-falsified literal).
+     */
+    int attachClause(int[] lits, int length, boolean learnt) {
+        int ref = arena.add(lits, 0, length, learnt);
+        watch(lits[0], ref);
+        watch(lits[1], ref);
+        return ref;
+    }
+
+    /**
+     * Stores a clause derived by XOR or cardinality reasoning as a learned
+     * clause with LBD equal to its size, so it can be a reason or a conflict.
+     * Positions 0 and 1 are watched as in attachClause; shorter clauses (only
+     * ever derived at level 0) are stored without watches.
+     */
+    int attachReason(int[] lits, int length) {
+        int ref = length >= 2 ? attachClause(lits, length, true) : arena.add(lits, 0, length, true);
+        arena.setLbd(ref, length);
+        return ref;
+    }
+
+    byte value(int lit) {
+        byte value = assigns[Lit.var(lit)];
+        return Lit.isNeg(lit) ? (byte) -value : value;
+    }
+
+    void enqueue(int lit, int from) {
+        int var = Lit.var(lit);
+        assigns[var] = Lit.isNeg(lit) ? FALSE : TRUE;
+        level[var] = decisionLevel;
+        reason[var] = from;
+        trail[trailSize++] = lit;
+    }
+
+    void newDecisionLevel() {
+        if (decisionLevel == trailLim.length) {
+            trailLim = Arrays.copyOf(trailLim, trailLim.length * 2);
+        }
+        trailLim[decisionLevel++] = trailSize;
+    }
+
+    void decide(int lit) {
+        newDecisionLevel();
+        enqueue(lit, NO_REASON);
+    }
+
+    void cancelUntil(int target) {
+        if (decisionLevel <= target) {return;}
+        int stop = trailLim[target];
+        cardinalities.onBacktrack(this, stop);
+        for (int i = trailSize - 1; i >= stop; i--) {
+            int var = Lit.var(trail[i]);
+            assigns[var] = UNASSIGNED;
+            reason[var] = NO_REASON;
+        }
+        trailSize = stop;
+        qhead = Math.min(qhead, stop);
+        xors.onBacktrack(stop);
+        decisionLevel = target;
+        conflict = NO_REASON;
+    }
+
+    /**
+     * Propagates every literal enqueued since the last call. Returns the
+     * reference of a falsified clause, or NO_REASON once a fixpoint is reached.
+     * Cardinality and XOR constraints are checked whenever the clauses reach a
+     * fixpoint, and their implications are propagated through the clauses again.
+     */
+    int propagate() {
+        while (true) {
+            int ref = propagateClauses();
+            if (ref != NO_REASON) {return ref;}
+            int before = trailSize;
+            ref = cardinalities.propagate(this);
+            if (ref == NO_REASON && trailSize == before) {ref = xors.propagate(this);}
+            if (ref != NO_REASON) {
+                qhead = trailSize;
+                conflict = ref;
+                return ref;
+            }
+            if (trailSize == before) {return NO_REASON;}
+        }
+    }
+
+    private int propagateClauses() {
+        while (qhead < trailSize) {
+            int falseLit = Lit.negate(trail[qhead++]);
+            propagations++;
+            int[] ws = watches[falseLit];
+            int count = watchSize[falseLit];
+            int i = 0;
+            int j = 0;
+
+            while (i < count) {
+                int ref = ws[i++];
+                int[] mem = arena.memory;
+                int base = ref + ClauseArena.HEADER;
+                if (mem[base] == falseLit) {
+                    mem[base] = mem[base + 1];
+                    mem[base + 1] = falseLit;
+                }
+
+                int first = mem[base];
+                if (value(first) == TRUE) {
+                    ws[j++] = ref;
+                    continue;
+                }
+
+                boolean moved = false;
+                int end = base + mem[ref];
+                for (int k = base + 2; k < end; k++) {
+                    if (value(mem[k]) != FALSE) {
+                        mem[base + 1] = mem[k];
+                        mem[k] = falseLit;
+                        watch(mem[base + 1], ref);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) {continue;}
+
+                ws[j++] = ref;
+                if (value(first) == FALSE) {
+                    while (i < count) {ws[j++] = ws[i++];}
+                    watchSize[falseLit] = j;
+                    qhead = trailSize;
+                    conflict = ref;
+                    return ref;
+                }
+                enqueue(first, ref);
+            }
+            watchSize[falseLit] = j;
+        }
+        return NO_REASON;
+    }
+
+    /**
+     * Compacts the arena after clauses were deleted. Deleted clauses must not
+     * be reasons; watch lists are rebuilt from positions 0 and 1 of every live
+     * clause, which is where propagate() keeps the watched literals.
+     */
+    void collectGarbage() {
+        int[] old = arena.compact();
+        for (int i = 0; i < trailSize; i++) {
+            int var = Lit.var(trail[i]);
+            if (reason[var] != NO_REASON) {reason[var] = ClauseArena.forward(old, reason[var]);}
+        }
+        Arrays.fill(watchSize, 0, numVars * 2, 0);
+        int[] mem = arena.memory;
+        for (int ref = arena.first(); ref < arena.end(); ref = arena.next(ref)) {
+            if (mem[ref] < 2) {continue;}
+            watch(mem[ref + ClauseArena.HEADER], ref);
+            watch(mem[ref + ClauseArena.HEADER + 1], ref);
+        }
+    }
+
+    // True while the last propagate() ended in a falsified clause and nothing has been undone since
+    public boolean isContradiction() {
+        return conflict != NO_REASON;
+    }
+
+    private void watch(int lit, int ref) {
+        int size = watchSize[lit];
+        if (size == watches[lit].length) {
+            watches[lit] = Arrays.copyOf(watches[lit], size * 2);
+        }
+        watches[lit][size] = ref;
+        watchSize[lit] = size + 1;
+    }
+}
@@ -0,0 +1,22 @@
+package SAT;
+
+// One restart of a CDCLSolver run: when it fired (counters and time since solve() began) and why
+public class RestartEvent {
+    public final long conflicts;
+    public final long decisions;
+    public final long elapsedNanos;
+    public final String reason;
+
+    public RestartEvent(long conflicts, long decisions, long elapsedNanos, String reason) {
+        this.conflicts = conflicts;
+        this.decisions = decisions;
+        this.elapsedNanos = elapsedNanos;
+        this.reason = reason;
+    }
+
+    @Override
+    public String toString() {
+        return "restart at conflict " + conflicts + " (" + decisions + " decisions, "
+            + (elapsedNanos / 1_000_000) + " ms): " + reason;
+    }
+}
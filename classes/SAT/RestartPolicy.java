@@ -0,0 +1,15 @@
+package SAT;
+
+/**
+ * Decides when {@link CDCLSolver} abandons its current decisions and starts
+ * again from level 0 (keeping learned clauses and heuristic state).
+ */
+public interface RestartPolicy {
+    // Called after every conflict with the LBD (distinct decision levels) of the learned clause
+    void onConflict(int lbd);
+
+    // A short explanation when the search should restart now, otherwise null
+    String restartReason();
+
+    void onRestart();
+}
@@ -0,0 +1,22 @@
+package SAT;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One restart of a CDCLSolver search; CDCLSolver.restarts() only keeps the latest few of the last call
+@Name("satsmt.SatRestart")
+@Label("SAT Restart")
+@Category("SAT-SMT")
+@Description("One restart of a CDCL search and the policy's reason for it")
+public class RestartTraceEvent extends jdk.jfr.Event {
+    @Label("Conflicts")
+    public long conflicts;
+
+    @Label("Decisions")
+    public long decisions;
+
+    @Label("Reason")
+    public String reason;
+}
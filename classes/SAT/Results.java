@@ -1,21 +1,22 @@
 package SAT;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 
 public class Results {
     public static final String UNSAT = "UNSAT";
     public static final String SAT(ArrayList<Clause> clauses){
-        String result = "";
-        ArrayList<Variable> usedLits = new ArrayList<>();
+        StringBuilder result = new StringBuilder();
+        Set<Variable> usedLits = new HashSet<>();
         for (Clause cl : clauses){
             for (Literal lit : cl.clause){
-                if (!usedLits.contains(lit.var)){
-                    result += String.valueOf(lit.var.on_off ^ lit.neg);
-                    result += "\n";
-                    usedLits.add(lit.var);
+                if (usedLits.add(lit.var)){
+                    result.append(lit.var.on_off ^ lit.neg);
+                    result.append('\n');
                 }
             }
         }
 
-        return result;
+        return result.toString();
     }
 }
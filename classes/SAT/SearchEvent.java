@@ -0,0 +1,34 @@
+package SAT;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One CDCLSolver.solve call; the counters are for that call only
+@Name("satsmt.SatSearch")
+@Label("SAT Search")
+@Category("SAT-SMT")
+@Description("One CDCL solve call with its search counters")
+public class SearchEvent extends jdk.jfr.Event {
+    @Label("Result")
+    public String result;
+
+    @Label("Variables")
+    public int variables;
+
+    @Label("Decisions")
+    public long decisions;
+
+    @Label("Propagations")
+    public long propagations;
+
+    @Label("Conflicts")
+    public long conflicts;
+
+    @Label("Restarts")
+    public long restarts;
+
+    @Label("Learned Clauses")
+    public long learnedClauses;
+}
@@ -0,0 +1,8 @@
+package SAT;
+
+public enum SolveStatus {
+    SAT,
+    UNSAT,
+    // The search was stopped before reaching an answer
+    UNKNOWN
+}
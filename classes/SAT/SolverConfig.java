@@ -0,0 +1,62 @@
+package SAT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * One search configuration for {@link PortfolioSolver}. Heuristic and restart
+ * policy are suppliers because every worker needs its own stateful instance.
+ */
+public class SolverConfig {
+    public final String name;
+    public final Supplier<DecisionHeuristic> heuristic;
+    public final Supplier<RestartPolicy> restartPolicy;
+
+    public SolverConfig(String name, Supplier<DecisionHeuristic> heuristic, Supplier<RestartPolicy> restartPolicy) {
+        this.name = name;
+        this.heuristic = heuristic;
+        this.restartPolicy = restartPolicy;
+    }
+
+    public CDCLSolver newSolver() {
+        CDCLSolver solver = new CDCLSolver();
+        solver.setHeuristic(heuristic.get());
+        solver.setRestartPolicy(restartPolicy.get());
+        return solver;
+    }
+
+    /**
+     * A spread of n configurations: the restart policy cycles through Luby,
+     * Glucose and geometric, the heuristic alternates EVSIDS settings, and
+     * every configuration gets its own seed for tie-breaking.
+     */
+    public static List<SolverConfig> diverse(int n) {
+        List<SolverConfig> configs = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            long seed = i;
+            double decay = (i / 3) % 2 == 0 ? 0.95 : 0.85;
+            boolean phaseSaving = (i / 6) % 2 == 0;
+            Supplier<DecisionHeuristic> heuristic = () -> new VSIDSHeuristic(decay, true, phaseSaving, seed);
+
+            Supplier<RestartPolicy> restarts;
+            String restartName;
+            switch (i % 3) {
+                case 0:
+                    restarts = () -> new LubyRestart(100);
+                    restartName = "luby";
+                    break;
+                case 1:
+                    restarts = GlucoseRestart::new;
+                    restartName = "glucose";
+                    break;
+                default:
+                    restarts = () -> new GeometricRestart(100, 1.5);
+                    restartName = "geometric";
+            }
+            String name = restartName + "/vsids(" + decay + (phaseSaving ? ",phase" : "") + ")/seed" + seed;
+            configs.add(new SolverConfig(name, heuristic, restarts));
+        }
+        return configs;
+    }
+}
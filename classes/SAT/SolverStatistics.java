@@ -0,0 +1,209 @@
+package SAT;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and phase timers for both solver layers, safe to update from
+ * several solving threads at once and to read while they run.
+ *
+ * The SAT side is filled in by a {@link CDCLSolver} given this object with
+ * setStatistics: after every solve call it adds that call's decisions,
+ * propagations, conflicts, restarts and learned clauses. The SMT side times
+ * the phases of SMTSolver.solveSMT through {@link #begin} / {@link #end} and
+ * counts clause-evaluation cache hits.
+ *
+ * Every phase and every solve call is also a JFR event ({@link PhaseEvent},
+ * {@link SearchEvent}), and {@link #register} publishes the counters as an MXBean.
+ */
+public class SolverStatistics implements SolverStatisticsMXBean {
+    public enum Phase {
+        ATOM_TO_CNF,
+        SAT,
+        INFERENCE,
+        SEARCH
+    }
+
+    private final LongAdder satSolves = new LongAdder();
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder propagations = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder restarts = new LongAdder();
+    private final LongAdder learnedClauses = new LongAdder();
+
+    private final LongAdder smtSolves = new LongAdder();
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    public SolverStatistics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registers these statistics with the platform MBean server as
+     * SATSMT:type=SolverStatistics,name=&lt;name&gt;, replacing an earlier
+     * registration under the same name.
+     */
+    public ObjectName register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("SATSMT:type=SolverStatistics,name=" + ObjectName.quote(name));
+        if (server.isRegistered(objectName)) {server.unregisterMBean(objectName);}
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    public void recordSearch(long decisions, long propagations, long conflicts, long restarts, long learnedClauses) {
+        satSolves.increment();
+        this.decisions.add(decisions);
+        this.propagations.add(propagations);
+        this.conflicts.add(conflicts);
+        this.restarts.add(restarts);
+        this.learnedClauses.add(learnedClauses);
+    }
+
+    // Adds another set of statistics, e.g. one kept for a single call, to these
+    public void add(SolverStatistics other) {
+        satSolves.add(other.satSolves.sum());
+        decisions.add(other.decisions.sum());
+        propagations.add(other.propagations.sum());
+        conflicts.add(other.conflicts.sum());
+        restarts.add(other.restarts.sum());
+        learnedClauses.add(other.learnedClauses.sum());
+        smtSolves.add(other.smtSolves.sum());
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i].add(other.phaseNanos[i].sum());
+        }
+        cacheHits.add(other.cacheHits.sum());
+        cacheMisses.add(other.cacheMisses.sum());
+    }
+
+    public void recordSmtSolve() {
+        smtSolves.increment();
+    }
+
+    public PhaseEvent begin(Phase phase) {
+        PhaseEvent event = new PhaseEvent();
+        event.phase = phase.name();
+        event.kind = phase;
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    public void end(PhaseEvent event) {
+        event.end();
+        phaseNanos[event.kind.ordinal()].add(System.nanoTime() - event.startNanos);
+        if (event.shouldCommit()) {event.commit();}
+    }
+
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    public void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    public long phaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    @Override
+    public long getSatSolves() {
+        return satSolves.sum();
+    }
+
+    @Override
+    public long getDecisions() {
+        return decisions.sum();
+    }
+
+    @Override
+    public long getPropagations() {
+        return propagations.sum();
+    }
+
+    @Override
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    @Override
+    public long getRestarts() {
+        return restarts.sum();
+    }
+
+    @Override
+    public long getLearnedClauses() {
+        return learnedClauses.sum();
+    }
+
+    @Override
+    public long getSmtSolves() {
+        return smtSolves.sum();
+    }
+
+    @Override
+    public long getAtomToCNFNanos() {
+        return phaseNanos(Phase.ATOM_TO_CNF);
+    }
+
+    @Override
+    public long getSatNanos() {
+        return phaseNanos(Phase.SAT);
+    }
+
+    @Override
+    public long getInferenceNanos() {
+        return phaseNanos(Phase.INFERENCE);
+    }
+
+    @Override
+    public long getSearchNanos() {
+        return phaseNanos(Phase.SEARCH);
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    // 0 before the first lookup
+    @Override
+    public double getCacheHitRate() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder counter : new LongAdder[] {satSolves, decisions, propagations, conflicts, restarts, learnedClauses, smtSolves, cacheHits, cacheMisses}) {
+            counter.reset();
+        }
+        for (LongAdder nanos : phaseNanos) {
+            nanos.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("sat solves=%d decisions=%d propagations=%d conflicts=%d restarts=%d learned=%d"
+                + " | smt solves=%d atomToCNF=%.3fms sat=%.3fms inference=%.3fms search=%.3fms cache hit rate=%.3f",
+                getSatSolves(), getDecisions(), getPropagations(), getConflicts(), getRestarts(), getLearnedClauses(),
+                getSmtSolves(), getAtomToCNFNanos() / 1e6, getSatNanos() / 1e6, getInferenceNanos() / 1e6,
+                getSearchNanos() / 1e6, getCacheHitRate());
+    }
+}
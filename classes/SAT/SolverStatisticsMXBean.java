@@ -0,0 +1,26 @@
+package SAT;
+
+/**
+ * JMX view of {@link SolverStatistics}. Times are in nanoseconds and add up
+ * over every solve recorded since the last reset.
+ */
+public interface SolverStatisticsMXBean {
+    long getSatSolves();
+    long getDecisions();
+    long getPropagations();
+    long getConflicts();
+    long getRestarts();
+    long getLearnedClauses();
+
+    long getSmtSolves();
+    long getAtomToCNFNanos();
+    long getSatNanos();
+    long getInferenceNanos();
+    long getSearchNanos();
+
+    long getCacheHits();
+    long getCacheMisses();
+    double getCacheHitRate();
+
+    void reset();
+}
@@ -0,0 +1,13 @@
+package SAT;
+
+// Why a solve call ended with UNKNOWN
+public enum StopReason {
+    DEADLINE,
+    CONFLICT_LIMIT,
+    NODE_LIMIT,
+    MEMORY_LIMIT,
+    INTERRUPTED,
+    CANCELLED,
+    // CDCLSolver.stop() was called
+    STOPPED
+}
@@ -0,0 +1,243 @@
+package SAT;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A truth table stored as bit columns: one long[] per input variable and
+ * one for the output, where bit r of a column (bit r % 64 of word r / 64)
+ * is that column's value in row r. That is one bit per cell instead of a
+ * boxed Boolean in an ArrayList, and lets whole 64-row words be computed
+ * with a handful of bitwise operations.
+ *
+ * Tables are either parsed from the "col1/col2/..." text format (from a
+ * String, any Reader or a memory-mapped file, without materializing the
+ * text) or generated for every input combination by {@link #of}.
+ */
+public class TruthTable {
+    private static final long WINDOW = 1L << 28;
+    // Bit patterns of the six least significant row-index bits, lowest first
+    private static final long[] LOW_BITS = {
+        0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L,
+    };
+
+    public final int width;
+    public final int rows;
+    public final long[][] columns;
+    public final long[] output;
+
+    public TruthTable(long[][] columns, long[] output, int rows) {
+        int words = wordCount(rows);
+        for (long[] column : columns) {
+            if (column.length < words) {throw new IllegalArgumentException("All columns must have the same length");}
+        }
+        if (output.length < words) {throw new IllegalArgumentException("Outputs length must match number of rows (" + rows + ")");}
+        this.width = columns.length;
+        this.rows = rows;
+        this.columns = columns;
+        this.output = output;
+    }
+
+    /**
+     * Computes 64 rows of a function at once: bit i of inputs[c] is input
+     * column c in row i, and bit i of the result is the output in that row.
+     * Bits beyond the last row are ignored.
+     */
+    @FunctionalInterface
+    public interface ColumnFunction {
+        long apply(long[] inputs);
+    }
+
+    /**
+     * The table of a width-input function over all 2^width rows, in
+     * lexicographic order (column 0 is the most significant bit of the row
+     * index). The input columns are repeating bit patterns and are filled a
+     * word at a time; the output is the function applied word by word.
+     */
+    public static TruthTable of(int width, ColumnFunction function) {
+        if (width < 0 || width > 30) {throw new IllegalArgumentException("width must be between 0 and 30");}
+        int rows = 1 << width;
+        int words = wordCount(rows);
+        long last = rows % 64 == 0 ? -1L : (1L << rows) - 1;
+        long[][] columns = new long[width][];
+        for (int c = 0; c < width; c++) {
+            long[] column = new long[words];
+            for (int w = 0; w < words; w++) {
+                column[w] = pattern(width - 1 - c, w);
+            }
+            column[words - 1] &= last;
+            columns[c] = column;
+        }
+        long[] output = new long[words];
+        long[] inputs = new long[width];
+        for (int w = 0; w < words; w++) {
+            for (int c = 0; c < width; c++) {
+                inputs[c] = columns[c][w];
+            }
+            output[w] = function.apply(inputs);
+        }
+        output[words - 1] &= last;
+        return new TruthTable(columns, output, rows);
+    }
+
+    // Parses columns written as "col1/col2/..." and the output column; whitespace is ignored
+    public static TruthTable parse(Reader inputColumns, Reader outputs) throws IOException {
+        ColumnParser inputs = new ColumnParser(true, "Columns must contain only '0' or '1'");
+        ColumnParser output = new ColumnParser(false, "Outputs must contain only '0' or '1'");
+        char[] buffer = new char[1 << 13];
+        for (int read; (read = inputColumns.read(buffer)) != -1;) {
+            for (int i = 0; i < read; i++) {
+                inputs.accept(buffer[i]);
+            }
+        }
+        for (int read; (read = outputs.read(buffer)) != -1;) {
+            for (int i = 0; i < read; i++) {
+                output.accept(buffer[i]);
+            }
+        }
+        return build(inputs, output);
+    }
+
+    // As above, reading two files through memory-mapped windows
+    public static TruthTable parse(Path inputColumns, Path outputs) throws IOException {
+        ColumnParser inputs = new ColumnParser(true, "Columns must contain only '0' or '1'");
+        ColumnParser output = new ColumnParser(false, "Outputs must contain only '0' or '1'");
+        readMapped(inputColumns, inputs);
+        readMapped(outputs, output);
+        return build(inputs, output);
+    }
+
+    public boolean input(int row, int column) {
+        return bit(columns[column], row);
+    }
+
+    public boolean output(int row) {
+        return bit(output, row);
+    }
+
+    // The row's inputs as a number: column 0 is the most significant bit, as in of()
+    public int assignment(int row) {
+        int assignment = 0;
+        for (long[] column : columns) {
+            assignment = (assignment << 1) | (bit(column, row) ? 1 : 0);
+        }
+        return assignment;
+    }
+
+    // Whether row r is the assignment r for every r, i.e. the rows are all 2^width inputs in the order of()
+    public boolean isComplete() {
+        if (width > 30 || rows != 1 << width) {return false;}
+        int words = wordCount(rows);
+        long last = rows % 64 == 0 ? -1L : (1L << rows) - 1;
+        for (int c = 0; c < width; c++) {
+            for (int w = 0; w < words; w++) {
+                long mask = w == words - 1 ? last : -1L;
+                if (((columns[c][w] ^ pattern(width - 1 - c, w)) & mask) != 0) {return false;}
+            }
+        }
+        return true;
+    }
+
+    // The first row at or after from whose output is true, or -1
+    public int nextTrueRow(int from) {
+        if (from >= rows) {return -1;}
+        int w = from >>> 6;
+        long word = output[w] & (-1L << from);
+        while (word == 0) {
+            if (++w >= wordCount(rows)) {return -1;}
+            word = output[w];
+        }
+        int row = (w << 6) + Long.numberOfTrailingZeros(word);
+        return row < rows ? row : -1;
+    }
+
+    static int wordCount(int rows) {
+        return Math.max(1, (int) ((rows + 63L) >>> 6));
+    }
+
+    // Word w of the column holding bit b of the row index
+    private static long pattern(int bit, int w) {
+        // Below bit 6 the pattern repeats inside every word; above it whole words alternate
+        return bit < 6 ? LOW_BITS[bit] : ((w >>> (bit - 6)) & 1) != 0 ? -1L : 0L;
+    }
+
+    private static boolean bit(long[] column, int row) {
+        return (column[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private static TruthTable build(ColumnParser inputs, ColumnParser output) {
+        int rows = inputs.finish();
+        if (output.finish() != rows) {
+            throw new IllegalArgumentException("Outputs length must match number of rows (" + rows + ")");
+        }
+        return new TruthTable(inputs.columns(), output.columns()[0], rows);
+    }
+
+    private static void readMapped(Path path, ColumnParser parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long start = 0; start < size; start += WINDOW) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+                while (buffer.hasRemaining()) {
+                    parser.accept(buffer.get());
+                }
+            }
+        }
+    }
+
+    // Packs '0'/'1' characters into growing bit columns as they arrive
+    private static final class ColumnParser {
+        private final boolean separators;
+        private final String invalid;
+        private long[][] columns = new long[1][];
+        private int count = 1;
+        private int[] sizes = new int[1];
+
+        ColumnParser(boolean separators, String invalid) {
+            this.separators = separators;
+            this.invalid = invalid;
+            columns[0] = new long[1];
+        }
+
+        void accept(int c) {
+            if (c == '0' || c == '1') {
+                int column = count - 1;
+                int size = sizes[column];
+                if (size == Integer.MAX_VALUE) {throw new IllegalArgumentException("Too many rows");}
+                long[] words = columns[column];
+                if ((size >>> 6) == words.length) {
+                    words = Arrays.copyOf(words, words.length * 2);
+                    columns[column] = words;
+                }
+                if (c == '1') {words[size >>> 6] |= 1L << size;}
+                sizes[column] = size + 1;
+            } else if (c == '/' && separators) {
+                if (count == columns.length) {
+                    columns = Arrays.copyOf(columns, count * 2);
+                    sizes = Arrays.copyOf(sizes, count * 2);
+                }
+                columns[count++] = new long[Math.max(1, sizes[0] >>> 6)];
+            } else if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                throw new IllegalArgumentException(invalid);
+            }
+        }
+
+        // Number of rows, after checking that every column has it
+        int finish() {
+            for (int column = 1; column < count; column++) {
+                if (sizes[column] != sizes[0]) {throw new IllegalArgumentException("All columns must have the same length");}
+            }
+            return sizes[0];
+        }
+
+        long[][] columns() {
+            return Arrays.copyOf(columns, count);
+        }
+    }
+}
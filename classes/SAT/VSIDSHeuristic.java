@@ -0,0 +1,112 @@
+package SAT;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Activity-based branching. Variables met during conflict analysis are bumped
+ * and the unassigned variable with the highest activity is picked from a
+ * {@link VarHeap}. In the exponential (EVSIDS) form the bump amount grows by
+ * 1/decay after every conflict, which ages old activity without touching
+ * every variable; the classic form instead scales all activities by the
+ * decay factor every {@code CLASSIC_DECAY_INTERVAL} conflicts.
+ *
+ * With phase saving a variable is re-decided with the value it had when it
+ * was last unassigned, so work undone by a backjump is mostly redone for free.
+ * Variables that were never assigned start out true, as in the old search.
+ * A non-zero seed gives every variable a tiny random initial activity, which
+ * only changes how ties are broken; portfolio workers use it to diverge.
+ */
+public class VSIDSHeuristic implements DecisionHeuristic {
+    private static final int CLASSIC_DECAY_INTERVAL = 256;
+    private static final double RESCALE_LIMIT = 1e100;
+
+    private final double decay;
+    private final boolean exponential;
+    private final boolean phaseSaving;
+    private final Random random;
+
+    private double[] activity = new double[0];
+    private boolean[] phase = new boolean[0];
+    private final VarHeap heap = new VarHeap(activity);
+    private double increment = 1.0;
+    private long conflicts;
+    private int numVars;
+
+    public VSIDSHeuristic() {
+        this(0.95, true, true);
+    }
+
+    public VSIDSHeuristic(double decay, boolean exponential, boolean phaseSaving) {
+        this(decay, exponential, phaseSaving, 0);
+    }
+
+    public VSIDSHeuristic(double decay, boolean exponential, boolean phaseSaving, long seed) {
+        if (decay <= 0 || decay >= 1) {
+            throw new IllegalArgumentException("decay must be in (0, 1)");
+        }
+        this.decay = decay;
+        this.exponential = exponential;
+        this.phaseSaving = phaseSaving;
+        this.random = seed == 0 ? null : new Random(seed);
+    }
+
+    @Override
+    public void ensureVars(int count) {
+        if (count <= numVars) {return;}
+        if (count > activity.length) {
+            int capacity = Math.max(count, activity.length * 2);
+            activity = Arrays.copyOf(activity, capacity);
+            phase = Arrays.copyOf(phase, capacity);
+            heap.setActivity(activity);
+        }
+        heap.ensureVars(count);
+        for (int var = numVars; var < count; var++) {
+            phase[var] = true;
+            if (random != null) {activity[var] = random.nextDouble() * 1e-5;}
+            heap.insert(var);
+        }
+        numVars = count;
+    }
+
+    @Override
+    public void bump(int var) {
+        activity[var] += increment;
+        if (activity[var] > RESCALE_LIMIT) {
+            for (int i = 0; i < numVars; i++) {
+                activity[i] *= 1 / RESCALE_LIMIT;
+            }
+            increment *= 1 / RESCALE_LIMIT;
+        }
+        heap.increased(var);
+    }
+
+    @Override
+    public void onConflict() {
+        conflicts++;
+        if (exponential) {
+            increment /= decay;
+        } else if (conflicts % CLASSIC_DECAY_INTERVAL == 0) {
+            for (int i = 0; i < numVars; i++) {
+                activity[i] *= decay;
+            }
+        }
+    }
+
+    @Override
+    public void onUnassign(int var, boolean value) {
+        if (phaseSaving) {phase[var] = value;}
+        heap.insert(var);
+    }
+
+    @Override
+    public int pickBranchLiteral(Propagator propagator) {
+        while (!heap.isEmpty()) {
+            int var = heap.removeMax();
+            if (propagator.assigns[var] == Propagator.UNASSIGNED) {
+                return Lit.of(var, !phase[var]);
+            }
+        }
+        return -1;
+    }
+}
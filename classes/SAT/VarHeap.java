@@ -0,0 +1,92 @@
+package SAT;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary max-heap of variables ordered by an external activity array.
+ * Every variable knows its heap position, so membership checks are O(1) and
+ * inserting, removing the maximum or re-sifting after a bump are O(log n).
+ */
+public class VarHeap {
+    private int[] heap = new int[16];
+    private int[] position = new int[0];
+    private int size;
+    private double[] activity;
+
+    public VarHeap(double[] activity) {
+        this.activity = activity;
+    }
+
+    // The owner reallocates the activity array when it grows
+    void setActivity(double[] activity) {
+        this.activity = activity;
+    }
+
+    public void ensureVars(int count) {
+        if (count <= position.length) {return;}
+        int old = position.length;
+        position = Arrays.copyOf(position, Math.max(count, old * 2));
+        Arrays.fill(position, old, position.length, -1);
+    }
+
+    public boolean contains(int var) {
+        return var < position.length && position[var] >= 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void insert(int var) {
+        if (contains(var)) {return;}
+        if (size == heap.length) {heap = Arrays.copyOf(heap, size * 2);}
+        heap[size] = var;
+        position[var] = size;
+        siftUp(size++);
+    }
+
+    public int removeMax() {
+        int top = heap[0];
+        int last = heap[--size];
+        position[top] = -1;
+        if (size > 0) {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    // Called after a variable's activity increased
+    public void increased(int var) {
+        if (contains(var)) {siftUp(position[var]);}
+    }
+
+    private void siftUp(int index) {
+        int var = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >> 1;
+            if (activity[heap[parent]] >= activity[var]) {break;}
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = var;
+        position[var] = index;
+    }
+
+    private void siftDown(int index) {
+        int var = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {break;}
+            if (child + 1 < size && activity[heap[child + 1]] > activity[heap[child]]) {child++;}
+            if (activity[heap[child]] <= activity[var]) {break;}
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = var;
+        position[var] = index;
+    }
+}
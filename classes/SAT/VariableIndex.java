@@ -0,0 +1,48 @@
+package SAT;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Numbers Variable objects 0..n-1 in first-appearance order so that
+ * object-based clauses can be handed to the int-based engines, and maps a
+ * model back onto the Variable.on_off fields.
+ */
+public class VariableIndex {
+    private final Map<Variable, Integer> index = new IdentityHashMap<>();
+    private final ArrayList<Variable> variables = new ArrayList<>();
+
+    public int indexOf(Variable var) {
+        Integer existing = index.get(var);
+        if (existing != null) {return existing;}
+        int next = variables.size();
+        index.put(var, next);
+        variables.add(var);
+        return next;
+    }
+
+    // -1 for a variable that has not been numbered
+    public int find(Variable var) {
+        Integer existing = index.get(var);
+        return existing == null ? -1 : existing;
+    }
+
+    public int literal(Literal literal) {
+        return Lit.of(indexOf(literal.var), literal.neg);
+    }
+
+    public Variable variable(int var) {
+        return variables.get(var);
+    }
+
+    public int size() {
+        return variables.size();
+    }
+
+    public void applyModel(boolean[] model) {
+        for (int i = 0; i < variables.size(); i++) {
+            variables.get(i).on_off = model[i];
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package SAT;
+
+import java.util.Arrays;
+
+/**
+ * x1 XOR x2 XOR ... XOR xk = parity over 0-based variables. One such
+ * constraint stands for the 2^(k-1) clauses that forbid the assignments of
+ * the wrong parity.
+ */
+public class XorConstraint {
+    public final int[] vars;
+    public final boolean parity;
+
+    public XorConstraint(int[] vars, boolean parity) {
+        this.vars = vars.clone();
+        this.parity = parity;
+    }
+
+    @Override
+    public String toString() {
+        return "xor" + Arrays.toString(vars) + " = " + (parity ? 1 : 0);
+    }
+}
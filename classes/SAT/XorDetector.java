@@ -0,0 +1,72 @@
+package SAT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recovers XOR constraints from their CNF encoding. The direct encoding of
+ * x1 XOR ... XOR xk = p is the 2^(k-1) clauses over exactly those variables
+ * whose number of negated literals has the parity of p + 1 (each one rules
+ * out a single assignment of the wrong parity). Clauses are grouped by
+ * variable set and a group holding every such sign pattern yields the XOR.
+ *
+ * The clauses themselves stay in the formula; the XORs are extra, stronger
+ * propagation for {@link CDCLSolver#addXor}.
+ */
+public final class XorDetector {
+    // 2^(k-1) clauses are needed per XOR, so longer ones are rarely written out in CNF
+    public static final int MAX_SIZE = 6;
+
+    private XorDetector() {}
+
+    public static List<XorConstraint> detect(ClauseArena clauses) {
+        // Sorted variable set -> bit set of the sign patterns seen (bit i of a pattern = variable i negated)
+        Map<List<Integer>, Long> patterns = new LinkedHashMap<>();
+        int[] lits = new int[MAX_SIZE];
+        for (int ref = clauses.first(); ref < clauses.end(); ref = clauses.next(ref)) {
+            int size = clauses.size(ref);
+            if (clauses.isDeleted(ref) || size < 2 || size > MAX_SIZE) {continue;}
+            for (int i = 0; i < size; i++) {
+                lits[i] = clauses.lit(ref, i);
+            }
+            Arrays.sort(lits, 0, size);
+            List<Integer> vars = new ArrayList<>(size);
+            int pattern = 0;
+            boolean distinct = true;
+            for (int i = 0; i < size; i++) {
+                int var = Lit.var(lits[i]);
+                if (i > 0 && var == vars.get(i - 1)) {
+                    distinct = false;
+                    break;
+                }
+                vars.add(var);
+                if (Lit.isNeg(lits[i])) {pattern |= 1 << i;}
+            }
+            if (!distinct) {continue;}
+            patterns.merge(vars, 1L << pattern, (a, b) -> a | b);
+        }
+
+        List<XorConstraint> xors = new ArrayList<>();
+        for (Map.Entry<List<Integer>, Long> entry : patterns.entrySet()) {
+            List<Integer> vars = entry.getKey();
+            long seen = entry.getValue();
+            long even = 0;
+            long odd = 0;
+            for (int pattern = 0; pattern < 1 << vars.size(); pattern++) {
+                if (Integer.bitCount(pattern) % 2 == 0) {
+                    even |= 1L << pattern;
+                } else {
+                    odd |= 1L << pattern;
+                }
+            }
+            int[] array = vars.stream().mapToInt(Integer::intValue).toArray();
+            // An even number of negations rules out an even number of true variables
+            if ((seen & even) == even) {xors.add(new XorConstraint(array, true));}
+            if ((seen & odd) == odd) {xors.add(new XorConstraint(array, false));}
+        }
+        return xors;
+    }
+}
@@ -3,8 +3,8 @@ package SMT;
 import java.util.ArrayList;
 
 public class Atom {
-    public ArrayList<SMTClause> clauses;
-    public ArrayList<SMTOperator> operators; 
+    public final ArrayList<SMTClause> clauses;
+    public final ArrayList<SMTOperator> operators; 
 
     public Atom(ArrayList<SMTClause> clauses, ArrayList<SMTOperator> operators){
         this.clauses = clauses;
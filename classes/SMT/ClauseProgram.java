@@ -0,0 +1,143 @@
+package SMT;
+
+import java.util.Arrays;
+
+/**
+ * An SMTClause compiled into a flat register program, so evaluating it
+ * allocates nothing and touches no strings or boxed values.
+ *
+ * Clauses are evaluated in passes over the literal values: multiplicative
+ * operators (* / %) left to right, then additive (+ -), then comparisons
+ * (< <= > >=) and equalities (= == != <>), each folding two neighbouring
+ * values into one and turning comparisons into 0 or 1. The clause is the
+ * last equality, else the last comparison, else whether the first value is
+ * non-zero; dividing by zero makes it false. Which operators combine which
+ * values in that order depends only on the operators, so compile replays
+ * the passes once over register numbers instead of values and records each
+ * step as "register a = register a op register b". Operators that no pass
+ * knows are skipped by every pass, as before.
+ *
+ * A program keeps its own registers: one thread at a time. Each SMTContext
+ * compiles its own.
+ */
+public final class ClauseProgram {
+    // Triples of opcode, target and operand register
+    private final int[] code;
+    private final int[] registers;
+    // The register holding the result, or -1 for a clause whose value is constant
+    private final int result;
+    private final boolean constant;
+
+    private ClauseProgram(int[] code, int registerCount, int result, boolean constant) {
+        this.code = code;
+        this.registers = new int[registerCount];
+        this.result = result;
+        this.constant = constant;
+    }
+
+    public static ClauseProgram compile(SMTClause clause) {
+        if (clause == null || clause.literals == null || clause.literals.isEmpty()) {
+            return new ClauseProgram(new int[0], 0, -1, false);
+        }
+        if (clause.operators == null || clause.operators.isEmpty()) {
+            // A single literal clause is considered satisfied
+            return new ClauseProgram(new int[0], 0, -1, clause.literals.size() == 1);
+        }
+        int count = clause.literals.size();
+        if (count - 1 != clause.operators.size()) {
+            return new ClauseProgram(new int[0], 0, -1, false);
+        }
+
+        // slots[i] is the register holding the i-th remaining value, ops[i] the operator after it
+        int[] slots = new int[count];
+        int[] ops = new int[count - 1];
+        for (int i = 0; i < count; i++) {
+            slots[i] = i;
+        }
+        for (int i = 0; i < ops.length; i++) {
+            ops[i] = clause.operators.get(i).kind;
+        }
+        int[] code = new int[3 * ops.length];
+        int[] sizes = {count - 1, 0};
+        pass(slots, ops, sizes, code, SMTOperator.MUL, SMTOperator.MOD);
+        pass(slots, ops, sizes, code, SMTOperator.ADD, SMTOperator.SUB);
+        int comparison = pass(slots, ops, sizes, code, SMTOperator.LT, SMTOperator.GE);
+        int equality = pass(slots, ops, sizes, code, SMTOperator.EQ, SMTOperator.NE);
+        int result = equality >= 0 ? equality : comparison >= 0 ? comparison : slots[0];
+        return new ClauseProgram(Arrays.copyOf(code, sizes[1]), count, result, false);
+    }
+
+    /**
+     * Emits one pass over the opcodes first..last and removes the values and
+     * operators it folds. sizes holds the remaining operator count and the
+     * code length. Returns the register of the last fold, or -1 for none.
+     */
+    private static int pass(int[] slots, int[] ops, int[] sizes, int[] code, int first, int last) {
+        int folded = -1;
+        for (int i = 0; i < sizes[0]; ) {
+            int op = ops[i];
+            if (op < first || op > last) {
+                i++;
+                continue;
+            }
+            code[sizes[1]++] = op;
+            code[sizes[1]++] = slots[i];
+            code[sizes[1]++] = slots[i + 1];
+            folded = slots[i];
+            System.arraycopy(slots, i + 2, slots, i + 1, sizes[0] - i - 1);
+            System.arraycopy(ops, i + 1, ops, i, sizes[0] - i - 1);
+            sizes[0]--;
+        }
+        return folded;
+    }
+
+    // values[i] is the value of the clause's i-th literal
+    public boolean evaluate(int[] values) {
+        if (result < 0) {return constant;}
+        int[] r = registers;
+        System.arraycopy(values, 0, r, 0, r.length);
+        int[] code = this.code;
+        for (int pc = 0; pc < code.length; pc += 3) {
+            int a = code[pc + 1];
+            int left = r[a];
+            int right = r[code[pc + 2]];
+            switch (code[pc]) {
+                case SMTOperator.MUL:
+                    r[a] = left * right;
+                    break;
+                case SMTOperator.DIV:
+                    if (right == 0) {return false;}
+                    r[a] = left / right;
+                    break;
+                case SMTOperator.MOD:
+                    if (right == 0) {return false;}
+                    r[a] = left % right;
+                    break;
+                case SMTOperator.ADD:
+                    r[a] = left + right;
+                    break;
+                case SMTOperator.SUB:
+                    r[a] = left - right;
+                    break;
+                case SMTOperator.LT:
+                    r[a] = left < right ? 1 : 0;
+                    break;
+                case SMTOperator.LE:
+                    r[a] = left <= right ? 1 : 0;
+                    break;
+                case SMTOperator.GT:
+                    r[a] = left > right ? 1 : 0;
+                    break;
+                case SMTOperator.GE:
+                    r[a] = left >= right ? 1 : 0;
+                    break;
+                case SMTOperator.EQ:
+                    r[a] = left == right ? 1 : 0;
+                    break;
+                default:
+                    r[a] = left != right ? 1 : 0;
+            }
+        }
+        return r[result] != 0;
+    }
+}
@@ -0,0 +1,240 @@
+package SMT;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Theory solver for linear clauses whose unlocked literals add up to at
+ * most x - y: "b > a", "c = b", "a < 10", "a - b <= 3", "a + 2 >= b + k"
+ * with k locked. Once locked literals are folded into a constant, such a
+ * clause says x - y + k ⋈ 0, and with its truth value from the Boolean model it
+ * becomes one or two constraints x - y <= c (only "x != y" is a disjunction
+ * and stays out).
+ *
+ * The constraints are edges y -> x of weight c in a graph with one node per
+ * literal and one for zero, which also carries every literal's domain. The
+ * constraints hold together exactly when that graph has no negative cycle.
+ * Edges are added one at a time, keeping a potential that satisfies all of
+ * them so far; a new edge that breaks it is repaired with Dijkstra over the
+ * reduced costs, and if the repair would lower the new edge's own source,
+ * the edges it went through form a negative cycle. Those edges' clauses
+ * cannot hold together and are the explanation. Otherwise the potentials
+ * relative to the zero node are the literal values.
+ *
+ * Each check costs O(E log V) per edge, whatever the domain widths.
+ */
+public final class DifferenceLogic {
+    private static final int ZERO = 0;
+
+    private final SMTContext smt;
+    // Per clause: it reads x - y + offset ⋈ 0 with the nodes of x and y (ZERO for none); relation -1 if it is not of that form
+    private final int[] relation;
+    private final int[] first;
+    private final int[] second;
+    private final long[] offset;
+
+    private int edgeCount;
+    private int[] edgeFrom = new int[16];
+    private int[] edgeTo = new int[16];
+    private long[] edgeWeight = new long[16];
+    private int[] edgeClause = new int[16];
+    private int[] edgeNext = new int[16];
+    private final int[] edgeHead;
+    private final long[] potential;
+    private final long[] gamma;
+    private final int[] pred;
+    private final boolean[] settled;
+    private final boolean[] bounded;
+
+    public DifferenceLogic(SMTContext smt) {
+        this.smt = smt;
+        int clauseCount = smt.atom.clauses.size();
+        relation = new int[clauseCount];
+        first = new int[clauseCount];
+        second = new int[clauseCount];
+        offset = new long[clauseCount];
+        for (int c = 0; c < clauseCount; c++) {
+            relation[c] = -1;
+            parse(c);
+        }
+        int nodes = smt.literalCount() + 1;
+        edgeHead = new int[nodes];
+        potential = new long[nodes];
+        gamma = new long[nodes];
+        pred = new int[nodes];
+        settled = new boolean[nodes];
+        bounded = new boolean[nodes];
+    }
+
+    // Whether every listed clause, with its expected value, is a conjunction of difference constraints
+    public boolean covers(int[] clauses) {
+        for (int c : clauses) {
+            if (relation[c] < 0) {return false;}
+            if ((relation[c] == SMTOperator.EQ) != smt.expected(c) && (relation[c] == SMTOperator.EQ || relation[c] == SMTOperator.NE)) {return false;}
+        }
+        return true;
+    }
+
+    /**
+     * Checks the listed clauses, which must be {@link #covers covered}, for
+     * their expected values. Returns null with the context's values set to a
+     * model, or the clauses of a negative cycle, which cannot all have their
+     * expected values together (empty if some literal's domain is empty).
+     */
+    public int[] check(int[] clauses) {
+        smt.reset();
+        edgeCount = 0;
+        Arrays.fill(edgeHead, -1);
+        Arrays.fill(potential, 0);
+        Arrays.fill(bounded, false);
+
+        for (int c : clauses) {
+            for (int literal : smt.clauseLiterals(c)) {
+                int node = literal + 1;
+                if (smt.isLocked(literal) || bounded[node]) {continue;}
+                bounded[node] = true;
+                int[] cycle = add(ZERO, node, smt.high(literal), -1);
+                if (cycle == null) {cycle = add(node, ZERO, -(long) smt.low(literal), -1);}
+                if (cycle != null) {return cycle;}
+            }
+        }
+        for (int c : clauses) {
+            int x = first[c];
+            int y = second[c];
+            long k = offset[c];
+            boolean value = smt.expected(c);
+            int[] cycle;
+            switch (relation[c]) {
+                case SMTOperator.LT:
+                    cycle = value ? add(y, x, -k - 1, c) : add(x, y, k, c);
+                    break;
+                case SMTOperator.LE:
+                    cycle = value ? add(y, x, -k, c) : add(x, y, k - 1, c);
+                    break;
+                case SMTOperator.GT:
+                    cycle = value ? add(x, y, k - 1, c) : add(y, x, -k, c);
+                    break;
+                case SMTOperator.GE:
+                    cycle = value ? add(x, y, k, c) : add(y, x, -k - 1, c);
+                    break;
+                default:
+                    cycle = add(y, x, -k, c);
+                    if (cycle == null) {cycle = add(x, y, k, c);}
+            }
+            if (cycle != null) {return cycle;}
+        }
+
+        for (int i = 0; i < smt.literalCount(); i++) {
+            // Within the literal's domain thanks to its bound edges
+            if (bounded[i + 1]) {smt.setValue(i, (int) (potential[i + 1] - potential[ZERO]));}
+        }
+        return null;
+    }
+
+    /**
+     * Adds the constraint to - from <= weight and restores the potential:
+     * nodes whose potential must drop are settled most-negative first. Null
+     * while no negative cycle exists, otherwise the clauses on it.
+     */
+    private int[] add(int from, int to, long weight, int clause) {
+        if (from == to) {return weight >= 0 ? null : new int[] {clause};}
+        int edge = newEdge(from, to, weight, clause);
+        if (potential[from] + weight >= potential[to]) {return null;}
+
+        int[] touched = new int[potential.length];
+        int touchedSize = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        gamma[to] = potential[from] + weight - potential[to];
+        pred[to] = edge;
+        touched[touchedSize++] = to;
+        queue.add(new long[] {gamma[to], to});
+        int[] cycle = null;
+        while (!queue.isEmpty() && cycle == null) {
+            long[] entry = queue.poll();
+            int s = (int) entry[1];
+            if (settled[s] || entry[0] != gamma[s]) {continue;}
+            settled[s] = true;
+            long lowered = potential[s] + gamma[s];
+            for (int e = edgeHead[s]; e >= 0; e = edgeNext[e]) {
+                int t = edgeTo[e];
+                long g = lowered + edgeWeight[e] - potential[t];
+                if (g >= gamma[t]) {continue;}
+                pred[t] = e;
+                if (t == from) {
+                    cycle = cycle(from, to);
+                    break;
+                }
+                if (gamma[t] == 0) {touched[touchedSize++] = t;}
+                gamma[t] = g;
+                queue.add(new long[] {g, t});
+            }
+        }
+        for (int i = 0; i < touchedSize; i++) {
+            int node = touched[i];
+            if (cycle == null) {potential[node] += gamma[node];}
+            gamma[node] = 0;
+            settled[node] = false;
+        }
+        return cycle;
+    }
+
+    // The clauses on the path pred[] leads back from from to to, plus the new edge's
+    private int[] cycle(int from, int to) {
+        int[] clauses = new int[potential.length + 1];
+        int size = 0;
+        int node = from;
+        while (true) {
+            int e = pred[node];
+            if (edgeClause[e] >= 0) {clauses[size++] = edgeClause[e];}
+            if (node == to) {break;}
+            node = edgeFrom[e];
+        }
+        int[] distinct = Arrays.copyOf(clauses, size);
+        Arrays.sort(distinct);
+        size = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {distinct[size++] = distinct[i];}
+        }
+        return Arrays.copyOf(distinct, size);
+    }
+
+    private int newEdge(int from, int to, long weight, int clause) {
+        if (edgeCount == edgeFrom.length) {
+            int capacity = edgeCount * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+            edgeClause = Arrays.copyOf(edgeClause, capacity);
+            edgeNext = Arrays.copyOf(edgeNext, capacity);
+        }
+        int edge = edgeCount++;
+        edgeFrom[edge] = from;
+        edgeTo[edge] = to;
+        edgeWeight[edge] = weight;
+        edgeClause[edge] = clause;
+        edgeNext[edge] = edgeHead[from];
+        edgeHead[from] = edge;
+        return edge;
+    }
+
+    // Accepts a linear clause whose unlocked literals add up to at most x - y
+    private void parse(int c) {
+        LinearClause clause = LinearClause.parse(smt, c);
+        if (clause == null) {return;}
+        int x = ZERO;
+        int y = ZERO;
+        for (int i = 0; i < clause.literals.length; i++) {
+            if (clause.coefficients[i] == 1 && x == ZERO) {
+                x = clause.literals[i] + 1;
+            } else if (clause.coefficients[i] == -1 && y == ZERO) {
+                y = clause.literals[i] + 1;
+            } else {
+                return;
+            }
+        }
+        relation[c] = clause.relation;
+        first[c] = x;
+        second[c] = y;
+        offset[c] = clause.constant;
+    }
+}
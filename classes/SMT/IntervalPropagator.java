@@ -0,0 +1,457 @@
+package SMT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Interval constraint propagation over the clauses of an {@link SMTContext}:
+ * narrows literal domains until no clause can narrow them further, before
+ * any value is enumerated.
+ *
+ * Each clause is parsed once into an expression tree with the precedence
+ * SMTSolver evaluates it with (multiplicative, then additive, then
+ * comparisons, then equalities, each left to right), so a clause holds when
+ * its root is non-zero and no divisor is zero. Revising a clause evaluates
+ * the tree bottom-up in interval arithmetic, intersects the root with what
+ * the Boolean model says the clause must be, and pushes that back down to
+ * the literals (HC4-revise). Whenever a literal's domain shrinks, the
+ * clauses it occurs in go back on the worklist; an empty domain stops
+ * propagation with a conflict.
+ *
+ * Int arithmetic wraps, interval arithmetic does not: a node whose range
+ * may leave the int range gets the whole int range and nothing is pushed
+ * through it to its operands. Clauses with operators SMTSolver does not
+ * evaluate are left alone.
+ */
+public final class IntervalPropagator {
+    // Every revision narrows a domain by at least one value, which over wide domains can take long
+    private static final int MAX_REVISIONS = 100_000;
+
+    // The op of a node holding a literal: SMTOperator.UNKNOWN, which no parsed clause contains
+    private static final int LEAF = SMTOperator.UNKNOWN;
+
+    private final SMTContext smt;
+    // Per clause, nodes in postfix order (the root last); null for clauses left alone
+    private final int[][] op;
+    private final int[][] left;
+    private final int[][] right;
+    // Per literal: the clauses it occurs in
+    private final int[][] occurrences;
+
+    private long[] lo = new long[16];
+    private long[] hi = new long[16];
+    private boolean[] exact = new boolean[16];
+    private boolean[] empty = new boolean[16];
+    private final boolean[] queued;
+    private final int[] queue;
+    private final boolean[] listed;
+    private int revisions;
+
+    public IntervalPropagator(SMTContext smt) {
+        this.smt = smt;
+        int clauseCount = smt.atom.clauses.size();
+        op = new int[clauseCount][];
+        left = new int[clauseCount][];
+        right = new int[clauseCount][];
+        for (int c = 0; c < clauseCount; c++) {
+            parse(c);
+        }
+
+        int[] counts = new int[smt.literalCount()];
+        for (int c = 0; c < clauseCount; c++) {
+            if (op[c] == null) {continue;}
+            for (int literal : distinct(smt.clauseLiterals(c))) {
+                counts[literal]++;
+            }
+        }
+        occurrences = new int[smt.literalCount()][];
+        for (int i = 0; i < counts.length; i++) {
+            occurrences[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int c = 0; c < clauseCount; c++) {
+            if (op[c] == null) {continue;}
+            for (int literal : distinct(smt.clauseLiterals(c))) {
+                occurrences[literal][counts[literal]++] = c;
+            }
+        }
+        queued = new boolean[clauseCount];
+        queue = new int[clauseCount];
+        listed = new boolean[clauseCount];
+    }
+
+    // How many clause revisions the last propagate call ran
+    public int revisions() {
+        return revisions;
+    }
+
+    /**
+     * Narrows the domains of the context's unlocked literals so that every
+     * listed clause can still take its expected value. Returns false when
+     * that is impossible: some domain became empty or a clause cannot take
+     * its value at all.
+     */
+    public boolean propagate(int[] clauses) {
+        revisions = 0;
+        int head = 0;
+        int size = 0;
+        for (int c : clauses) {
+            listed[c] = true;
+            if (op[c] != null && !queued[c]) {
+                queued[c] = true;
+                queue[size++] = c;
+            }
+        }
+        boolean consistent = true;
+        // The queue is circular; a clause is in it at most once
+        while (size > 0 && revisions < MAX_REVISIONS) {
+            int c = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[c] = false;
+            revisions++;
+
+            int[] literals = smt.clauseLiterals(c);
+            int[] before = new int[literals.length * 2];
+            for (int i = 0; i < literals.length; i++) {
+                before[2 * i] = smt.low(literals[i]);
+                before[2 * i + 1] = smt.high(literals[i]);
+            }
+            if (!revise(c, smt.expected(c))) {
+                consistent = false;
+                break;
+            }
+            for (int i = 0; i < literals.length; i++) {
+                int literal = literals[i];
+                if (smt.low(literal) == before[2 * i] && smt.high(literal) == before[2 * i + 1]) {continue;}
+                for (int other : occurrences[literal]) {
+                    if (!listed[other] || queued[other]) {continue;}
+                    queued[other] = true;
+                    queue[(head + size) % queue.length] = other;
+                    size++;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            queued[queue[(head + i) % queue.length]] = false;
+        }
+        for (int c : clauses) {
+            listed[c] = false;
+        }
+        return consistent;
+    }
+
+    // One HC4 pass over the clause; false if it cannot take the value
+    private boolean revise(int c, boolean value) {
+        int[] ops = op[c];
+        int[] literals = smt.clauseLiterals(c);
+        int nodes = ops.length;
+        if (lo.length < nodes) {
+            lo = new long[nodes * 2];
+            hi = new long[nodes * 2];
+            exact = new boolean[nodes * 2];
+            empty = new boolean[nodes * 2];
+        }
+
+        boolean divisorMayBeZero = false;
+        for (int n = 0; n < nodes; n++) {
+            if (ops[n] == LEAF) {
+                int literal = literals[left[c][n]];
+                if (smt.isLocked(literal)) {
+                    lo[n] = smt.value(literal);
+                    hi[n] = lo[n];
+                } else {
+                    lo[n] = smt.low(literal);
+                    hi[n] = smt.high(literal);
+                }
+                if (lo[n] > hi[n]) {return false;}
+                exact[n] = true;
+                empty[n] = false;
+                continue;
+            }
+            int l = left[c][n];
+            int r = right[c][n];
+            if ((ops[n] == SMTOperator.DIV || ops[n] == SMTOperator.MOD) && lo[r] <= 0 && hi[r] >= 0) {divisorMayBeZero = true;}
+            forward(n, ops[n], l, r);
+        }
+
+        int root = nodes - 1;
+        // An empty node means some divisor is zero on every assignment: the clause is false
+        if (empty[root]) {return !value;}
+        if (!value && divisorMayBeZero) {return true;}
+
+        if (value) {
+            if (!excludeZero(root)) {return false;}
+        } else if (!narrow(root, 0, 0)) {
+            return false;
+        }
+        for (int n = root; n >= 0; n--) {
+            if (ops[n] == LEAF || !exact[n]) {continue;}
+            int l = left[c][n];
+            int r = right[c][n];
+            if (value && (ops[n] == SMTOperator.DIV || ops[n] == SMTOperator.MOD) && !excludeZero(r)) {return false;}
+            if (!backward(n, ops[n], l, r)) {return false;}
+        }
+
+        for (int n = 0; n < nodes; n++) {
+            if (ops[n] != LEAF) {continue;}
+            int literal = literals[left[c][n]];
+            if (smt.isLocked(literal)) {continue;}
+            // Leaves were read from the domain and only narrowed, so they fit in an int
+            if (lo[n] > smt.low(literal)) {smt.setLow(literal, (int) lo[n]);}
+            if (hi[n] < smt.high(literal)) {smt.setHigh(literal, (int) hi[n]);}
+            if (smt.low(literal) > smt.high(literal)) {return false;}
+        }
+        return true;
+    }
+
+    private void forward(int n, int kind, int l, int r) {
+        empty[n] = empty[l] || empty[r];
+        exact[n] = true;
+        if (empty[n]) {return;}
+        long a = lo[l];
+        long b = hi[l];
+        long c = lo[r];
+        long d = hi[r];
+        switch (kind) {
+            case SMTOperator.ADD:
+                set(n, a + c, b + d);
+                break;
+            case SMTOperator.SUB:
+                set(n, a - d, b - c);
+                break;
+            case SMTOperator.MUL:
+                set(n, Math.min(Math.min(a * c, a * d), Math.min(b * c, b * d)),
+                        Math.max(Math.max(a * c, a * d), Math.max(b * c, b * d)));
+                break;
+            case SMTOperator.DIV: {
+                // Truncating division is monotone in each operand on either side of zero
+                long low = Long.MAX_VALUE;
+                long high = Long.MIN_VALUE;
+                if (d >= 1) {
+                    long from = Math.max(c, 1);
+                    low = Math.min(Math.min(a / from, a / d), Math.min(b / from, b / d));
+                    high = Math.max(Math.max(a / from, a / d), Math.max(b / from, b / d));
+                }
+                if (c <= -1) {
+                    long to = Math.min(d, -1);
+                    low = Math.min(low, Math.min(Math.min(a / c, a / to), Math.min(b / c, b / to)));
+                    high = Math.max(high, Math.max(Math.max(a / c, a / to), Math.max(b / c, b / to)));
+                }
+                if (low > high) {
+                    empty[n] = true;
+                } else {
+                    set(n, low, high);
+                }
+                break;
+            }
+            case SMTOperator.MOD: {
+                if (c == 0 && d == 0) {
+                    empty[n] = true;
+                    break;
+                }
+                // |l % r| < |r| and the result has the sign of l
+                long bound = Math.max(Math.abs(c), Math.abs(d)) - 1;
+                set(n, a >= 0 ? 0 : Math.max(a, -bound), b <= 0 ? 0 : Math.min(b, bound));
+                break;
+            }
+            case SMTOperator.LT:
+                truth(n, b < c, a >= d);
+                break;
+            case SMTOperator.LE:
+                truth(n, b <= c, a > d);
+                break;
+            case SMTOperator.GT:
+                truth(n, a > d, b <= c);
+                break;
+            case SMTOperator.GE:
+                truth(n, a >= d, b < c);
+                break;
+            case SMTOperator.EQ:
+                truth(n, a == b && c == d && a == c, b < c || d < a);
+                break;
+            default:
+                truth(n, b < c || d < a, a == b && c == d && a == c);
+        }
+    }
+
+    // Narrows l and r so that they can still produce the value range of n
+    private boolean backward(int n, int kind, int l, int r) {
+        switch (kind) {
+            case SMTOperator.ADD:
+                return narrow(l, lo[n] - hi[r], hi[n] - lo[r]) && narrow(r, lo[n] - hi[l], hi[n] - lo[l]);
+            case SMTOperator.SUB:
+                return narrow(l, lo[n] + lo[r], hi[n] + hi[r]) && narrow(r, lo[l] - hi[n], hi[l] - lo[n]);
+            case SMTOperator.MUL:
+                return quotient(l, n, r) && quotient(r, n, l);
+            case SMTOperator.DIV: {
+                // l = n * r + remainder, |remainder| < |r|
+                long slack = Math.max(Math.abs(lo[r]), Math.abs(hi[r])) - 1;
+                long low = Math.min(Math.min(lo[n] * lo[r], lo[n] * hi[r]), Math.min(hi[n] * lo[r], hi[n] * hi[r]));
+                long high = Math.max(Math.max(lo[n] * lo[r], lo[n] * hi[r]), Math.max(hi[n] * lo[r], hi[n] * hi[r]));
+                return narrow(l, low - slack, high + slack);
+            }
+            case SMTOperator.MOD: {
+                if (lo[n] > 0 && !narrow(l, 1, Long.MAX_VALUE)) {return false;}
+                if (hi[n] < 0 && !narrow(l, Long.MIN_VALUE, -1)) {return false;}
+                // |r| exceeds the smallest |n| can be
+                long least = lo[n] > 0 ? lo[n] + 1 : hi[n] < 0 ? 1 - hi[n] : 1;
+                if (lo[r] > 0) {return narrow(r, least, Long.MAX_VALUE);}
+                if (hi[r] < 0) {return narrow(r, Long.MIN_VALUE, -least);}
+                return true;
+            }
+            default:
+                if (lo[n] == hi[n]) {return compare(kind, lo[n] != 0, l, r);}
+                return true;
+        }
+    }
+
+    // Narrows l and r so that "l kind r" has the given truth value
+    private boolean compare(int kind, boolean value, int l, int r) {
+        switch (kind) {
+            case SMTOperator.LT:
+                return value ? less(l, r, 1) : less(r, l, 0);
+            case SMTOperator.LE:
+                return value ? less(l, r, 0) : less(r, l, 1);
+            case SMTOperator.GT:
+                return value ? less(r, l, 1) : less(l, r, 0);
+            case SMTOperator.GE:
+                return value ? less(r, l, 0) : less(l, r, 1);
+            case SMTOperator.EQ:
+                return value ? equal(l, r) : different(l, r);
+            default:
+                return value ? different(l, r) : equal(l, r);
+        }
+    }
+
+    // l + gap <= r
+    private boolean less(int l, int r, long gap) {
+        return narrow(l, Long.MIN_VALUE, hi[r] - gap) && narrow(r, lo[l] + gap, Long.MAX_VALUE);
+    }
+
+    private boolean equal(int l, int r) {
+        return narrow(l, lo[r], hi[r]) && narrow(r, lo[l], hi[l]);
+    }
+
+    // Only a bound equal to the other side's single value can go
+    private boolean different(int l, int r) {
+        if (lo[r] == hi[r] && !exclude(l, lo[r])) {return false;}
+        return lo[l] != hi[l] || exclude(r, lo[l]);
+    }
+
+    // x = n / y with y non-zero: x lies between the quotients of the corners
+    private boolean quotient(int x, int n, int y) {
+        if (lo[y] <= 0 && hi[y] >= 0) {return true;}
+        long low = Long.MAX_VALUE;
+        long high = Long.MIN_VALUE;
+        for (long p : new long[] {lo[n], hi[n]}) {
+            for (long q : new long[] {lo[y], hi[y]}) {
+                low = Math.min(low, -Math.floorDiv(-p, q));
+                high = Math.max(high, Math.floorDiv(p, q));
+            }
+        }
+        return narrow(x, low, high);
+    }
+
+    private boolean excludeZero(int n) {
+        return exclude(n, 0);
+    }
+
+    private boolean exclude(int n, long value) {
+        if (lo[n] == value) {lo[n]++;}
+        if (hi[n] == value) {hi[n]--;}
+        return lo[n] <= hi[n];
+    }
+
+    private boolean narrow(int n, long low, long high) {
+        if (low > lo[n]) {lo[n] = low;}
+        if (high < hi[n]) {hi[n] = high;}
+        return lo[n] <= hi[n];
+    }
+
+    // A range beyond the int range may wrap to anything
+    private void set(int n, long low, long high) {
+        if (low < Integer.MIN_VALUE || high > Integer.MAX_VALUE) {
+            lo[n] = Integer.MIN_VALUE;
+            hi[n] = Integer.MAX_VALUE;
+            exact[n] = false;
+        } else {
+            lo[n] = low;
+            hi[n] = high;
+        }
+    }
+
+    private void truth(int n, boolean alwaysTrue, boolean alwaysFalse) {
+        lo[n] = alwaysTrue ? 1 : 0;
+        hi[n] = alwaysFalse ? 0 : 1;
+    }
+
+    /**
+     * Shunting-yard over the clause's literals and operators; every level is
+     * left-associative. A leaf's left entry is the position of its literal
+     * in the clause.
+     */
+    private void parse(int c) {
+        SMTClause clause = smt.atom.clauses.get(c);
+        if (clause == null || clause.literals == null || clause.operators == null) {return;}
+        int count = clause.literals.size();
+        if (count < 2 || clause.operators.size() != count - 1) {return;}
+        int[] kinds = new int[count - 1];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = clause.operators.get(i).kind;
+            if (kinds[i] == SMTOperator.UNKNOWN) {return;}
+        }
+
+        ArrayList<int[]> nodes = new ArrayList<>();
+        int[] values = new int[count];
+        int valueSize = 0;
+        int[] pending = new int[kinds.length];
+        int pendingSize = 0;
+        nodes.add(new int[] {LEAF, 0, 0});
+        values[valueSize++] = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            while (pendingSize > 0 && level(pending[pendingSize - 1]) <= level(kinds[i])) {
+                int r = values[--valueSize];
+                int l = values[--valueSize];
+                nodes.add(new int[] {pending[--pendingSize], l, r});
+                values[valueSize++] = nodes.size() - 1;
+            }
+            pending[pendingSize++] = kinds[i];
+            nodes.add(new int[] {LEAF, i + 1, 0});
+            values[valueSize++] = nodes.size() - 1;
+        }
+        while (pendingSize > 0) {
+            int r = values[--valueSize];
+            int l = values[--valueSize];
+            nodes.add(new int[] {pending[--pendingSize], l, r});
+            values[valueSize++] = nodes.size() - 1;
+        }
+
+        op[c] = new int[nodes.size()];
+        left[c] = new int[nodes.size()];
+        right[c] = new int[nodes.size()];
+        for (int n = 0; n < nodes.size(); n++) {
+            op[c][n] = nodes.get(n)[0];
+            left[c][n] = nodes.get(n)[1];
+            right[c][n] = nodes.get(n)[2];
+        }
+    }
+
+    // Binding strength, tightest first
+    private static int level(int kind) {
+        if (kind == SMTOperator.MUL || kind == SMTOperator.DIV || kind == SMTOperator.MOD) {return 0;}
+        if (kind == SMTOperator.ADD || kind == SMTOperator.SUB) {return 1;}
+        if (kind == SMTOperator.EQ || kind == SMTOperator.NE) {return 3;}
+        return 2;
+    }
+
+    private static int[] distinct(int[] literals) {
+        int[] sorted = literals.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {sorted[size++] = sorted[i];}
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+}
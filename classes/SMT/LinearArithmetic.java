@@ -0,0 +1,577 @@
+package SMT;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+import SAT.SolveStatus;
+
+/**
+ * Theory solver for linear clauses: one comparison or equality between
+ * sums and differences of terms, where a term is a product with at most one
+ * unlocked literal (a constant times a literal). With locked literals folded
+ * in, such a clause says sum(a_i * x_i) + k ⋈ 0, and with its truth value
+ * from the Boolean model that becomes a bound on a slack variable
+ * s = sum(a_i * x_i), or for a true "!=" (a false "=") s != -k.
+ *
+ * The bounds are checked with the general simplex of Dutertre and de Moura
+ * over exact fractions: a tableau expressing the basic variables in terms of
+ * the others, an assignment within every non-basic bound, and pivots (by
+ * Bland's rule, so it terminates) until every basic variable is within its
+ * bounds too or a row shows that it cannot be. Every bound carries the
+ * clauses it came from, so an infeasible row yields its explanation.
+ *
+ * The literals are integers, so a feasible fractional assignment is split
+ * by branch and bound: x <= floor(v) in one branch, x >= ceil(v) in the
+ * other, and the same for a slack sitting on a value it must differ from.
+ * Between pivots, rows also tighten variable bounds, rounded inward, which
+ * keeps the branching shallow. A slack only takes multiples of the gcd of
+ * its coefficients, so its bounds are rounded inward to those multiples
+ * too: 3*p + 3*q >= 1 and 3*p + 3*q <= 2 become s >= 3 and s <= 0, which
+ * the relaxation already refutes. None of this depends on how wide the
+ * literals' domains are.
+ */
+public final class LinearArithmetic {
+    private static final long NONE_BELOW = Long.MIN_VALUE;
+    private static final long NONE_ABOVE = Long.MAX_VALUE;
+    private static final int[] NO_REASON = {};
+    private static final int PROPAGATION_ROUNDS = 8;
+    private static final int MAX_DEPTH = 2_000;
+
+    private final SMTContext smt;
+    // Per clause: its linear reading, null if it is not linear
+    private final LinearClause[] linear;
+
+    // The problem of the current check: originals are literals, the rest one slack per clause
+    private int originals;
+    private int[] literalOf;
+    private Rational[][] rows;
+    private int[] basicOf;
+    private int[] rowOf;
+    private Rational[] value;
+    private long[] lower;
+    private long[] upper;
+    // Every value a variable can take is a multiple of its step: 1 for a literal, the coefficients' gcd for a slack
+    private long[] step;
+    private int[][] lowerReason;
+    private int[][] upperReason;
+    // Slacks that must differ from a value, and the clauses saying so
+    private int[] differVar;
+    private long[] differValue;
+    private int[] differClause;
+    private int differCount;
+    private int[] conflict;
+    private BooleanSupplier exhausted;
+
+    public LinearArithmetic(SMTContext smt) {
+        this.smt = smt;
+        int clauseCount = smt.atom.clauses.size();
+        linear = new LinearClause[clauseCount];
+        for (int c = 0; c < clauseCount; c++) {
+            linear[c] = LinearClause.parse(smt, c);
+        }
+    }
+
+    // Whether every listed clause is linear
+    public boolean covers(int[] clauses) {
+        for (int c : clauses) {
+            if (linear[c] == null) {return false;}
+        }
+        return true;
+    }
+
+    // The clauses of the last UNSAT check, which cannot all have their expected values together
+    public int[] conflict() {
+        return conflict;
+    }
+
+    /**
+     * Checks the listed clauses, which must be {@link #covers covered}, for
+     * their expected values: SAT with the context's values set to a model,
+     * UNSAT with {@link #conflict()} set, or UNKNOWN once exhausted says so
+     * or a fraction no longer fits in a long.
+     */
+    public SolveStatus check(int[] clauses, BooleanSupplier exhausted) {
+        smt.reset();
+        this.exhausted = exhausted;
+        conflict = null;
+        try {
+            if (!build(clauses)) {return SolveStatus.UNSAT;}
+            SolveStatus status = search(0);
+            if (status == SolveStatus.SAT) {
+                for (int v = 0; v < originals; v++) {
+                    // An integer within the literal's domain bounds
+                    smt.setValue(literalOf[v], (int) value[v].num);
+                }
+            }
+            return status;
+        } catch (ArithmeticException e) {
+            return SolveStatus.UNKNOWN;
+        }
+    }
+
+    /**
+     * Branch and bound: tightens bounds until the relaxation has a solution,
+     * then splits on the first literal with a fractional value or slack on a
+     * forbidden one. A branch's bound follows from the integers (or the
+     * disequality) alone, so the conflicts of both branches together explain
+     * the node's.
+     */
+    private SolveStatus search(int depth) {
+        if (depth > MAX_DEPTH) {return SolveStatus.UNKNOWN;}
+        for (int round = 0; ; round++) {
+            if (exhausted.getAsBoolean()) {return SolveStatus.UNKNOWN;}
+            if (!simplex()) {return SolveStatus.UNSAT;}
+            if (round == PROPAGATION_ROUNDS) {break;}
+            if (!propagate()) {return SolveStatus.UNSAT;}
+            if (feasible()) {break;}
+        }
+
+        for (int v = 0; v < originals; v++) {
+            if (!value[v].isInteger()) {return branch(v, value[v].floor(), value[v].ceil(), NO_REASON, depth);}
+        }
+        for (int i = 0; i < differCount; i++) {
+            int v = differVar[i];
+            if (value[v].compareTo(differValue[i]) == 0) {
+                return branch(v, differValue[i] - 1, differValue[i] + 1, new int[] {differClause[i]}, depth);
+            }
+        }
+        return SolveStatus.SAT;
+    }
+
+    private SolveStatus branch(int v, long below, long above, int[] reason, int depth) {
+        long[] savedLower = lower.clone();
+        long[] savedUpper = upper.clone();
+        int[][] savedLowerReason = lowerReason.clone();
+        int[][] savedUpperReason = upperReason.clone();
+
+        if (assertUpper(v, below, reason)) {
+            SolveStatus status = search(depth + 1);
+            if (status != SolveStatus.UNSAT) {return status;}
+        }
+        int[] first = conflict;
+        restore(savedLower, savedUpper, savedLowerReason, savedUpperReason);
+
+        if (assertLower(v, above, reason)) {
+            SolveStatus status = search(depth + 1);
+            if (status != SolveStatus.UNSAT) {return status;}
+        }
+        int[] second = conflict;
+        restore(savedLower, savedUpper, savedLowerReason, savedUpperReason);
+        conflict = union(first, second);
+        return SolveStatus.UNSAT;
+    }
+
+    private void restore(long[] savedLower, long[] savedUpper, int[][] savedLowerReason, int[][] savedUpperReason) {
+        // Looser bounds than before, so the non-basic values stay within them
+        System.arraycopy(savedLower, 0, lower, 0, lower.length);
+        System.arraycopy(savedUpper, 0, upper, 0, upper.length);
+        System.arraycopy(savedLowerReason, 0, lowerReason, 0, lowerReason.length);
+        System.arraycopy(savedUpperReason, 0, upperReason, 0, upperReason.length);
+    }
+
+    // Whether every basic variable is within its bounds
+    private boolean feasible() {
+        for (int r = 0; r < rows.length; r++) {
+            int b = basicOf[r];
+            if (value[b].compareTo(lower[b]) < 0 || value[b].compareTo(upper[b]) > 0) {return false;}
+        }
+        return true;
+    }
+
+    /**
+     * Repairs basic variables outside their bounds by pivoting them with a
+     * non-basic variable that still has room, lowest index first. False with
+     * the conflict set when some row has none: its bounds already hold the
+     * basic variable on the wrong side.
+     */
+    private boolean simplex() {
+        while (true) {
+            int b = -1;
+            for (int v = 0; v < value.length; v++) {
+                if (rowOf[v] >= 0 && (value[v].compareTo(lower[v]) < 0 || value[v].compareTo(upper[v]) > 0)) {
+                    b = v;
+                    break;
+                }
+            }
+            if (b < 0) {return true;}
+
+            int r = rowOf[b];
+            boolean raise = value[b].compareTo(lower[b]) < 0;
+            int entering = -1;
+            for (int j = 0; j < value.length; j++) {
+                int sign = rows[r][j].signum();
+                if (sign == 0) {continue;}
+                boolean up = (sign > 0) == raise;
+                if (up ? value[j].compareTo(upper[j]) < 0 : value[j].compareTo(lower[j]) > 0) {
+                    entering = j;
+                    break;
+                }
+            }
+            if (entering < 0) {
+                int[] reason = raise ? lowerReason[b] : upperReason[b];
+                for (int j = 0; j < value.length; j++) {
+                    int sign = rows[r][j].signum();
+                    if (sign == 0) {continue;}
+                    reason = union(reason, (sign > 0) == raise ? upperReason[j] : lowerReason[j]);
+                }
+                conflict = reason;
+                return false;
+            }
+            pivotAndUpdate(r, entering, raise ? lower[b] : upper[b]);
+        }
+    }
+
+    // Moves row r's basic variable to target through j, then makes j basic in its place
+    private void pivotAndUpdate(int r, int j, long target) {
+        int b = basicOf[r];
+        Rational theta = Rational.of(target).subtract(value[b]).divide(rows[r][j]);
+        value[b] = Rational.of(target);
+        value[j] = value[j].add(theta);
+        for (int k = 0; k < rows.length; k++) {
+            if (k != r && rows[k][j].signum() != 0) {
+                value[basicOf[k]] = value[basicOf[k]].add(rows[k][j].multiply(theta));
+            }
+        }
+
+        // b = a * x_j + rest, so x_j = b / a - rest / a
+        Rational[] row = rows[r];
+        Rational a = row[j];
+        for (int v = 0; v < row.length; v++) {
+            if (row[v].signum() != 0) {row[v] = row[v].negate().divide(a);}
+        }
+        row[j] = Rational.ZERO;
+        row[b] = Rational.ONE.divide(a);
+        for (int k = 0; k < rows.length; k++) {
+            Rational factor = rows[k][j];
+            if (k == r || factor.signum() == 0) {continue;}
+            for (int v = 0; v < row.length; v++) {
+                if (row[v].signum() != 0) {rows[k][v] = rows[k][v].add(factor.multiply(row[v]));}
+            }
+            rows[k][j] = Rational.ZERO;
+        }
+        basicOf[r] = j;
+        rowOf[j] = r;
+        rowOf[b] = -1;
+    }
+
+    /**
+     * Reads every row as sum(c_u * x_u) = 0 (the basic variable with -1) and
+     * bounds each variable by what the others' bounds leave for it, rounded
+     * inward. False with the conflict set when a variable is left no value.
+     */
+    private boolean propagate() {
+        for (int r = 0; r < rows.length; r++) {
+            Rational[] row = rows[r];
+            int b = basicOf[r];
+            for (int v = 0; v < value.length; v++) {
+                Rational c = v == b ? Rational.ONE.negate() : row[v];
+                if (c.signum() == 0) {continue;}
+                // c * x_v = -sum(c_u * x_u) over the others, which lies in [least, most]
+                Rational least = Rational.ZERO;
+                Rational most = Rational.ZERO;
+                int[] leastReason = NO_REASON;
+                int[] mostReason = NO_REASON;
+                for (int u = 0; u < value.length && (least != null || most != null); u++) {
+                    Rational d = u == b ? Rational.ONE.negate() : row[u];
+                    if (u == v || d.signum() == 0) {continue;}
+                    // -d * x_u is least at x_u's upper bound when d is positive
+                    long low = d.signum() > 0 ? upper[u] : lower[u];
+                    long high = d.signum() > 0 ? lower[u] : upper[u];
+                    if (least != null) {
+                        if (low == NONE_BELOW || low == NONE_ABOVE) {
+                            least = null;
+                        } else {
+                            least = least.subtract(d.multiply(Rational.of(low)));
+                            leastReason = union(leastReason, d.signum() > 0 ? upperReason[u] : lowerReason[u]);
+                        }
+                    }
+                    if (most != null) {
+                        if (high == NONE_BELOW || high == NONE_ABOVE) {
+                            most = null;
+                        } else {
+                            most = most.subtract(d.multiply(Rational.of(high)));
+                            mostReason = union(mostReason, d.signum() > 0 ? lowerReason[u] : upperReason[u]);
+                        }
+                    }
+                }
+                Rational below = c.signum() > 0 ? least : most;
+                Rational above = c.signum() > 0 ? most : least;
+                int[] belowReason = c.signum() > 0 ? leastReason : mostReason;
+                int[] aboveReason = c.signum() > 0 ? mostReason : leastReason;
+                if (below != null && !assertLower(v, below.divide(c).ceil(), belowReason)) {return false;}
+                if (above != null && !assertUpper(v, above.divide(c).floor(), aboveReason)) {return false;}
+            }
+        }
+        return true;
+    }
+
+    // x_v <= bound; false with the conflict set if that leaves no value
+    private boolean assertUpper(int v, long bound, int[] reason) {
+        bound = floorTo(bound, step[v]);
+        if (bound >= upper[v]) {return true;}
+        if (bound < lower[v]) {
+            conflict = union(reason, lowerReason[v]);
+            return false;
+        }
+        upper[v] = bound;
+        upperReason[v] = reason;
+        if (rowOf[v] < 0 && value[v].compareTo(bound) > 0) {update(v, Rational.of(bound));}
+        return true;
+    }
+
+    private boolean assertLower(int v, long bound, int[] reason) {
+        bound = ceilTo(bound, step[v]);
+        if (bound <= lower[v]) {return true;}
+        if (bound > upper[v]) {
+            conflict = union(reason, upperReason[v]);
+            return false;
+        }
+        lower[v] = bound;
+        lowerReason[v] = reason;
+        if (rowOf[v] < 0 && value[v].compareTo(bound) < 0) {update(v, Rational.of(bound));}
+        return true;
+    }
+
+    // Sets a non-basic variable, carrying the change into the basic ones
+    private void update(int j, Rational to) {
+        Rational delta = to.subtract(value[j]);
+        for (int r = 0; r < rows.length; r++) {
+            if (rows[r][j].signum() != 0) {value[basicOf[r]] = value[basicOf[r]].add(rows[r][j].multiply(delta));}
+        }
+        value[j] = to;
+    }
+
+    /**
+     * Sets up the tableau for the listed clauses: a slack row per clause with
+     * literals, bounded by what its truth value requires, and each literal
+     * bounded by its domain. Slack bounds are rounded inward to multiples of
+     * the row's gcd, and a disequality no multiple can meet is dropped. False
+     * with the conflict set when a clause can be decided right away: it has
+     * no unlocked literal, or it is an equality whose coefficients share a
+     * factor its constant does not have.
+     */
+    private boolean build(int[] clauses) {
+        int[] variableOf = new int[smt.literalCount()];
+        Arrays.fill(variableOf, -1);
+        literalOf = new int[smt.literalCount()];
+        originals = 0;
+        int rowCount = 0;
+        for (int c : clauses) {
+            if (linear[c].literals.length > 0) {rowCount++;}
+            for (int literal : linear[c].literals) {
+                if (variableOf[literal] < 0) {
+                    variableOf[literal] = originals;
+                    literalOf[originals++] = literal;
+                }
+            }
+        }
+
+        int size = originals + rowCount;
+        rows = new Rational[rowCount][size];
+        basicOf = new int[rowCount];
+        rowOf = new int[size];
+        value = new Rational[size];
+        lower = new long[size];
+        upper = new long[size];
+        step = new long[size];
+        lowerReason = new int[size][];
+        upperReason = new int[size][];
+        differVar = new int[rowCount];
+        differValue = new long[rowCount];
+        differClause = new int[rowCount];
+        differCount = 0;
+        Arrays.fill(rowOf, -1);
+        Arrays.fill(step, 1);
+        Arrays.fill(lowerReason, NO_REASON);
+        Arrays.fill(upperReason, NO_REASON);
+        for (Rational[] row : rows) {
+            Arrays.fill(row, Rational.ZERO);
+        }
+        for (int v = 0; v < originals; v++) {
+            int literal = literalOf[v];
+            lower[v] = smt.low(literal);
+            upper[v] = smt.high(literal);
+            if (lower[v] > upper[v]) {
+                conflict = NO_REASON;
+                return false;
+            }
+            value[v] = Rational.of(Math.max(lower[v], Math.min(upper[v], 0)));
+        }
+
+        int r = 0;
+        for (int c : clauses) {
+            LinearClause clause = linear[c];
+            long k = clause.constant;
+            boolean expected = smt.expected(c);
+            int kind = clause.relation;
+            if (clause.literals.length == 0) {
+                if (LinearClause.holds(kind, k) != expected) {
+                    conflict = new int[] {c};
+                    return false;
+                }
+                continue;
+            }
+            int s = originals + r;
+            basicOf[r] = s;
+            rowOf[s] = r;
+            Rational sum = Rational.ZERO;
+            long divisor = 0;
+            for (int i = 0; i < clause.literals.length; i++) {
+                int v = variableOf[clause.literals[i]];
+                rows[r][v] = Rational.of(clause.coefficients[i]);
+                sum = sum.add(rows[r][v].multiply(value[v]));
+                divisor = gcd(divisor, clause.coefficients[i]);
+            }
+            value[s] = sum;
+            step[s] = divisor;
+            lower[s] = NONE_BELOW;
+            upper[s] = NONE_ABOVE;
+            int[] reason = {c};
+            lowerReason[s] = reason;
+            upperReason[s] = reason;
+            // s + k ⋈ 0 with the expected truth value
+            boolean equal = kind == SMTOperator.EQ || kind == SMTOperator.NE;
+            if (equal && (kind == SMTOperator.EQ) == expected) {
+                if (Math.floorMod(k, divisor) != 0) {
+                    conflict = reason;
+                    return false;
+                }
+                lower[s] = -k;
+                upper[s] = -k;
+            } else if (equal) {
+                if (Math.floorMod(k, divisor) == 0) {
+                    differVar[differCount] = s;
+                    differValue[differCount] = -k;
+                    differClause[differCount++] = c;
+                }
+            } else if ((kind == SMTOperator.LT) == expected && (kind == SMTOperator.LT || kind == SMTOperator.GE)) {
+                upper[s] = floorTo(-k - 1, divisor);
+            } else if (kind == SMTOperator.LT || kind == SMTOperator.GE) {
+                lower[s] = ceilTo(-k, divisor);
+            } else if ((kind == SMTOperator.LE) == expected) {
+                upper[s] = floorTo(-k, divisor);
+            } else {
+                lower[s] = ceilTo(1 - k, divisor);
+            }
+            r++;
+        }
+        return true;
+    }
+
+    // Sorted union of two sorted clause lists
+    private static int[] union(int[] a, int[] b) {
+        if (a == b || b.length == 0) {return a;}
+        if (a.length == 0) {return b;}
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length || j < b.length) {
+            int next = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i] : b[j];
+            if (i < a.length && a[i] == next) {i++;}
+            if (j < b.length && b[j] == next) {j++;}
+            result[size++] = next;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    // The largest multiple of step at most bound
+    private static long floorTo(long bound, long step) {
+        return Math.multiplyExact(Math.floorDiv(bound, step), step);
+    }
+
+    // The smallest multiple of step at least bound
+    private static long ceilTo(long bound, long step) {
+        return Math.multiplyExact(-Math.floorDiv(Math.negateExact(bound), step), step);
+    }
+
+    static long gcd(long a, long b) {
+        a = Math.absExact(a);
+        b = Math.absExact(b);
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // An exact fraction in lowest terms with a positive denominator; overflow throws ArithmeticException
+    private static final class Rational {
+        static final Rational ZERO = new Rational(0, 1);
+        static final Rational ONE = new Rational(1, 1);
+
+        final long num;
+        final long den;
+
+        private Rational(long num, long den) {
+            this.num = num;
+            this.den = den;
+        }
+
+        static Rational of(long value) {
+            return new Rational(value, 1);
+        }
+
+        static Rational of(long num, long den) {
+            if (den < 0) {
+                num = Math.negateExact(num);
+                den = Math.negateExact(den);
+            }
+            long g = gcd(num, den);
+            return g <= 1 ? new Rational(num, den) : new Rational(num / g, den / g);
+        }
+
+        Rational add(Rational o) {
+            if (den == 1 && o.den == 1) {return of(Math.addExact(num, o.num));}
+            return of(Math.addExact(Math.multiplyExact(num, o.den), Math.multiplyExact(o.num, den)), Math.multiplyExact(den, o.den));
+        }
+
+        Rational subtract(Rational o) {
+            return add(o.negate());
+        }
+
+        Rational negate() {
+            return new Rational(Math.negateExact(num), den);
+        }
+
+        Rational multiply(Rational o) {
+            if (num == 0 || o.num == 0) {return ZERO;}
+            // Cross-cancel first so the products stay small
+            long g1 = gcd(num, o.den);
+            long g2 = gcd(o.num, den);
+            return of(Math.multiplyExact(num / g1, o.num / g2), Math.multiplyExact(den / g2, o.den / g1));
+        }
+
+        Rational divide(Rational o) {
+            if (o.num == 0) {throw new ArithmeticException("division by zero");}
+            return multiply(new Rational(o.den, o.num).normalizedSign());
+        }
+
+        private Rational normalizedSign() {
+            return den < 0 ? new Rational(Math.negateExact(num), Math.negateExact(den)) : this;
+        }
+
+        int signum() {
+            return Long.signum(num);
+        }
+
+        int compareTo(long value) {
+            if (value == NONE_BELOW) {return 1;}
+            if (value == NONE_ABOVE) {return -1;}
+            return Long.compare(num, Math.multiplyExact(value, den));
+        }
+
+        boolean isInteger() {
+            return den == 1;
+        }
+
+        long floor() {
+            return Math.floorDiv(num, den);
+        }
+
+        long ceil() {
+            return -Math.floorDiv(-num, den);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package SMT;
+
+/**
+ * A clause read as one comparison or equality between sums and differences
+ * of terms, where a term is a product with at most one unlocked literal.
+ * With the locked literals folded in it says
+ * sum(coefficients[i] * literals[i]) + constant ⋈ 0, each literal listed
+ * once with a non-zero coefficient. DifferenceLogic takes the ones that
+ * leave at most x - y, LinearArithmetic all of them.
+ */
+final class LinearClause {
+    // SMTOperator.LT through SMTOperator.NE
+    final int relation;
+    final int[] literals;
+    final long[] coefficients;
+    final long constant;
+
+    private LinearClause(int relation, int[] literals, long[] coefficients, long constant) {
+        this.relation = relation;
+        this.literals = literals;
+        this.coefficients = coefficients;
+        this.constant = constant;
+    }
+
+    /**
+     * Reads clause c under the context's locked values, or returns null if
+     * it is not linear. The literals' domains must keep each side within an
+     * int: the evaluator computes modulo 2^32, which matches the exact value
+     * only when that fits.
+     */
+    static LinearClause parse(SMTContext smt, int c) {
+        try {
+            return read(smt, c);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static LinearClause read(SMTContext smt, int c) {
+        SMTClause clause = smt.atom.clauses.get(c);
+        if (clause == null || clause.literals == null || clause.operators == null) {return null;}
+        int count = clause.literals.size();
+        if (count < 2 || clause.operators.size() != count - 1) {return null;}
+        int at = -1;
+        for (int i = 0; i < count - 1; i++) {
+            int kind = clause.operators.get(i).kind;
+            if (kind == SMTOperator.ADD || kind == SMTOperator.SUB || kind == SMTOperator.MUL) {continue;}
+            if (at >= 0 || !SMTOperator.isRelation(kind)) {return null;}
+            at = i;
+        }
+        if (at < 0) {return null;}
+
+        int[] clauseLiterals = smt.clauseLiterals(c);
+        int[] found = new int[count];
+        long[] sums = new long[count];
+        int distinct = 0;
+        long k = 0;
+        long[] magnitude = new long[2];
+        int i = 0;
+        while (i < count) {
+            // One term: literals i..end joined by *
+            boolean left = i <= at;
+            boolean minus = i != 0 && i != at + 1 && clause.operators.get(i - 1).kind == SMTOperator.SUB;
+            long product = left != minus ? 1 : -1;
+            long bound = 1;
+            int variable = -1;
+            int end = i;
+            while (true) {
+                int literal = clauseLiterals[end];
+                if (smt.isLocked(literal)) {
+                    product = Math.multiplyExact(product, smt.value(literal));
+                    bound = Math.multiplyExact(bound, Math.abs((long) smt.value(literal)));
+                } else {
+                    if (variable >= 0) {return null;}
+                    variable = literal;
+                    bound = Math.multiplyExact(bound, Math.max(Math.abs((long) smt.low(literal)), Math.abs((long) smt.high(literal))));
+                }
+                if (end == count - 1 || clause.operators.get(end).kind != SMTOperator.MUL) {break;}
+                end++;
+            }
+            magnitude[left ? 0 : 1] = Math.addExact(magnitude[left ? 0 : 1], bound);
+            if (variable < 0) {
+                k = Math.addExact(k, product);
+            } else {
+                // Terms of the same literal are merged at its first occurrence
+                int j = 0;
+                while (j < distinct && found[j] != variable) {j++;}
+                if (j == distinct) {found[distinct++] = variable;}
+                sums[j] = Math.addExact(sums[j], product);
+            }
+            i = end + 1;
+        }
+        if (magnitude[0] > Integer.MAX_VALUE || magnitude[1] > Integer.MAX_VALUE) {return null;}
+
+        int nonZero = 0;
+        for (int j = 0; j < distinct; j++) {
+            if (sums[j] != 0) {nonZero++;}
+        }
+        int[] literals = new int[nonZero];
+        long[] coefficients = new long[nonZero];
+        nonZero = 0;
+        for (int j = 0; j < distinct; j++) {
+            if (sums[j] == 0) {continue;}
+            literals[nonZero] = found[j];
+            coefficients[nonZero++] = sums[j];
+        }
+        return new LinearClause(clause.operators.get(at).kind, literals, coefficients, k);
+    }
+
+    // Whether the relation holds for a clause whose literals all cancelled, leaving constant ⋈ 0
+    static boolean holds(int relation, long constant) {
+        switch (relation) {
+            case SMTOperator.LT: return constant < 0;
+            case SMTOperator.LE: return constant <= 0;
+            case SMTOperator.GT: return constant > 0;
+            case SMTOperator.GE: return constant >= 0;
+            case SMTOperator.EQ: return constant == 0;
+            default: return constant != 0;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package SMT;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Everything one SMT solve changes: each literal's current value, domain and
+ * lock, the truth value the Boolean model gives each clause, the clause
+ * evaluation cache and the clauses compiled for evaluation. The atom, its clauses and their literals are only read
+ * (for the starting values, domains and locks), so any number of threads can
+ * solve the same atom at once, each with a context of its own.
+ *
+ * Literals are numbered 0..n-1 in order of first appearance in the atom's
+ * clauses; a literal object used in several clauses is one variable.
+ */
+public final class SMTContext {
+    public final Atom atom;
+
+    private final SMTLiteral[] literals;
+    private final Map<SMTLiteral, Integer> index = new IdentityHashMap<>();
+    // Per clause: the number of each of its literals, in clause order
+    private final int[][] clauseLiterals;
+    private final int[] initialValues;
+    private final int[] initialLow;
+    private final int[] initialHigh;
+    private final boolean[] initialLocked;
+    private final int[] values;
+    private final int[] low;
+    private final int[] high;
+    private final boolean[] locked;
+    private final boolean[] expected;
+
+    // Per clause: the literal values of the last evaluation and its result
+    private final int[][] cachedValues;
+    private final boolean[] cachedResult;
+    private final boolean[] cached;
+    private final int[][] scratch;
+    private final ClauseProgram[] programs;
+
+    public SMTContext(Atom atom) {
+        this.atom = atom;
+        int clauseCount = atom.clauses.size();
+        ArrayList<SMTLiteral> distinct = new ArrayList<>();
+        clauseLiterals = new int[clauseCount][];
+        for (int c = 0; c < clauseCount; c++) {
+            SMTClause clause = atom.clauses.get(c);
+            int size = clause == null || clause.literals == null ? 0 : clause.literals.size();
+            clauseLiterals[c] = new int[size];
+            for (int i = 0; i < size; i++) {
+                SMTLiteral literal = clause.literals.get(i);
+                Integer number = index.get(literal);
+                if (number == null) {
+                    number = distinct.size();
+                    index.put(literal, number);
+                    distinct.add(literal);
+                }
+                clauseLiterals[c][i] = number;
+            }
+        }
+
+        literals = distinct.toArray(new SMTLiteral[0]);
+        initialValues = new int[literals.length];
+        initialLow = new int[literals.length];
+        initialHigh = new int[literals.length];
+        initialLocked = new boolean[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            initialValues[i] = literals[i].value;
+            initialLow[i] = literals[i].domain[0];
+            initialHigh[i] = literals[i].domain[1];
+            initialLocked[i] = literals[i].isValueLocked;
+        }
+        values = initialValues.clone();
+        low = initialLow.clone();
+        high = initialHigh.clone();
+        locked = initialLocked.clone();
+
+        expected = new boolean[clauseCount];
+        cachedValues = new int[clauseCount][];
+        cachedResult = new boolean[clauseCount];
+        cached = new boolean[clauseCount];
+        scratch = new int[clauseCount][];
+        programs = new ClauseProgram[clauseCount];
+        for (int c = 0; c < clauseCount; c++) {
+            cachedValues[c] = new int[clauseLiterals[c].length];
+            scratch[c] = new int[clauseLiterals[c].length];
+            programs[c] = ClauseProgram.compile(atom.clauses.get(c));
+        }
+    }
+
+    // Back to the literals' own values, domains and locks, as before any inference
+    public void reset() {
+        System.arraycopy(initialValues, 0, values, 0, values.length);
+        System.arraycopy(initialLow, 0, low, 0, low.length);
+        System.arraycopy(initialHigh, 0, high, 0, high.length);
+        System.arraycopy(initialLocked, 0, locked, 0, locked.length);
+    }
+
+    public int literalCount() {
+        return literals.length;
+    }
+
+    public SMTLiteral literal(int i) {
+        return literals[i];
+    }
+
+    // -1 for a literal that occurs in no clause of the atom
+    public int indexOf(SMTLiteral literal) {
+        Integer number = index.get(literal);
+        return number == null ? -1 : number;
+    }
+
+    public int[] clauseLiterals(int clause) {
+        return clauseLiterals[clause];
+    }
+
+    public int value(int i) {
+        return values[i];
+    }
+
+    public void setValue(int i, int value) {
+        values[i] = value;
+    }
+
+    public int low(int i) {
+        return low[i];
+    }
+
+    public int high(int i) {
+        return high[i];
+    }
+
+    public void setLow(int i, int value) {
+        low[i] = value;
+    }
+
+    public void setHigh(int i, int value) {
+        high[i] = value;
+    }
+
+    public boolean isLocked(int i) {
+        return locked[i];
+    }
+
+    // Fixes the literal's value for the rest of the solve
+    public void lock(int i, int value) {
+        values[i] = value;
+        locked[i] = true;
+    }
+
+    // The truth value the Boolean model assigns to the clause
+    public boolean expected(int clause) {
+        return expected[clause];
+    }
+
+    public void setExpected(int clause, boolean value) {
+        expected[clause] = value;
+    }
+
+    /**
+     * The current values of the clause's literals, in clause order. The
+     * array belongs to the context and is refilled by the next call for the
+     * same clause.
+     */
+    public int[] clauseValues(int clause) {
+        int[] numbers = clauseLiterals[clause];
+        int[] result = scratch[clause];
+        for (int i = 0; i < numbers.length; i++) {
+            result[i] = values[numbers[i]];
+        }
+        return result;
+    }
+
+    // The clause's truth value for these values of its literals, in clause order
+    public boolean evaluate(int clause, int[] clauseValues) {
+        return programs[clause].evaluate(clauseValues);
+    }
+
+    // The cached result for exactly these literal values, or null
+    public Boolean cached(int clause, int[] clauseValues) {
+        if (!cached[clause]) {return null;}
+        int[] last = cachedValues[clause];
+        for (int i = 0; i < last.length; i++) {
+            if (last[i] != clauseValues[i]) {return null;}
+        }
+        return cachedResult[clause];
+    }
+
+    public void cache(int clause, int[] clauseValues, boolean result) {
+        System.arraycopy(clauseValues, 0, cachedValues[clause], 0, cachedValues[clause].length);
+        cachedResult[clause] = result;
+        cached[clause] = true;
+    }
+
+    /**
+     * A copy of the atom whose literals are locked to their current values.
+     * The clauses share the atom's operators; the literals are new objects,
+     * one per variable, so the input atom is left as it was.
+     */
+    public Atom model() {
+        SMTLiteral[] copies = new SMTLiteral[literals.length];
+        for (int i = 0; i < literals.length; i++) {
+            copies[i] = new SMTLiteral(true, values[i], literals[i].id);
+        }
+        ArrayList<SMTClause> clauses = new ArrayList<>();
+        for (int c = 0; c < clauseLiterals.length; c++) {
+            SMTClause original = atom.clauses.get(c);
+            SMTClause copy = new SMTClause();
+            if (original != null && original.literals != null) {
+                copy.literals = new ArrayList<>();
+                for (int number : clauseLiterals[c]) {
+                    copy.literals.add(copies[number]);
+                }
+            }
+            copy.operators = original == null || original.operators == null ? null : new ArrayList<>(original.operators);
+            clauses.add(copy);
+        }
+        return new Atom(clauses, atom.operators == null ? null : new ArrayList<>(atom.operators));
+    }
+}
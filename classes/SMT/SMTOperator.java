@@ -2,9 +2,51 @@ package SMT;
 
 
 public class SMTOperator {
-    public String operator;
+    // Kinds of the operators inside a clause, grouped by binding strength: * / %, then + -, then comparisons, then equalities
+    public static final int UNKNOWN = 0;
+    public static final int MUL = 1;
+    public static final int DIV = 2;
+    public static final int MOD = 3;
+    public static final int ADD = 4;
+    public static final int SUB = 5;
+    public static final int LT = 6;
+    public static final int LE = 7;
+    public static final int GT = 8;
+    public static final int GE = 9;
+    public static final int EQ = 10;
+    public static final int NE = 11;
+
+    public final String operator;
+    public final int kind;
 
     public SMTOperator(String operator){
         this.operator = operator;
+        this.kind = kind(operator);
+    }
+
+    // The kind every evaluator and theory solver reads the operator as, UNKNOWN for one none of them knows (such as & and |)
+    public static int kind(String operator) {
+        if (operator == null) {return UNKNOWN;}
+        switch (operator) {
+            case "*": return MUL;
+            case "/": return DIV;
+            case "%": return MOD;
+            case "+": return ADD;
+            case "-": return SUB;
+            case "<": return LT;
+            case "<=": return LE;
+            case ">": return GT;
+            case ">=": return GE;
+            case "=":
+            case "==": return EQ;
+            case "!=":
+            case "<>": return NE;
+            default: return UNKNOWN;
+        }
+    }
+
+    // Whether the kind compares its sides: a comparison or an equality
+    public static boolean isRelation(int kind) {
+        return kind >= LT;
     }
 }
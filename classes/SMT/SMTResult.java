@@ -0,0 +1,22 @@
+package SMT;
+
+import SAT.SolveStatus;
+import SAT.SolverStatistics;
+import SAT.StopReason;
+
+public class SMTResult {
+    public final SolveStatus status;
+    // A copy of the atom with its literals locked to the model when SAT, null otherwise
+    public final Atom atom;
+    // Which budget limit was hit when UNKNOWN, null otherwise
+    public final StopReason stopReason;
+    // What the call did, complete or up to the point it stopped
+    public final SolverStatistics statistics;
+
+    public SMTResult(SolveStatus status, Atom atom, StopReason stopReason, SolverStatistics statistics) {
+        this.status = status;
+        this.atom = atom;
+        this.stopReason = stopReason;
+        this.statistics = statistics;
+    }
+}
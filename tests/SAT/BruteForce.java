@@ -0,0 +1,81 @@
+package SAT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Random small formulas and exhaustive answers to check the solvers against
+final class BruteForce {
+    private BruteForce() {}
+
+    static int[] randomClause(Random random, int numVars, int maxLength) {
+        int[] clause = new int[1 + random.nextInt(maxLength)];
+        for (int i = 0; i < clause.length; i++) {
+            clause[i] = Lit.of(random.nextInt(numVars), random.nextBoolean());
+        }
+        return clause;
+    }
+
+    static List<int[]> randomFormula(Random random, int numVars, int clauses, int maxLength) {
+        List<int[]> formula = new ArrayList<>();
+        for (int c = 0; c < clauses; c++) {
+            formula.add(randomClause(random, numVars, maxLength));
+        }
+        return formula;
+    }
+
+    static ClauseArena arena(List<int[]> formula) {
+        ClauseArena arena = new ClauseArena();
+        for (int[] clause : formula) {
+            arena.add(clause, 0, clause.length, false);
+        }
+        return arena;
+    }
+
+    // Bit v of the assignment is the value of variable v
+    static boolean satisfies(int assignment, List<int[]> formula) {
+        for (int[] clause : formula) {
+            boolean satisfied = false;
+            for (int lit : clause) {
+                if ((((assignment >>> Lit.var(lit)) & 1) != 0) != Lit.isNeg(lit)) {
+                    satisfied = true;
+                    break;
+                }
+            }
+            if (!satisfied) {return false;}
+        }
+        return true;
+    }
+
+    static boolean satisfiable(int numVars, List<int[]> formula) {
+        for (int assignment = 0; assignment < 1 << numVars; assignment++) {
+            if (satisfies(assignment, formula)) {return true;}
+        }
+        return false;
+    }
+
+    static int assignment(boolean[] model, int numVars) {
+        int assignment = 0;
+        for (int v = 0; v < numVars; v++) {
+            if (model[v]) {assignment |= 1 << v;}
+        }
+        return assignment;
+    }
+
+    static int assignment(CDCLSolver solver, int numVars) {
+        int assignment = 0;
+        for (int v = 0; v < numVars; v++) {
+            if (solver.modelValue(v)) {assignment |= 1 << v;}
+        }
+        return assignment;
+    }
+
+    // The formula plus one unit clause per assumption
+    static List<int[]> with(List<int[]> formula, int[] units) {
+        List<int[]> result = new ArrayList<>(formula);
+        for (int lit : units) {
+            result.add(new int[] {lit});
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CDCLSolverTest {
+    @Test
+    void agreesWithBruteForce() {
+        Random random = new Random(1);
+        for (int round = 0; round < 1000; round++) {
+            int n = 1 + random.nextInt(12);
+            List<int[]> formula = BruteForce.randomFormula(random, n, random.nextInt(5 * n), 4);
+            CDCLSolver solver = new CDCLSolver();
+            solver.ensureVars(n);
+            for (int[] clause : formula) {
+                solver.addClause(clause.clone());
+            }
+            SolveStatus status = solver.solve();
+            assertEquals(BruteForce.satisfiable(n, formula), status == SolveStatus.SAT, "round " + round);
+            if (status == SolveStatus.SAT) {assertTrue(BruteForce.satisfies(BruteForce.assignment(solver, n), formula));}
+        }
+    }
+
+    // Queries under assumptions with clauses added in between; failed assumptions must be contradictory on their own
+    @Test
+    void solvesIncrementallyUnderAssumptions() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            int n = 1 + random.nextInt(10);
+            List<int[]> formula = BruteForce.randomFormula(random, n, random.nextInt(4 * n), 3);
+            CDCLSolver solver = new CDCLSolver();
+            solver.ensureVars(n);
+            for (int[] clause : formula) {
+                solver.addClause(clause.clone());
+            }
+            for (int query = 0; query < 5; query++) {
+                int[] assumptions = new int[random.nextInt(4)];
+                for (int i = 0; i < assumptions.length; i++) {
+                    assumptions[i] = Lit.of(random.nextInt(n), random.nextBoolean());
+                }
+                List<int[]> assumed = BruteForce.with(formula, assumptions);
+                SolveStatus status = solver.solve(assumptions);
+                assertEquals(BruteForce.satisfiable(n, assumed), status == SolveStatus.SAT);
+                if (status == SolveStatus.SAT) {
+                    assertTrue(BruteForce.satisfies(BruteForce.assignment(solver, n), assumed));
+                } else {
+                    assertFalse(BruteForce.satisfiable(n, BruteForce.with(formula, solver.failedAssumptions())));
+                }
+                int[] clause = BruteForce.randomClause(random, n, 3);
+                formula.add(clause);
+                solver.addClause(clause.clone());
+            }
+        }
+    }
+
+    @Test
+    void searchesAgainAfterStop() {
+        CDCLSolver solver = new CDCLSolver();
+        solver.addClause(Lit.of(0, false), Lit.of(1, false));
+        solver.stop();
+        assertEquals(SolveStatus.UNKNOWN, solver.solve());
+        assertEquals(StopReason.STOPPED, solver.stopReason());
+        assertEquals(SolveStatus.SAT, solver.solve());
+    }
+}
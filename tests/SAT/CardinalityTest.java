@@ -0,0 +1,124 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CardinalityTest {
+    // The weights of the literals the assignment makes true
+    private static long weight(int assignment, int[] lits, int[] weights) {
+        long total = 0;
+        for (int i = 0; i < lits.length; i++) {
+            if ((((assignment >>> Lit.var(lits[i])) & 1) != 0) != Lit.isNeg(lits[i])) {total += weights[i];}
+        }
+        return total;
+    }
+
+    // Constraints are normalized to at-most form with positive weights
+    private static boolean holds(int assignment, List<int[]> clauses, List<CardinalityConstraint> constraints) {
+        if (!BruteForce.satisfies(assignment, clauses)) {return false;}
+        for (CardinalityConstraint constraint : constraints) {
+            if (weight(assignment, constraint.lits, constraint.weights) > constraint.bound) {return false;}
+        }
+        return true;
+    }
+
+    private static CardinalityConstraint random(Random random, int n, boolean weighted) {
+        int[] lits = new int[random.nextInt(n + 2)];
+        for (int i = 0; i < lits.length; i++) {
+            lits[i] = Lit.of(random.nextInt(n), random.nextBoolean());
+        }
+        if (weighted) {
+            int[] weights = new int[lits.length];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = random.nextInt(7) - 2;
+            }
+            long bound = random.nextInt(12) - 2;
+            return random.nextBoolean() ? CardinalityConstraint.atMost(lits, weights, bound) : CardinalityConstraint.atLeast(lits, weights, bound);
+        }
+        int k = random.nextInt(lits.length + 2) - 1;
+        return random.nextBoolean() ? CardinalityConstraint.atMost(lits, k) : CardinalityConstraint.atLeast(lits, k);
+    }
+
+    @Test
+    void normalizationKeepsTheMeaning() {
+        Random random = new Random(4);
+        for (int round = 0; round < 1000; round++) {
+            int n = 1 + random.nextInt(6);
+            int[] lits = new int[random.nextInt(8)];
+            int[] weights = new int[lits.length];
+            for (int i = 0; i < lits.length; i++) {
+                lits[i] = Lit.of(random.nextInt(n), random.nextBoolean());
+                weights[i] = random.nextInt(9) - 4;
+            }
+            long bound = random.nextInt(12) - 4;
+            boolean atMost = random.nextBoolean();
+            CardinalityConstraint constraint = atMost ? CardinalityConstraint.atMost(lits, weights, bound) : CardinalityConstraint.atLeast(lits, weights, bound);
+            for (int a = 0; a < 1 << n; a++) {
+                long raw = weight(a, lits, weights);
+                assertEquals(atMost ? raw <= bound : raw >= bound, holds(a, List.of(), List.of(constraint)), constraint.toString());
+            }
+        }
+    }
+
+    @Test
+    void propagatorAgreesWithBruteForce() {
+        Random random = new Random(5);
+        for (int round = 0; round < 1000; round++) {
+            int n = 1 + random.nextInt(10);
+            boolean weighted = random.nextInt(3) == 0;
+            CDCLSolver solver = new CDCLSolver();
+            solver.ensureVars(n);
+            List<int[]> clauses = BruteForce.randomFormula(random, n, random.nextInt(2 * n), 3);
+            for (int[] clause : clauses) {
+                solver.addClause(clause.clone());
+            }
+            List<CardinalityConstraint> constraints = new ArrayList<>();
+            for (int query = 0; query < 3; query++) {
+                CardinalityConstraint constraint = random(random, n, weighted);
+                constraints.add(constraint);
+                solver.addCardinality(constraint);
+                int[] assumptions = {Lit.of(random.nextInt(n), random.nextBoolean())};
+                List<int[]> assumed = BruteForce.with(clauses, assumptions);
+                boolean expected = false;
+                for (int a = 0; a < 1 << n && !expected; a++) {
+                    expected = holds(a, assumed, constraints);
+                }
+                SolveStatus status = solver.solve(assumptions);
+                assertEquals(expected, status == SolveStatus.SAT, "round " + round + " " + constraints);
+                if (status == SolveStatus.SAT) {assertTrue(holds(BruteForce.assignment(solver, n), assumed, constraints));}
+            }
+        }
+    }
+
+    // For every input assignment the encoding is satisfiable exactly when the constraint holds
+    @Test
+    void encodingsAgreeWithTheConstraint() {
+        Random random = new Random(6);
+        for (CardinalityEncoder.Encoding encoding : CardinalityEncoder.Encoding.values()) {
+            for (int round = 0; round < 150; round++) {
+                int n = 1 + random.nextInt(7);
+                CardinalityConstraint constraint = random(random, n, false);
+                if (!constraint.isCardinality()) {continue;}
+                ClauseArena arena = new ClauseArena();
+                int numVars = CardinalityEncoder.encode(constraint, encoding, arena, n);
+                CDCLSolver solver = new CDCLSolver();
+                solver.ensureVars(numVars);
+                solver.addClauses(arena);
+                for (int a = 0; a < 1 << n; a++) {
+                    int[] inputs = new int[n];
+                    for (int v = 0; v < n; v++) {
+                        inputs[v] = Lit.of(v, ((a >>> v) & 1) == 0);
+                    }
+                    assertEquals(holds(a, List.of(), List.of(constraint)), solver.solve(inputs) == SolveStatus.SAT,
+                            encoding + " " + constraint + " inputs " + a);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DimacsTest {
+    @TempDir
+    Path directory;
+
+    // Comments, odd whitespace, clauses spanning lines and empty clauses
+    @Test
+    void readsWhatWasWritten() throws Exception {
+        Random random = new Random(5);
+        Path file = directory.resolve("formula.cnf");
+        for (int round = 0; round < 200; round++) {
+            int n = 1 + random.nextInt(30);
+            List<int[]> clauses = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+            if (random.nextBoolean()) {text.append("c a comment 1 2 3\n");}
+            text.append("p  cnf ").append(n).append('\t');
+            int m = random.nextInt(40);
+            text.append(m).append(" \r\n");
+            for (int c = 0; c < m; c++) {
+                int[] clause = new int[random.nextInt(4)];
+                for (int i = 0; i < clause.length; i++) {
+                    clause[i] = (random.nextBoolean() ? -1 : 1) * (1 + random.nextInt(n));
+                    text.append(clause[i]).append(random.nextInt(5) == 0 ? "\n" : " ");
+                }
+                text.append(random.nextBoolean() ? "0\n" : "0 ");
+                if (random.nextInt(7) == 0) {text.append("c between clauses\n");}
+                clauses.add(clause);
+            }
+            Files.writeString(file, text);
+
+            ClauseArena arena = new ClauseArena();
+            assertEquals(n, DimacsReader.read(file, arena));
+            int c = 0;
+            for (int ref = arena.first(); ref < arena.end(); ref = arena.next(ref), c++) {
+                int[] lits = arena.literals(ref);
+                int[] dimacs = new int[lits.length];
+                for (int i = 0; i < lits.length; i++) {
+                    dimacs[i] = Lit.toDimacs(lits[i]);
+                }
+                assertArrayEquals(clauses.get(c), dimacs, "round " + round + " clause " + c);
+            }
+            assertEquals(m, c);
+
+            // And back out through the writer
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DimacsWriter writer = new DimacsWriter(out);
+            writer.writeFormula(arena, n);
+            writer.flush();
+            Files.write(file, out.toByteArray());
+            ClauseArena reread = new ClauseArena();
+            assertEquals(n, DimacsReader.read(file, reread));
+            assertEquals(arena.clauseCount(), reread.clauseCount());
+        }
+    }
+
+    @Test
+    void writesCompetitionOutput() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DimacsWriter writer = new DimacsWriter(out);
+        writer.writeStatus(SolveStatus.SAT);
+        writer.writeModel(new boolean[] {true, false, true});
+        writer.flush();
+        assertEquals("s SATISFIABLE\nv 1 -2 3 0\n", out.toString(StandardCharsets.US_ASCII));
+    }
+}
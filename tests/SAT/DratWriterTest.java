@@ -0,0 +1,123 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DratWriterTest {
+    // Reverse unit propagation: assuming the clause false and propagating the database conflicts
+    private static boolean implied(List<int[]> database, int[] clause, int numVars) {
+        byte[] value = new byte[numVars];
+        for (int lit : clause) {
+            byte falsified = (byte) (Lit.isNeg(lit) ? 1 : -1);
+            if (value[Lit.var(lit)] == -falsified) {return true;}
+            value[Lit.var(lit)] = falsified;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int[] other : database) {
+                int unassigned = -1;
+                int count = 0;
+                boolean satisfied = false;
+                for (int lit : other) {
+                    byte v = value[Lit.var(lit)];
+                    if (Lit.isNeg(lit)) {v = (byte) -v;}
+                    if (v == 1) {
+                        satisfied = true;
+                        break;
+                    }
+                    if (v == 0 && lit != unassigned) {
+                        count++;
+                        unassigned = lit;
+                    }
+                }
+                if (satisfied) {continue;}
+                if (count == 0) {return true;}
+                if (count == 1) {
+                    value[Lit.var(unassigned)] = (byte) (Lit.isNeg(unassigned) ? -1 : 1);
+                    changed = true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Every added line of the proof of an UNSAT random 3-SAT instance is RUP, and it ends in a refutation
+    @Test
+    void proofsCheck() throws Exception {
+        Random random = new Random(21);
+        int refuted = 0;
+        for (int round = 0; round < 30; round++) {
+            int n = 20 + random.nextInt(20);
+            List<int[]> database = new ArrayList<>();
+            CDCLSolver solver = new CDCLSolver();
+            for (int c = 0; c < n * 46 / 10; c++) {
+                int[] clause = {Lit.of(random.nextInt(n), random.nextBoolean()), Lit.of(random.nextInt(n), random.nextBoolean()),
+                    Lit.of(random.nextInt(n), random.nextBoolean())};
+                database.add(clause);
+                solver.addClause(clause.clone());
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DratWriter proof = new DratWriter(out, 64);
+            solver.setProof(proof);
+            SolveStatus status = solver.solve();
+            proof.close();
+            if (status != SolveStatus.UNSAT) {continue;}
+            refuted++;
+
+            byte[] bytes = out.toByteArray();
+            boolean empty = false;
+            for (int p = 0; p < bytes.length && !empty; ) {
+                char kind = (char) bytes[p++];
+                List<Integer> lits = new ArrayList<>();
+                while (true) {
+                    int value = 0;
+                    int shift = 0;
+                    int b;
+                    do {
+                        b = bytes[p++] & 0xff;
+                        value |= (b & 0x7f) << shift;
+                        shift += 7;
+                    } while ((b & 0x80) != 0);
+                    if (value == 0) {break;}
+                    // 2 * DIMACS variable + sign is the int encoding plus 2
+                    lits.add(value - 2);
+                }
+                int[] clause = lits.stream().mapToInt(Integer::intValue).toArray();
+                if (kind == 'a') {
+                    assertTrue(implied(database, clause, n), "round " + round + " added " + Arrays.toString(clause));
+                    database.add(clause);
+                    empty = clause.length == 0;
+                } else if (kind == 'd') {
+                    assertTrue(remove(database, clause), "round " + round + " deleted an unknown clause");
+                } else {
+                    fail("unknown line kind " + kind);
+                }
+            }
+            assertTrue(empty || implied(database, new int[0], n), "round " + round + " has no refutation");
+        }
+        assertTrue(refuted > 0);
+    }
+
+    private static boolean remove(List<int[]> database, int[] clause) {
+        int[] sorted = clause.clone();
+        Arrays.sort(sorted);
+        for (int i = database.size() - 1; i >= 0; i--) {
+            int[] other = database.get(i).clone();
+            Arrays.sort(other);
+            if (Arrays.equals(sorted, other)) {
+                database.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+}
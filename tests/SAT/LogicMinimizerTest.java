@@ -0,0 +1,122 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LogicMinimizerTest {
+    private static final Random RANDOM = new Random(19);
+
+    @Test
+    void readsRowsInAnyOrder() {
+        // AND with its rows listed in reverse
+        assertEquals("(Var0 AND Var1)", BooleanFunctionFinder.fromColumns("1100/1010", "1000").findBooleanFunction());
+        // Only 11 -> 1 and 00 -> 0 listed
+        assertEquals("(Var0 AND Var1)", BooleanFunctionFinder.fromColumns("10/10", "10").findBooleanFunction());
+    }
+
+    @Test
+    void rejectsAnInputWithBothOutputs() {
+        // 01 -> 1, 01 -> 0, 10 -> 0
+        BooleanFunctionFinder finder = BooleanFunctionFinder.fromColumns("001/110", "100");
+        assertThrows(IllegalArgumentException.class, () -> finder.findBooleanFunction());
+    }
+
+    // Both the exact and the heuristic minimizer, on complete, shuffled and partial tables with repeated rows
+    @Test
+    void clausesAllowWhatPerRowClausesAllow() {
+        for (int round = 0; round < 260; round++) {
+            int width = round < 250 ? 1 + RANDOM.nextInt(6) : LogicMinimizer.EXACT_LIMIT + 1;
+            int[][] rows = randomRows(width);
+            BooleanFunctionFinder finder = finder(rows, width);
+
+            ArrayList<Variable> vars = new ArrayList<>();
+            for (int i = 0; i < width; i++) {
+                vars.add(new Variable(i));
+            }
+            Variable out = new Variable(width);
+            ArrayList<Clause> minimized = finder.toClauses(vars, out);
+            ArrayList<Clause> perRow = perRowClauses(rows, vars, out);
+            for (int assignment = 0; assignment < 1 << (width + 1); assignment++) {
+                assertEquals(satisfies(perRow, assignment), satisfies(minimized, assignment),
+                        "width " + width + ", assignment " + assignment);
+            }
+        }
+    }
+
+    // Each row is the assignment's column bits, then the output
+    private static int[][] randomRows(int width) {
+        List<int[]> rows = new ArrayList<>();
+        boolean[] output = new boolean[1 << width];
+        int kind = RANDOM.nextInt(3);
+        for (int a = 0; a < 1 << width; a++) {
+            output[a] = RANDOM.nextBoolean();
+            if (kind == 2 && RANDOM.nextInt(3) == 0) {continue;}
+            rows.add(row(a, width, output[a]));
+            if (kind == 2 && RANDOM.nextInt(8) == 0) {rows.add(row(a, width, output[a]));}
+        }
+        if (rows.isEmpty()) {rows.add(row(0, width, output[0]));}
+        if (kind > 0) {Collections.shuffle(rows, RANDOM);}
+        return rows.toArray(new int[0][]);
+    }
+
+    private static int[] row(int assignment, int width, boolean output) {
+        int[] row = new int[width + 1];
+        for (int c = 0; c < width; c++) {
+            row[c] = (assignment >>> (width - 1 - c)) & 1;
+        }
+        row[width] = output ? 1 : 0;
+        return row;
+    }
+
+    private static BooleanFunctionFinder finder(int[][] rows, int width) {
+        StringBuilder columns = new StringBuilder();
+        for (int c = 0; c < width; c++) {
+            if (c > 0) {columns.append('/');}
+            for (int[] row : rows) {
+                columns.append(row[c]);
+            }
+        }
+        StringBuilder outputs = new StringBuilder();
+        for (int[] row : rows) {
+            outputs.append(row[width]);
+        }
+        return BooleanFunctionFinder.fromColumns(columns.toString(), outputs.toString());
+    }
+
+    // One clause per row: row_match -> output == row's output
+    private static ArrayList<Clause> perRowClauses(int[][] rows, ArrayList<Variable> vars, Variable out) {
+        ArrayList<Clause> cnf = new ArrayList<>();
+        for (int[] row : rows) {
+            Clause clause = new Clause();
+            for (int c = 0; c < vars.size(); c++) {
+                clause.clause.add(new Literal(vars.get(c), row[c] == 1));
+            }
+            clause.clause.add(new Literal(out, row[vars.size()] == 0));
+            cnf.add(clause);
+        }
+        return cnf;
+    }
+
+    // Bit val of the assignment is the value of the variable numbered val
+    private static boolean satisfies(List<Clause> cnf, int assignment) {
+        for (Clause clause : cnf) {
+            boolean satisfied = false;
+            for (Literal lit : clause.clause) {
+                boolean value = ((assignment >>> lit.var.val) & 1) != 0;
+                if (value != lit.neg) {
+                    satisfied = true;
+                    break;
+                }
+            }
+            if (!satisfied) {return false;}
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ModelEnumeratorTest {
+    // Each projected model exactly once, full or projected onto a random subset
+    @Test
+    void enumeratesEveryProjectedModelOnce() {
+        Random random = new Random(5);
+        for (int round = 0; round < 300; round++) {
+            int n = 2 + random.nextInt(9);
+            List<int[]> formula = BruteForce.randomFormula(random, n, random.nextInt(3 * n), 3);
+            CDCLSolver solver = new CDCLSolver();
+            solver.ensureVars(n);
+            for (int[] clause : formula) {
+                solver.addClause(clause.clone());
+            }
+            List<Integer> vars = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                vars.add(v);
+            }
+            Collections.shuffle(vars, random);
+            boolean full = random.nextBoolean();
+            int[] projection = new int[full ? n : random.nextInt(n + 1)];
+            for (int i = 0; i < projection.length; i++) {
+                projection[i] = full ? i : vars.get(i);
+            }
+
+            Set<String> expected = new HashSet<>();
+            for (int a = 0; a < 1 << n; a++) {
+                if (BruteForce.satisfies(a, formula)) {expected.add(project(a, projection));}
+            }
+            ModelEnumerator models = full ? new ModelEnumerator(solver) : new ModelEnumerator(solver, projection);
+            Set<String> found = new HashSet<>();
+            while (models.hasNext()) {
+                StringBuilder model = new StringBuilder();
+                for (boolean value : models.next()) {
+                    model.append(value ? '1' : '0');
+                }
+                assertTrue(found.add(model.toString()), "round " + round + " repeated " + model);
+            }
+            assertEquals(expected, found, "round " + round);
+            assertTrue(models.isComplete());
+        }
+    }
+
+    private static String project(int assignment, int[] projection) {
+        StringBuilder text = new StringBuilder();
+        for (int var : projection) {
+            text.append((assignment >>> var) & 1);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+// PortfolioSolver and CubeAndConquer against brute force, each solved twice to check they can be reused
+class ParallelSolverTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private static boolean satisfied(List<int[]> formula, int numVars, IntPredicate value) {
+        int assignment = 0;
+        for (int v = 0; v < numVars; v++) {
+            if (value.test(v)) {assignment |= 1 << v;}
+        }
+        return BruteForce.satisfies(assignment, formula);
+    }
+
+    @Test
+    void portfolioAgreesWithBruteForce() throws Exception {
+        Random random = new Random(9);
+        for (int round = 0; round < 100; round++) {
+            int n = 4 + random.nextInt(11);
+            List<int[]> formula = BruteForce.randomFormula(random, n, n * 4, 3);
+            boolean expected = BruteForce.satisfiable(n, formula);
+            PortfolioSolver portfolio = new PortfolioSolver(BruteForce.arena(formula), n, 3);
+            for (int solve = 0; solve < 2; solve++) {
+                SolveStatus status = portfolio.solve();
+                assertEquals(expected, status == SolveStatus.SAT, "round " + round);
+                if (expected) {assertTrue(satisfied(formula, n, portfolio::modelValue));}
+            }
+        }
+    }
+
+    @Test
+    void cubeAndConquerAgreesWithBruteForce() {
+        Random random = new Random(13);
+        for (int round = 0; round < 150; round++) {
+            int n = 4 + random.nextInt(11);
+            List<int[]> formula = BruteForce.randomFormula(random, n, n * 4, 3);
+            boolean expected = BruteForce.satisfiable(n, formula);
+            CubeAndConquer cubes = new CubeAndConquer(BruteForce.arena(formula), n, POOL);
+            for (int solve = 0; solve < 2; solve++) {
+                SolveStatus status = cubes.solve();
+                assertEquals(expected, status == SolveStatus.SAT, "round " + round);
+                if (expected) {assertTrue(satisfied(formula, n, cubes::modelValue));}
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PreprocessorTest {
+    // The simplified formula is equisatisfiable, and its models extend to models of the original
+    @Test
+    void keepsSatisfiabilityAndReconstructsModels() {
+        Random random = new Random(6);
+        for (int round = 0; round < 1000; round++) {
+            int n = 1 + random.nextInt(12);
+            List<int[]> formula = BruteForce.randomFormula(random, n, random.nextInt(5 * n), 4);
+            Preprocessor preprocessor = new Preprocessor(n);
+            if (random.nextBoolean()) {preprocessor.freeze(random.nextInt(n));}
+            for (int[] clause : formula) {
+                preprocessor.addClause(clause.clone());
+            }
+            boolean expected = BruteForce.satisfiable(n, formula);
+            if (!preprocessor.run()) {
+                assertEquals(false, expected, "round " + round);
+                continue;
+            }
+            CDCLSolver solver = new CDCLSolver();
+            solver.ensureVars(n);
+            solver.addClauses(preprocessor.result());
+            SolveStatus status = solver.solve();
+            assertEquals(expected, status == SolveStatus.SAT, "round " + round);
+            if (status != SolveStatus.SAT) {continue;}
+            boolean[] model = new boolean[n];
+            for (int v = 0; v < n; v++) {
+                model[v] = solver.modelValue(v);
+            }
+            preprocessor.extendModel(model);
+            assertTrue(BruteForce.satisfies(BruteForce.assignment(model, n), formula), "round " + round);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TruthTableTest {
+    @TempDir
+    Path directory;
+
+    // Generated tables against their definition, and the text format read back through String, Reader and file
+    @Test
+    void generatesAndParsesTheSameTable() throws Exception {
+        Random random = new Random(3);
+        for (int round = 0; round < 100; round++) {
+            int width = 1 + random.nextInt(10);
+            long seed = random.nextLong();
+            TruthTable table = TruthTable.of(width, in -> {
+                long x = seed;
+                for (long column : in) {
+                    x = (x * 31) ^ (column * (seed | 1));
+                }
+                return x;
+            });
+            assertEquals(1 << width, table.rows);
+            assertTrue(table.isComplete());
+            StringBuilder columns = new StringBuilder();
+            StringBuilder outputs = new StringBuilder();
+            for (int row = 0; row < table.rows; row++) {
+                assertEquals(row, table.assignment(row));
+                outputs.append(table.output(row) ? '1' : '0');
+            }
+            for (int c = 0; c < width; c++) {
+                if (c > 0) {columns.append(random.nextBoolean() ? "/" : " /\n");}
+                for (int row = 0; row < table.rows; row++) {
+                    columns.append(table.input(row, c) ? '1' : '0');
+                }
+            }
+
+            Path columnFile = directory.resolve("columns.txt");
+            Path outputFile = directory.resolve("outputs.txt");
+            Files.writeString(columnFile, columns);
+            Files.writeString(outputFile, outputs);
+            TruthTable[] parsed = {
+                BooleanFunctionFinder.fromColumns(columns.toString(), outputs.toString()).table,
+                TruthTable.parse(new StringReader(columns.toString()), new StringReader(outputs.toString())),
+                TruthTable.parse(columnFile, outputFile),
+            };
+            for (TruthTable copy : parsed) {
+                assertEquals(table.width, copy.width);
+                assertEquals(table.rows, copy.rows);
+                assertTrue(copy.isComplete());
+                int trueRows = 0;
+                for (int row = 0; row < table.rows; row++) {
+                    assertEquals(table.output(row), copy.output(row));
+                    if (table.output(row)) {trueRows++;}
+                }
+                for (int row = copy.nextTrueRow(0); row != -1; row = copy.nextTrueRow(row + 1)) {
+                    assertTrue(copy.output(row));
+                    trueRows--;
+                }
+                assertEquals(0, trueRows);
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedText() {
+        for (String[] bad : new String[][] {{"01/0", "01"}, {"01/02", "01"}, {"01/01", "012"}, {"01/01", "0"}}) {
+            assertThrows(IllegalArgumentException.class, () -> BooleanFunctionFinder.fromColumns(bad[0], bad[1]));
+        }
+    }
+
+    @Test
+    void reversedRowsAreNotComplete() {
+        assertEquals(false, BooleanFunctionFinder.fromColumns("1100/1010", "1000").table.isComplete());
+    }
+}
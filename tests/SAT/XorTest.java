@@ -0,0 +1,101 @@
+package SAT;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class XorTest {
+    private static boolean holds(int assignment, List<int[]> clauses, List<XorConstraint> xors) {
+        if (!BruteForce.satisfies(assignment, clauses)) {return false;}
+        for (XorConstraint xor : xors) {
+            boolean parity = false;
+            for (int var : xor.vars) {
+                parity ^= ((assignment >>> var) & 1) != 0;
+            }
+            if (parity != xor.parity) {return false;}
+        }
+        return true;
+    }
+
+    // Gauss-Jordan propagation next to clauses, under assumptions, with XORs added between queries
+    @Test
+    void agreesWithBruteForce() {
+        Random random = new Random(11);
+        for (int round = 0; round < 800; round++) {
+            int n = 1 + random.nextInt(12);
+            CDCLSolver solver = new CDCLSolver();
+            solver.ensureVars(n);
+            List<int[]> clauses = BruteForce.randomFormula(random, n, random.nextInt(3 * n), 3);
+            for (int[] clause : clauses) {
+                solver.addClause(clause.clone());
+            }
+            List<XorConstraint> xors = new ArrayList<>();
+            for (int query = 0; query < 4; query++) {
+                int[] vars = new int[random.nextInt(5)];
+                for (int i = 0; i < vars.length; i++) {
+                    vars[i] = random.nextInt(n);
+                }
+                boolean parity = random.nextBoolean();
+                xors.add(new XorConstraint(vars.clone(), parity));
+                solver.addXor(vars, parity);
+
+                int[] assumptions = {Lit.of(random.nextInt(n), random.nextBoolean())};
+                List<int[]> assumed = BruteForce.with(clauses, assumptions);
+                boolean expected = false;
+                for (int a = 0; a < 1 << n && !expected; a++) {
+                    expected = holds(a, assumed, xors);
+                }
+                SolveStatus status = solver.solve(assumptions);
+                assertEquals(expected, status == SolveStatus.SAT, "round " + round);
+                if (status == SolveStatus.SAT) {assertTrue(holds(BruteForce.assignment(solver, n), assumed, xors));}
+            }
+        }
+    }
+
+    @Test
+    void detectsXorsWrittenAsClauses() {
+        Random random = new Random(12);
+        for (int round = 0; round < 300; round++) {
+            int n = 3 + random.nextInt(8);
+            ClauseArena arena = new ClauseArena();
+            Set<String> expected = new HashSet<>();
+            for (int x = 1 + random.nextInt(3); x > 0; x--) {
+                List<Integer> pool = new ArrayList<>();
+                for (int v = 0; v < n; v++) {
+                    pool.add(v);
+                }
+                Collections.shuffle(pool, random);
+                int[] vars = new int[2 + random.nextInt(Math.min(4, n - 1))];
+                for (int i = 0; i < vars.length; i++) {
+                    vars[i] = pool.get(i);
+                }
+                Arrays.sort(vars);
+                boolean parity = random.nextBoolean();
+                expected.add(Arrays.toString(vars) + parity);
+                // Every sign pattern with the wrong parity is excluded by one clause
+                for (int pattern = 0; pattern < 1 << vars.length; pattern++) {
+                    if ((Integer.bitCount(pattern) % 2 == 0) != parity) {continue;}
+                    int[] clause = new int[vars.length];
+                    for (int i = 0; i < vars.length; i++) {
+                        clause[i] = Lit.of(vars[i], ((pattern >>> i) & 1) != 0);
+                    }
+                    arena.add(clause, 0, clause.length, false);
+                }
+            }
+            Set<String> found = new HashSet<>();
+            for (XorConstraint xor : XorDetector.detect(arena)) {
+                found.add(Arrays.toString(xor.vars) + xor.parity);
+            }
+            assertEquals(expected, found, "round " + round);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import SAT.Budget;
+import SAT.SolveStatus;
+import SAT.StopReason;
+import SMT.Atom;
+import SMT.SMTClause;
+import SMT.SMTLiteral;
+import SMT.SMTOperator;
+import SMT.SMTResult;
+
+class SMTSolverTest {
+    private static final int BRANCHES = 40;
+
+    // (x0 < y0 & y0 < x0) | (x1 < y1 & y1 < x1) | ...: every Boolean model picks one branch and the theory refutes it
+    private static Atom refutedBranches() {
+        ArrayList<SMTClause> clauses = new ArrayList<>();
+        ArrayList<SMTOperator> operators = new ArrayList<>();
+        for (int i = 0; i < BRANCHES; i++) {
+            SMTLiteral x = new SMTLiteral(false, 0, "x" + i);
+            SMTLiteral y = new SMTLiteral(false, 0, "y" + i);
+            clauses.add(less(x, y));
+            clauses.add(less(y, x));
+            operators.add(new SMTOperator("&"));
+            if (i < BRANCHES - 1) {operators.add(new SMTOperator("|"));}
+        }
+        return new Atom(clauses, operators);
+    }
+
+    private static SMTClause less(SMTLiteral left, SMTLiteral right) {
+        return clause(left, "<", right);
+    }
+
+    // Literals and operators alternating, as they appear in the clause
+    private static SMTClause clause(Object... parts) {
+        SMTClause clause = new SMTClause();
+        clause.literals = new ArrayList<>();
+        clause.operators = new ArrayList<>();
+        for (int i = 0; i < parts.length; i++) {
+            if (i % 2 == 0) {
+                clause.literals.add((SMTLiteral) parts[i]);
+            } else {
+                clause.operators.add(new SMTOperator((String) parts[i]));
+            }
+        }
+        return clause;
+    }
+
+    private static SMTLiteral constant(int value) {
+        return new SMTLiteral(true, value, Integer.toString(value));
+    }
+
+    @Test
+    void refutesEveryBranchWithoutBudget() {
+        SMTResult result = SMTSolver.solveSMT(refutedBranches(), Budget.unlimited());
+        assertEquals(SolveStatus.UNSAT, result.status);
+        assertTrue(result.statistics.getSatSolves() > BRANCHES);
+    }
+
+    // Each SAT search alone stays far below the limit; only the total over the refinements reaches it
+    @Test
+    void conflictLimitCoversEveryRefinement() {
+        SMTResult result = SMTSolver.solveSMT(refutedBranches(), Budget.unlimited().withConflictLimit(10));
+        assertEquals(SolveStatus.UNKNOWN, result.status);
+        assertEquals(StopReason.CONFLICT_LIMIT, result.stopReason);
+        assertTrue(result.statistics.getSatSolves() <= 11);
+    }
+
+    @Test
+    void nodeLimitCoversEveryRefinement() {
+        SMTResult result = SMTSolver.solveSMT(refutedBranches(), Budget.unlimited().withNodeLimit(200));
+        assertEquals(SolveStatus.UNKNOWN, result.status);
+        assertEquals(StopReason.NODE_LIMIT, result.stopReason);
+        assertTrue(result.statistics.getDecisions() <= 200);
+    }
+
+    // 3*p + 3*q lies strictly between 0 and 3, which only the coefficients' gcd rules out
+    @Test
+    void gcdRefutesRowsWithoutSearchingWideDomains() {
+        SMTLiteral p = new SMTLiteral(false, 0, "p");
+        SMTLiteral q = new SMTLiteral(false, 0, "q");
+        p.domain = new int[] {-1_000_000, 1_000_000};
+        q.domain = new int[] {-1_000_000, 1_000_000};
+        Atom atom = new Atom(
+            new ArrayList<>(List.of(
+                clause(constant(3), "*", p, "+", constant(3), "*", q, ">=", constant(1)),
+                clause(constant(3), "*", p, "+", constant(3), "*", q, "<=", constant(2)))),
+            new ArrayList<>(List.of(new SMTOperator("&"))));
+        SMTResult result = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> SMTSolver.solveSMT(atom, Budget.unlimited()));
+        assertEquals(SolveStatus.UNSAT, result.status);
+    }
+}